@@ -6,6 +6,8 @@ import com.lucaslouca.commands.LLRailRoadServiceCommandFactory;
 import com.lucaslouca.service.LLRailRoadService;
 import com.lucaslouca.service.LLRailRoadServiceImpl;
 import com.lucaslouca.util.LLPropertyFactory;
+import com.lucaslouca.util.LLTimetable;
+import com.lucaslouca.util.LLTimetableImpl;
 import com.lucaslouca.util.LLTownMap;
 import com.lucaslouca.util.LLTownMapImpl;
 
@@ -13,7 +15,7 @@ import java.io.FileNotFoundException;
 
 public class Main {
     public static void main(String[] args) {
-        if (args.length != 2) {
+        if (args.length != 2 && args.length != 3) {
             System.err.println(LLPropertyFactory.getProperties().get("usage"));
             System.exit(1);
         } else {
@@ -21,10 +23,14 @@ public class Main {
             String commandsFilePath = args[1];
 
             LLTownMap map = new LLTownMapImpl();
+            LLTimetable timetable = new LLTimetableImpl();
             try {
                 map.init(graphFilePath);
+                if (args.length == 3) {
+                    timetable.init(args[2]);
+                }
 
-                LLRailRoadService service = new LLRailRoadServiceImpl(map);
+                LLRailRoadService service = new LLRailRoadServiceImpl(map, timetable);
 
                 // Create an LLCommandFactory
                 LLCommandFactory commandFactory = new LLRailRoadServiceCommandFactory(service);
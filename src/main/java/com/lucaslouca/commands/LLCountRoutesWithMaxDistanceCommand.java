@@ -8,7 +8,7 @@ import com.lucaslouca.service.LLRailRoadService;
  * start and ending at dest with a maximum distance.
  */
 public class LLCountRoutesWithMaxDistanceCommand extends LLAbstractStartDestinationCommand {
-    private int maxDistance;
+    private long maxDistance;
 
     /**
      * Create a new command.
@@ -24,7 +24,7 @@ public class LLCountRoutesWithMaxDistanceCommand extends LLAbstractStartDestinat
      *
      * @param maxDistance max distance.
      */
-    public void setMaxDistance(int maxDistance) {
+    public void setMaxDistance(long maxDistance) {
         this.maxDistance = maxDistance;
     }
 
@@ -33,7 +33,7 @@ public class LLDistanceCommand extends LLAbstractRailRoadServiceCommand {
      * @return distance of the route.
      */
     @Override
-    public Integer execute() {
+    public Long execute() {
         return getReceiver().distance(townNames);
     }
 }
@@ -0,0 +1,69 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+import com.lucaslouca.util.LLDirectedGraph;
+import com.lucaslouca.util.LLPropertyFactory;
+
+/**
+ * {@code LLAbstractRailRoadServiceCommand} that computes the lengths of the shortest routes from a list of start towns
+ * to a list of destination towns.
+ */
+public class LLDistanceTableCommand extends LLAbstractRailRoadServiceCommand {
+    private static final char ROW_SEPARATOR = ';';
+    private static final char COLUMN_SEPARATOR = ',';
+
+    private String[] starts;
+    private String[] dests;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLDistanceTableCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set the start towns, one per row of the table.
+     *
+     * @param starts names of the start towns.
+     */
+    public void setStarts(String[] starts) {
+        this.starts = starts;
+    }
+
+    /**
+     * Set the destination towns, one per column of the table.
+     *
+     * @param dests names of the destination towns.
+     */
+    public void setDests(String[] dests) {
+        this.dests = dests;
+    }
+
+    /**
+     * Compute the lengths of the shortest routes from every start town to every destination town.
+     *
+     * @return one row per start town, separated by {@code ';'}, each holding the lengths to the destination towns
+     * separated by {@code ','}. Missing routes are reported with the no route message.
+     */
+    @Override
+    public String execute() {
+        long[] table = getReceiver().distanceTable(starts, dests);
+        String noRoute = LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < table.length; i++) {
+            if (i > 0) {
+                sb.append(i % dests.length == 0 ? ROW_SEPARATOR : COLUMN_SEPARATOR);
+            }
+            if (table[i] == LLDirectedGraph.NO_SUCH_ROUTE) {
+                sb.append(noRoute);
+            } else {
+                sb.append(table[i]);
+            }
+        }
+        return sb.toString();
+    }
+}
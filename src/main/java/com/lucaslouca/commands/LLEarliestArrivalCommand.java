@@ -0,0 +1,39 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+/**
+ * {@code LLAbstractStartDestinationCommand} that computes the earliest arrival time at dest by train when leaving
+ * start at a given time.
+ */
+public class LLEarliestArrivalCommand extends LLAbstractStartDestinationCommand {
+    private int departure;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLEarliestArrivalCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set departure time.
+     *
+     * @param departure earliest departure time at start.
+     */
+    public void setDeparture(int departure) {
+        this.departure = departure;
+    }
+
+    /**
+     * Earliest arrival time at dest when leaving start at or after the departure time.
+     *
+     * @return the earliest arrival time.
+     */
+    @Override
+    public Integer execute() {
+        return getReceiver().earliestArrival(start, dest, departure);
+    }
+}
@@ -0,0 +1,50 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+
+/**
+ * {@code LLAbstractStartDestinationCommand} that estimates the number of possible routes starting from
+ * start and ending at dest with a maximum distance, to a given relative error.
+ */
+public class LLEstimateRoutesWithMaxDistanceCommand extends LLAbstractStartDestinationCommand {
+    private long maxDistance;
+    private double relativeError;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLEstimateRoutesWithMaxDistanceCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set max distance.
+     *
+     * @param maxDistance max distance.
+     */
+    public void setMaxDistance(long maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Set the target relative error of the estimate.
+     *
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     */
+    public void setRelativeError(double relativeError) {
+        this.relativeError = relativeError;
+    }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance.
+     *
+     * @return the estimate with its relative error and confidence interval.
+     */
+    @Override
+    public String execute() {
+        return getReceiver().estimateRoutesWithMaxDistance(start, dest, maxDistance, relativeError);
+    }
+}
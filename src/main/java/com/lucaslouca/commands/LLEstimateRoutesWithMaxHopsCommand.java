@@ -0,0 +1,50 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+
+/**
+ * {@code LLAbstractStartDestinationCommand} that estimates the number of possible routes starting from
+ * start and ending at dest with a maximum number of stops, to a given relative error.
+ */
+public class LLEstimateRoutesWithMaxHopsCommand extends LLAbstractStartDestinationCommand {
+    private int maxHops;
+    private double relativeError;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLEstimateRoutesWithMaxHopsCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set max hops.
+     *
+     * @param maxHops max hops.
+     */
+    public void setMaxHops(int maxHops) {
+        this.maxHops = maxHops;
+    }
+
+    /**
+     * Set the target relative error of the estimate.
+     *
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     */
+    public void setRelativeError(double relativeError) {
+        this.relativeError = relativeError;
+    }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of stops.
+     *
+     * @return the estimate with its relative error and confidence interval.
+     */
+    @Override
+    public String execute() {
+        return getReceiver().estimateRoutesWithMaxHops(start, dest, maxHops, relativeError);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+/**
+ * {code LLAbstractStartDestinationCommand} that computes the k shortest routes between two towns that do not visit a
+ * town twice.
+ */
+public class LLKShortestPathsCommand extends LLAbstractStartDestinationCommand {
+    private static final String ROUTE_SEPARATOR = ", ";
+
+    private int k;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLKShortestPathsCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set number of routes.
+     *
+     * @param k maximum number of routes.
+     */
+    public void setK(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Compute the k shortest routes between two towns.
+     *
+     * @return the routes ordered by distance, separated by {@code ", "}.
+     */
+    @Override
+    public String execute() {
+        return String.join(ROUTE_SEPARATOR, getReceiver().kShortestPathsBetween(start, dest, k));
+    }
+}
@@ -0,0 +1,30 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+/**
+ * {@code LLAbstractStartDestinationCommand} that computes the routes between two towns that are Pareto optimal with
+ * respect to distance and number of stops.
+ */
+public class LLParetoRoutesCommand extends LLAbstractStartDestinationCommand {
+    private static final String ROUTE_SEPARATOR = ", ";
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLParetoRoutesCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Compute the Pareto optimal routes between two towns.
+     *
+     * @return the routes with their distance and number of stops, ordered by distance and separated by {@code ", "}.
+     */
+    @Override
+    public String execute() {
+        return String.join(ROUTE_SEPARATOR, getReceiver().paretoRoutesBetween(start, dest));
+    }
+}
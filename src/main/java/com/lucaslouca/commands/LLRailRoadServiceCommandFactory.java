@@ -18,6 +18,15 @@ public class LLRailRoadServiceCommandFactory implements LLCommandFactory {
     private final String CMD_ROUTES_WITH_MAX_HOPS = "count_routes_with_max_hops";
     private final String CMD_ROUTES_WITH_HOPS = "count_routes_with_hops";
     private final String CMD_ROUTES_WITH_MAX_DISTANCE = "count_routes_with_max_distance";
+    private final String CMD_K_SHORTEST_PATHS = "k_shortest_paths";
+    private final String CMD_EARLIEST_ARRIVAL = "earliest_arrival";
+    private final String CMD_PARETO_ROUTES = "pareto_routes";
+    private final String CMD_SHORTEST_PATH_WITH_MAX_HOPS = "shortest_path_with_max_hops";
+    private final String CMD_DISTANCE_TABLE = "distance_table";
+    private final String CMD_REACHABLE_WITHIN = "reachable_within";
+    private final String CMD_ESTIMATE_ROUTES_WITH_MAX_HOPS = "estimate_routes_with_max_hops";
+    private final String CMD_ESTIMATE_ROUTES_WITH_MAX_DISTANCE = "estimate_routes_with_max_distance";
+    private final String REVERSE = "reverse";
 
     private final LLRailRoadService service;
 
@@ -40,11 +49,25 @@ public class LLRailRoadServiceCommandFactory implements LLCommandFactory {
      * <p>
      * or
      * <p>
-     * {@code commandName;town1;town2} for shortest path
+     * {@code commandName;town1;town2} for shortest path and the Pareto optimal routes
      * <p>
      * or
      * <p>
-     * {@code commandName;town1;town2;N} for {@code countRoutesWithXXX()} functions
+     * {@code commandName;town1;town2;N} for {@code countRoutesWithXXX()} functions, the k shortest paths, the
+     * shortest path with a maximum number of stops and the earliest arrival
+     * <p>
+     * or
+     * <p>
+     * {@code commandName;town1,town2,...;town3,town4,...} for the distance table
+     * <p>
+     * or
+     * <p>
+     * {@code commandName;town1,town2,...;N[;reverse]} for the towns within a maximum distance
+     * <p>
+     * or
+     * <p>
+     * {@code commandName;town1;town2;N;E} for the {@code estimateRoutesWithXXX()} functions, with a relative error
+     * {@code E} such as {@code 0.01}
      *
      * @param input the input to parse.
      * @return an {code LLAbstractRailRoadServiceCommand} that implements the {@code LLCommand} interface.
@@ -72,6 +95,22 @@ public class LLRailRoadServiceCommandFactory implements LLCommandFactory {
                     return createCountRoutesWithHopsCommand(input);
                 case CMD_ROUTES_WITH_MAX_DISTANCE:
                     return createCountRoutesWithMaxDistanceCommand(input);
+                case CMD_K_SHORTEST_PATHS:
+                    return createKShortestPathsCommand(input);
+                case CMD_EARLIEST_ARRIVAL:
+                    return createEarliestArrivalCommand(input);
+                case CMD_PARETO_ROUTES:
+                    return createParetoRoutesCommand(input);
+                case CMD_SHORTEST_PATH_WITH_MAX_HOPS:
+                    return createShortestPathWithMaxHopsCommand(input);
+                case CMD_DISTANCE_TABLE:
+                    return createDistanceTableCommand(input);
+                case CMD_REACHABLE_WITHIN:
+                    return createReachableWithinCommand(input);
+                case CMD_ESTIMATE_ROUTES_WITH_MAX_HOPS:
+                    return createEstimateRoutesWithMaxHopsCommand(input);
+                case CMD_ESTIMATE_ROUTES_WITH_MAX_DISTANCE:
+                    return createEstimateRoutesWithMaxDistanceCommand(input);
                 default:
                     throw new NoSuchElementException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_unknown", name));
             }
@@ -221,7 +260,220 @@ public class LLRailRoadServiceCommandFactory implements LLCommandFactory {
             command.setDest(parts[2]);
 
             try {
-                command.setMaxDistance(Integer.parseInt(parts[3]));
+                command.setMaxDistance(Long.parseLong(parts[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLKShortestPathsCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLKShortestPathsCommand}.
+     * @return command {@code LLKShortestPathsCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLKShortestPathsCommand createKShortestPathsCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 4) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLKShortestPathsCommand command = new LLKShortestPathsCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+
+            try {
+                command.setK(Integer.parseInt(parts[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLEarliestArrivalCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLEarliestArrivalCommand}.
+     * @return command {@code LLEarliestArrivalCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLEarliestArrivalCommand createEarliestArrivalCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 4) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLEarliestArrivalCommand command = new LLEarliestArrivalCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+
+            try {
+                command.setDeparture(Integer.parseInt(parts[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLParetoRoutesCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLParetoRoutesCommand}.
+     * @return command {@code LLParetoRoutesCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLParetoRoutesCommand createParetoRoutesCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLParetoRoutesCommand command = new LLParetoRoutesCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLShortestPathWithMaxHopsCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLShortestPathWithMaxHopsCommand}.
+     * @return command {@code LLShortestPathWithMaxHopsCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLShortestPathWithMaxHopsCommand createShortestPathWithMaxHopsCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 4) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLShortestPathWithMaxHopsCommand command = new LLShortestPathWithMaxHopsCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+
+            try {
+                command.setMaxHops(Integer.parseInt(parts[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLDistanceTableCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLDistanceTableCommand}.
+     * @return command {@code LLDistanceTableCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLDistanceTableCommand createDistanceTableCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLDistanceTableCommand command = new LLDistanceTableCommand(service);
+            command.setStarts(townList(parts[1], input));
+            command.setDests(townList(parts[2], input));
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLReachableWithinCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLReachableWithinCommand}.
+     * @return command {@code LLReachableWithinCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLReachableWithinCommand createReachableWithinCommand(String input) {
+        String[] parts = input.split(";");
+
+        if ((parts.length != 3 && parts.length != 4) || (parts.length == 4 && !parts[3].equals(REVERSE))) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLReachableWithinCommand command = new LLReachableWithinCommand(service);
+
+            command.setStarts(townList(parts[1], input));
+            command.setReverse(parts.length == 4);
+
+            try {
+                command.setMaxDistance(Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLEstimateRoutesWithMaxHopsCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLEstimateRoutesWithMaxHopsCommand}.
+     * @return command {@code LLEstimateRoutesWithMaxHopsCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLEstimateRoutesWithMaxHopsCommand createEstimateRoutesWithMaxHopsCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 5) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLEstimateRoutesWithMaxHopsCommand command = new LLEstimateRoutesWithMaxHopsCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+            command.setRelativeError(relativeError(parts[4], input));
+
+            try {
+                command.setMaxHops(Integer.parseInt(parts[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+
+            return command;
+        }
+    }
+
+    /**
+     * Create a new {@code LLEstimateRoutesWithMaxDistanceCommand}.
+     *
+     * @param input {@code String} (including command name) that needs to be parsed and then passed as parameters to the new {@code LLEstimateRoutesWithMaxDistanceCommand}.
+     * @return command {@code LLEstimateRoutesWithMaxDistanceCommand} for the given parameters.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    private LLEstimateRoutesWithMaxDistanceCommand createEstimateRoutesWithMaxDistanceCommand(String input) {
+        String[] parts = input.split(";");
+
+        if (parts.length != 5) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+        } else {
+            LLEstimateRoutesWithMaxDistanceCommand command = new LLEstimateRoutesWithMaxDistanceCommand(service);
+
+            command.setStart(parts[1]);
+            command.setDest(parts[2]);
+            command.setRelativeError(relativeError(parts[4], input));
+
+            try {
+                command.setMaxDistance(Long.parseLong(parts[3]));
             } catch (NumberFormatException e) {
                 throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
             }
@@ -229,4 +481,42 @@ public class LLRailRoadServiceCommandFactory implements LLCommandFactory {
             return command;
         }
     }
+
+    /**
+     * Parse the relative error of an estimate.
+     *
+     * @param part  the relative error, for example {@code 0.01}.
+     * @param input the whole input, for the error message.
+     * @return the relative error.
+     * @throws IllegalArgumentException if part is not a positive, finite number.
+     */
+    private double relativeError(String part, String input) {
+        try {
+            double relativeError = Double.parseDouble(part);
+            if (relativeError > 0 && !Double.isInfinite(relativeError)) {
+                return relativeError;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+    }
+
+    /**
+     * Split a {@code ','} separated list of towns.
+     *
+     * @param part  the list.
+     * @param input the whole input, for the error message.
+     * @return the town names.
+     * @throws IllegalArgumentException if a town name is empty.
+     */
+    private String[] townList(String part, String input) {
+        String[] towns = part.split(",", -1);
+        for (String town : towns) {
+            if (town.isEmpty()) {
+                throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", input));
+            }
+        }
+        return towns;
+    }
 }
@@ -0,0 +1,489 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+import com.lucaslouca.util.LLPropertyFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Parser that reads {@code LLAbstractRailRoadServiceCommand} commands directly from a {@code ByteBuffer}.
+ * <p>
+ * It understands the same protocol as {@code LLRailRoadServiceCommandFactory} (one command per line, arguments separated
+ * by {@code ';'}), but never builds intermediate {@code String} instances for the command line: command names are
+ * matched byte by byte, numbers are accumulated digit by digit and town names are resolved to a canonical
+ * {@code String} instance through an internal symbol table. Each town name is therefore decoded only the first time it
+ * is seen. The table holds at most {@code MAX_SYMBOLS} names, so that garbage input cannot grow it without bound; once
+ * it is full, names it does not know are decoded on every use.
+ * <p>
+ * Command objects are pooled: every call to {@link #parse(ByteBuffer)} reconfigures and returns the same instance for a
+ * given command type. A returned command is only valid until the next call to {@code parse}. Instances of this class
+ * are not thread-safe, use one parser per thread.
+ */
+public class LLRailRoadServiceCommandParser {
+    private static final byte SEPARATOR = ';';
+    private static final byte LIST_SEPARATOR = ',';
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private static final byte[] CMD_DISTANCE = "distance".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_SHORTEST_PATH = "shortest_path".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_LENGTH_SHORTEST_PATH = "length_of_shortest_path".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_ROUTES_WITH_MAX_HOPS = "count_routes_with_max_hops".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_ROUTES_WITH_HOPS = "count_routes_with_hops".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_ROUTES_WITH_MAX_DISTANCE = "count_routes_with_max_distance".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_K_SHORTEST_PATHS = "k_shortest_paths".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_EARLIEST_ARRIVAL = "earliest_arrival".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_PARETO_ROUTES = "pareto_routes".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_SHORTEST_PATH_WITH_MAX_HOPS = "shortest_path_with_max_hops".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_DISTANCE_TABLE = "distance_table".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_REACHABLE_WITHIN = "reachable_within".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_ESTIMATE_ROUTES_WITH_MAX_HOPS = "estimate_routes_with_max_hops".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CMD_ESTIMATE_ROUTES_WITH_MAX_DISTANCE = "estimate_routes_with_max_distance".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REVERSE = "reverse".getBytes(StandardCharsets.US_ASCII);
+
+    // Maximum number of town names kept in the symbol table
+    static final int MAX_SYMBOLS = 1 << 12;
+
+    /**
+     * Open addressing table mapping the bytes of a town name to a canonical {@code String}.
+     */
+    private static class SymbolTable {
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        /**
+         * Canonical {@code String} for the bytes {@code [from, to)} of {@code buffer}.
+         *
+         * @param buffer buffer containing the name.
+         * @param from   absolute index of the first byte.
+         * @param to     absolute index after the last byte.
+         * @return the canonical {@code String} for the given name. A new {@code String} if the name is unknown and the
+         * table is full.
+         */
+        String intern(ByteBuffer buffer, int from, int to) {
+            int hash = hash(buffer, from, to);
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+
+            while (keys[slot] != null) {
+                if (matches(keys[slot], buffer, from, to)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[to - from];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = buffer.get(from + i);
+            }
+            String value = new String(key, StandardCharsets.UTF_8);
+            if (size == MAX_SYMBOLS) {
+                return value;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+            return value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldValues.length * 2];
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(ByteBuffer buffer, int from, int to) {
+            int hash = 0x811c9dc5;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ buffer.get(i)) * 0x01000193;
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static int hash(byte[] key) {
+            int hash = 0x811c9dc5;
+            for (byte b : key) {
+                hash = (hash ^ b) * 0x01000193;
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+            if (key.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final SymbolTable towns = new SymbolTable();
+
+    private final LLShortestPathCommand shortestPathCommand;
+    private final LLShortestPathLengthCommand shortestPathLengthCommand;
+    private final LLDistanceCommand distanceCommand;
+    private final LLCountRoutesWithMaxHopsCommand countRoutesWithMaxHopsCommand;
+    private final LLCountRoutesWithHopsCommand countRoutesWithHopsCommand;
+    private final LLCountRoutesWithMaxDistanceCommand countRoutesWithMaxDistanceCommand;
+    private final LLKShortestPathsCommand kShortestPathsCommand;
+    private final LLEarliestArrivalCommand earliestArrivalCommand;
+    private final LLParetoRoutesCommand paretoRoutesCommand;
+    private final LLShortestPathWithMaxHopsCommand shortestPathWithMaxHopsCommand;
+    private final LLDistanceTableCommand distanceTableCommand;
+    private final LLReachableWithinCommand reachableWithinCommand;
+    private final LLEstimateRoutesWithMaxHopsCommand estimateRoutesWithMaxHopsCommand;
+    private final LLEstimateRoutesWithMaxDistanceCommand estimateRoutesWithMaxDistanceCommand;
+
+    // townNames arrays for LLDistanceCommand, indexed by route length
+    private String[][] routes = new String[8][];
+
+    // Absolute indices [start, end) of the arguments of the current line
+    private int[] argumentStart = new int[8];
+    private int[] argumentEnd = new int[8];
+
+    /**
+     * Create a new {@code LLRailRoadServiceCommandParser} that sets the given {@code LLRailRoadService} as a receiver
+     * for the commands.
+     *
+     * @param service {@code LLRailRoadService} that will be set as the receiver in the commands that this parser returns.
+     */
+    public LLRailRoadServiceCommandParser(LLRailRoadService service) {
+        this.shortestPathCommand = new LLShortestPathCommand(service);
+        this.shortestPathLengthCommand = new LLShortestPathLengthCommand(service);
+        this.distanceCommand = new LLDistanceCommand(service);
+        this.countRoutesWithMaxHopsCommand = new LLCountRoutesWithMaxHopsCommand(service);
+        this.countRoutesWithHopsCommand = new LLCountRoutesWithHopsCommand(service);
+        this.countRoutesWithMaxDistanceCommand = new LLCountRoutesWithMaxDistanceCommand(service);
+        this.kShortestPathsCommand = new LLKShortestPathsCommand(service);
+        this.earliestArrivalCommand = new LLEarliestArrivalCommand(service);
+        this.paretoRoutesCommand = new LLParetoRoutesCommand(service);
+        this.shortestPathWithMaxHopsCommand = new LLShortestPathWithMaxHopsCommand(service);
+        this.distanceTableCommand = new LLDistanceTableCommand(service);
+        this.reachableWithinCommand = new LLReachableWithinCommand(service);
+        this.estimateRoutesWithMaxHopsCommand = new LLEstimateRoutesWithMaxHopsCommand(service);
+        this.estimateRoutesWithMaxDistanceCommand = new LLEstimateRoutesWithMaxDistanceCommand(service);
+    }
+
+    /***************************************************************************************************/
+    /*                                      PUBLIC METHODS                                             *
+    /***************************************************************************************************/
+
+    /**
+     * Number of town names in the symbol table.
+     *
+     * @return number of interned names, at most {@code MAX_SYMBOLS}.
+     */
+    int symbolCount() {
+        return towns.size();
+    }
+
+    /**
+     * Parse the next command from {@code buffer}.
+     * <p>
+     * The command ends at the next {@code '\n'} or at the limit of the buffer. On return, the position of the buffer
+     * is placed after the parsed line.
+     *
+     * @param buffer buffer to read the command from.
+     * @return the pooled command configured for the parsed line. Only valid until the next call of this method.
+     * @throws NoSuchElementException   if no such command available.
+     * @throws IllegalArgumentException if input format is invalid.
+     */
+    public LLAbstractRailRoadServiceCommand parse(ByteBuffer buffer) {
+        int lineStart = buffer.position();
+        int lineEnd = lineStart;
+        int limit = buffer.limit();
+        while (lineEnd < limit && buffer.get(lineEnd) != NEW_LINE) {
+            lineEnd++;
+        }
+        buffer.position(lineEnd < limit ? lineEnd + 1 : limit);
+
+        if (lineEnd > lineStart && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+            lineEnd--;
+        }
+
+        int parts = split(buffer, lineStart, lineEnd);
+
+        if (parts <= 1) {
+            throw invalidFormat(buffer, lineStart, lineEnd);
+        } else if (matches(CMD_SHORTEST_PATH, buffer)) {
+            expectParts(3, parts, buffer, lineStart, lineEnd);
+            shortestPathCommand.setStart(town(buffer, 1));
+            shortestPathCommand.setDest(town(buffer, 2));
+            return shortestPathCommand;
+        } else if (matches(CMD_LENGTH_SHORTEST_PATH, buffer)) {
+            expectParts(3, parts, buffer, lineStart, lineEnd);
+            shortestPathLengthCommand.setStart(town(buffer, 1));
+            shortestPathLengthCommand.setDest(town(buffer, 2));
+            return shortestPathLengthCommand;
+        } else if (matches(CMD_DISTANCE, buffer)) {
+            String[] townNames = route(parts - 1);
+            for (int i = 0; i < townNames.length; i++) {
+                townNames[i] = town(buffer, i + 1);
+            }
+            distanceCommand.setTownNames(townNames);
+            return distanceCommand;
+        } else if (matches(CMD_ROUTES_WITH_MAX_HOPS, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            countRoutesWithMaxHopsCommand.setStart(town(buffer, 1));
+            countRoutesWithMaxHopsCommand.setDest(town(buffer, 2));
+            countRoutesWithMaxHopsCommand.setMaxHops(number(buffer, 3, lineStart, lineEnd));
+            return countRoutesWithMaxHopsCommand;
+        } else if (matches(CMD_ROUTES_WITH_HOPS, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            countRoutesWithHopsCommand.setStart(town(buffer, 1));
+            countRoutesWithHopsCommand.setDest(town(buffer, 2));
+            countRoutesWithHopsCommand.setHops(number(buffer, 3, lineStart, lineEnd));
+            return countRoutesWithHopsCommand;
+        } else if (matches(CMD_ROUTES_WITH_MAX_DISTANCE, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            countRoutesWithMaxDistanceCommand.setStart(town(buffer, 1));
+            countRoutesWithMaxDistanceCommand.setDest(town(buffer, 2));
+            countRoutesWithMaxDistanceCommand.setMaxDistance(longNumber(buffer, 3, lineStart, lineEnd));
+            return countRoutesWithMaxDistanceCommand;
+        } else if (matches(CMD_K_SHORTEST_PATHS, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            kShortestPathsCommand.setStart(town(buffer, 1));
+            kShortestPathsCommand.setDest(town(buffer, 2));
+            kShortestPathsCommand.setK(number(buffer, 3, lineStart, lineEnd));
+            return kShortestPathsCommand;
+        } else if (matches(CMD_EARLIEST_ARRIVAL, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            earliestArrivalCommand.setStart(town(buffer, 1));
+            earliestArrivalCommand.setDest(town(buffer, 2));
+            earliestArrivalCommand.setDeparture(number(buffer, 3, lineStart, lineEnd));
+            return earliestArrivalCommand;
+        } else if (matches(CMD_PARETO_ROUTES, buffer)) {
+            expectParts(3, parts, buffer, lineStart, lineEnd);
+            paretoRoutesCommand.setStart(town(buffer, 1));
+            paretoRoutesCommand.setDest(town(buffer, 2));
+            return paretoRoutesCommand;
+        } else if (matches(CMD_SHORTEST_PATH_WITH_MAX_HOPS, buffer)) {
+            expectParts(4, parts, buffer, lineStart, lineEnd);
+            shortestPathWithMaxHopsCommand.setStart(town(buffer, 1));
+            shortestPathWithMaxHopsCommand.setDest(town(buffer, 2));
+            shortestPathWithMaxHopsCommand.setMaxHops(number(buffer, 3, lineStart, lineEnd));
+            return shortestPathWithMaxHopsCommand;
+        } else if (matches(CMD_DISTANCE_TABLE, buffer)) {
+            expectParts(3, parts, buffer, lineStart, lineEnd);
+            distanceTableCommand.setStarts(townList(buffer, 1, lineStart, lineEnd));
+            distanceTableCommand.setDests(townList(buffer, 2, lineStart, lineEnd));
+            return distanceTableCommand;
+        } else if (matches(CMD_REACHABLE_WITHIN, buffer)) {
+            if (parts != 3 && (parts != 4 || !matches(REVERSE, buffer, 3))) {
+                throw invalidFormat(buffer, lineStart, lineEnd);
+            }
+            reachableWithinCommand.setStarts(townList(buffer, 1, lineStart, lineEnd));
+            reachableWithinCommand.setMaxDistance(longNumber(buffer, 2, lineStart, lineEnd));
+            reachableWithinCommand.setReverse(parts == 4);
+            return reachableWithinCommand;
+        } else if (matches(CMD_ESTIMATE_ROUTES_WITH_MAX_HOPS, buffer)) {
+            expectParts(5, parts, buffer, lineStart, lineEnd);
+            estimateRoutesWithMaxHopsCommand.setStart(town(buffer, 1));
+            estimateRoutesWithMaxHopsCommand.setDest(town(buffer, 2));
+            estimateRoutesWithMaxHopsCommand.setMaxHops(number(buffer, 3, lineStart, lineEnd));
+            estimateRoutesWithMaxHopsCommand.setRelativeError(relativeError(buffer, 4, lineStart, lineEnd));
+            return estimateRoutesWithMaxHopsCommand;
+        } else if (matches(CMD_ESTIMATE_ROUTES_WITH_MAX_DISTANCE, buffer)) {
+            expectParts(5, parts, buffer, lineStart, lineEnd);
+            estimateRoutesWithMaxDistanceCommand.setStart(town(buffer, 1));
+            estimateRoutesWithMaxDistanceCommand.setDest(town(buffer, 2));
+            estimateRoutesWithMaxDistanceCommand.setMaxDistance(longNumber(buffer, 3, lineStart, lineEnd));
+            estimateRoutesWithMaxDistanceCommand.setRelativeError(relativeError(buffer, 4, lineStart, lineEnd));
+            return estimateRoutesWithMaxDistanceCommand;
+        } else {
+            String name = decode(buffer, argumentStart[0], argumentEnd[0]);
+            throw new NoSuchElementException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_unknown", name));
+        }
+    }
+
+    /**
+     * Record the boundaries of the {@code ';'} separated arguments of a line. Trailing empty arguments are dropped,
+     * the same way {@code String.split(";")} does.
+     *
+     * @return number of arguments.
+     */
+    private int split(ByteBuffer buffer, int lineStart, int lineEnd) {
+        int parts = 0;
+        int start = lineStart;
+
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer.get(i) == SEPARATOR) {
+                if (parts == argumentStart.length) {
+                    argumentStart = Arrays.copyOf(argumentStart, parts * 2);
+                    argumentEnd = Arrays.copyOf(argumentEnd, parts * 2);
+                }
+                argumentStart[parts] = start;
+                argumentEnd[parts] = i;
+                parts++;
+                start = i + 1;
+            }
+        }
+
+        while (parts > 0 && argumentStart[parts - 1] == argumentEnd[parts - 1]) {
+            parts--;
+        }
+        return parts;
+    }
+
+    /**
+     * Whether the command name of the current line equals {@code name}.
+     */
+    private boolean matches(byte[] name, ByteBuffer buffer) {
+        return matches(name, buffer, 0);
+    }
+
+    /**
+     * Whether the given argument of the current line equals {@code name}.
+     */
+    private boolean matches(byte[] name, ByteBuffer buffer, int argument) {
+        int from = argumentStart[argument];
+        if (argumentEnd[argument] - from != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(from + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String town(ByteBuffer buffer, int argument) {
+        return towns.intern(buffer, argumentStart[argument], argumentEnd[argument]);
+    }
+
+    /**
+     * Town names of a {@code ','} separated argument. Empty names are invalid.
+     */
+    private String[] townList(ByteBuffer buffer, int argument, int lineStart, int lineEnd) {
+        int from = argumentStart[argument];
+        int to = argumentEnd[argument];
+        int count = 1;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == LIST_SEPARATOR) {
+                count++;
+            }
+        }
+
+        String[] names = new String[count];
+        int start = from;
+        count = 0;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buffer.get(i) == LIST_SEPARATOR) {
+                if (i == start) {
+                    throw invalidFormat(buffer, lineStart, lineEnd);
+                }
+                names[count++] = towns.intern(buffer, start, i);
+                start = i + 1;
+            }
+        }
+        return names;
+    }
+
+    private int number(ByteBuffer buffer, int argument, int lineStart, int lineEnd) {
+        return (int) number(buffer, argument, lineStart, lineEnd, Integer.MAX_VALUE);
+    }
+
+    private long longNumber(ByteBuffer buffer, int argument, int lineStart, int lineEnd) {
+        return number(buffer, argument, lineStart, lineEnd, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parse a decimal number in {@code [-max - 1, max]}.
+     */
+    private long number(ByteBuffer buffer, int argument, int lineStart, int lineEnd, long max) {
+        int from = argumentStart[argument];
+        int to = argumentEnd[argument];
+        boolean negative = from < to && buffer.get(from) == '-';
+        if (negative || (from < to && buffer.get(from) == '+')) {
+            from++;
+        }
+        if (from == to) {
+            throw invalidFormat(buffer, lineStart, lineEnd);
+        }
+
+        // Accumulate negatively, since the negative range is one larger, and check for overflow before it happens
+        long limit = negative ? -max - 1 : -max;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value < (limit + digit) / 10) {
+                throw invalidFormat(buffer, lineStart, lineEnd);
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parse the relative error of an estimate, a positive decimal number such as {@code 0.01}. Estimates are rare
+     * enough for the argument to be decoded instead of parsed in place.
+     */
+    private double relativeError(ByteBuffer buffer, int argument, int lineStart, int lineEnd) {
+        try {
+            double relativeError = Double.parseDouble(decode(buffer, argumentStart[argument], argumentEnd[argument]));
+            if (relativeError > 0 && !Double.isInfinite(relativeError)) {
+                return relativeError;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw invalidFormat(buffer, lineStart, lineEnd);
+    }
+
+    private String[] route(int length) {
+        if (length >= routes.length) {
+            routes = Arrays.copyOf(routes, Math.max(length + 1, routes.length * 2));
+        }
+        if (routes[length] == null) {
+            routes[length] = new String[length];
+        }
+        return routes[length];
+    }
+
+    private void expectParts(int expected, int parts, ByteBuffer buffer, int lineStart, int lineEnd) {
+        if (parts != expected) {
+            throw invalidFormat(buffer, lineStart, lineEnd);
+        }
+    }
+
+    private IllegalArgumentException invalidFormat(ByteBuffer buffer, int lineStart, int lineEnd) {
+        return new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.service_command_factory.illegal_argument.parse_input_format", decode(buffer, lineStart, lineEnd)));
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+import com.lucaslouca.util.LLPropertyFactory;
+
+import java.util.List;
+
+/**
+ * {@code LLAbstractRailRoadServiceCommand} that computes the towns within a maximum distance of one or more start
+ * towns.
+ */
+public class LLReachableWithinCommand extends LLAbstractRailRoadServiceCommand {
+    private static final String START_SEPARATOR = "; ";
+
+    private String[] starts;
+    private long maxDistance;
+    private boolean reverse;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLReachableWithinCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set the start towns.
+     *
+     * @param starts names of the start towns.
+     */
+    public void setStarts(String[] starts) {
+        this.starts = starts;
+    }
+
+    /**
+     * Set maximum distance.
+     *
+     * @param maxDistance maximum distance, inclusive.
+     */
+    public void setMaxDistance(long maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Set whether to look for the towns that reach the start towns instead of the towns they reach.
+     *
+     * @param reverse {@code true} for the towns that reach the start towns.
+     */
+    public void setReverse(boolean reverse) {
+        this.reverse = reverse;
+    }
+
+    /**
+     * Compute the towns within maxDistance of each start town.
+     *
+     * @return the towns of each start town with their distances, the start towns separated by {@code "; "}. A start
+     * town without any town within maxDistance is reported with the no route message.
+     */
+    @Override
+    public String execute() {
+        List<String> reachable = getReceiver().reachableWithin(starts, maxDistance, reverse);
+        String noRoute = LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < reachable.size(); i++) {
+            if (i > 0) {
+                sb.append(START_SEPARATOR);
+            }
+            sb.append(reachable.get(i).isEmpty() ? noRoute : reachable.get(i));
+        }
+        return sb.toString();
+    }
+}
@@ -22,7 +22,7 @@ public class LLShortestPathLengthCommand extends LLAbstractStartDestinationComma
      * @return length of the shortest path between two towns.
      */
     @Override
-    public Integer execute() {
+    public Long execute() {
         return getReceiver().lengthOfShortestPathBetween(start, dest);
     }
 }
@@ -0,0 +1,39 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+
+/**
+ * {code LLAbstractStartDestinationCommand} that computes the shortest path between two towns with a maximum number of
+ * stops.
+ */
+public class LLShortestPathWithMaxHopsCommand extends LLAbstractStartDestinationCommand {
+    private int maxHops;
+
+    /**
+     * Create a new command.
+     *
+     * @param service receiver which will be called from this command.
+     */
+    public LLShortestPathWithMaxHopsCommand(LLRailRoadService service) {
+        super(service);
+    }
+
+    /**
+     * Set maximum number of stops.
+     *
+     * @param maxHops maximum number of stops.
+     */
+    public void setMaxHops(int maxHops) {
+        this.maxHops = maxHops;
+    }
+
+    /**
+     * Compute shortest path between two towns with at most maxHops stops.
+     *
+     * @return shortest path between two towns with at most maxHops stops.
+     */
+    @Override
+    public String execute() {
+        return getReceiver().shortestPathWithMaxHopsBetween(start, dest, maxHops);
+    }
+}
@@ -0,0 +1,167 @@
+package com.lucaslouca.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Interface} defining a non-blocking rail road service system.
+ * <p>
+ * Every query of {@code LLRailRoadService} is offered here as well, but returns at once with a
+ * {@code CompletableFuture} that completes when the query has run. A future that fails completes exceptionally with
+ * the exception the blocking query would have thrown, for example an {@code LLRailRoadServiceException} if there is no
+ * route. Cancelling a future, or letting its time limit pass, also ends the query behind it.
+ */
+public interface LLAsyncRailRoadService {
+    /**
+     * View of this service whose queries are limited to the given time. A query that has not completed within the
+     * time completes exceptionally with a {@code TimeoutException} and is cancelled.
+     *
+     * @param timeout maximum time per query, counted from the call. Not positive for no limit.
+     * @param unit    unit of timeout.
+     * @return {@code LLAsyncRailRoadService} running the queries of this service with the given time limit.
+     */
+    LLAsyncRailRoadService withTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * {@code String} representing the shortest path between start and dest.
+     *
+     * @param start start town.
+     * @param dest  town which we want to reach.
+     * @return future of the shortest path, see {@link LLRailRoadService#shortestPathBetween(String, String)}.
+     */
+    CompletableFuture<String> shortestPathBetween(String start, String dest);
+
+    /**
+     * Distance of shortest path between start and dest.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return future of the length, see {@link LLRailRoadService#lengthOfShortestPathBetween(String, String)}.
+     */
+    CompletableFuture<Long> lengthOfShortestPathBetween(String start, String dest);
+
+    /**
+     * {@code String} representing the shortest path between start and dest with at most maxHops stops.
+     *
+     * @param start   name of start town.
+     * @param dest    name of town which we want to reach.
+     * @param maxHops maximum number of stops.
+     * @return future of the path, see {@link LLRailRoadService#shortestPathWithMaxHopsBetween(String, String, int)}.
+     */
+    CompletableFuture<String> shortestPathWithMaxHopsBetween(String start, String dest, int maxHops);
+
+    /**
+     * {@code String}s representing the k shortest routes between start and dest that do not visit a town twice.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @param k     maximum number of routes.
+     * @return future of the routes, see {@link LLRailRoadService#kShortestPathsBetween(String, String, int)}.
+     */
+    CompletableFuture<List<String>> kShortestPathsBetween(String start, String dest, int k);
+
+    /**
+     * {@code String}s representing the Pareto front of the routes between start and dest with respect to distance
+     * and number of stops.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return future of the routes, see {@link LLRailRoadService#paretoRoutesBetween(String, String)}.
+     */
+    CompletableFuture<List<String>> paretoRoutesBetween(String start, String dest);
+
+    /**
+     * Distance of route.
+     *
+     * @param townNames town names in the order as they should be visited.
+     * @return future of the length, see {@link LLRailRoadService#distance(String...)}.
+     */
+    CompletableFuture<Long> distance(String... townNames);
+
+    /**
+     * Lengths of the shortest routes from every town in starts to every town in dests.
+     *
+     * @param starts names of the start towns, one per row.
+     * @param dests  names of the destination towns, one per column.
+     * @return future of the table, see {@link LLRailRoadService#distanceTable(String[], String[])}.
+     */
+    CompletableFuture<long[]> distanceTable(String[] starts, String[] dests);
+
+    /**
+     * {@code String}s listing the towns within maxDistance of each start town.
+     *
+     * @param starts      names of the start towns.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the towns that reach each start town.
+     * @return future of the towns, see {@link LLRailRoadService#reachableWithin(String[], long, boolean)}.
+     */
+    CompletableFuture<List<String>> reachableWithin(String[] starts, long maxDistance, boolean reverse);
+
+    /**
+     * Count number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}.
+     *
+     * @param start   name of starting town of route.
+     * @param dest    name of destination town of route.
+     * @param maxHops maximum number of stops in route.
+     * @return future of the number of routes.
+     */
+    CompletableFuture<Integer> countRoutesWithMaxHops(String start, String dest, int maxHops);
+
+    /**
+     * Number of possible routes starting from start and ending at dest with a exactly {@code hops} number of stops.
+     *
+     * @param start name of starting town of route.
+     * @param dest  name of destination town of route.
+     * @param hops  number of stops in route.
+     * @return future of the number of routes.
+     */
+    CompletableFuture<Integer> countRoutesWithHops(String start, String dest, int hops);
+
+    /**
+     * Number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}.
+     *
+     * @param start       name of starting town of route.
+     * @param dest        name of destination town of route.
+     * @param maxDistance maximum allowed distance.
+     * @return future of the number of routes.
+     */
+    CompletableFuture<Integer> countRoutesWithMaxDistance(String start, String dest, long maxDistance);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return future of the estimate with its relative error and confidence interval.
+     */
+    CompletableFuture<String> estimateRoutesWithMaxHops(String start, String dest, int maxHops, double relativeError);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxDistance   maximum allowed distance.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return future of the estimate with its relative error and confidence interval.
+     */
+    CompletableFuture<String> estimateRoutesWithMaxDistance(String start, String dest, long maxDistance,
+                                                            double relativeError);
+
+    /**
+     * Earliest time at which dest can be reached by train when leaving start at or after departure.
+     *
+     * @param start     name of start town.
+     * @param dest      name of town which we want to reach.
+     * @param departure earliest departure time at start.
+     * @return future of the arrival time, see {@link LLRailRoadService#earliestArrival(String, String, int)}.
+     */
+    CompletableFuture<Integer> earliestArrival(String start, String dest, int departure);
+}
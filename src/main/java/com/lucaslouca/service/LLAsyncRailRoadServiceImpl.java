@@ -0,0 +1,188 @@
+package com.lucaslouca.service;
+
+import com.lucaslouca.util.LLCancellationToken;
+import com.lucaslouca.util.LLPropertyFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@code LLAsyncRailRoadServiceImpl} implements the {@code LLAsyncRailRoadService} {@code Interface}.
+ * <p>
+ * It runs the queries of an {@code LLRailRoadService} on an {@code Executor}, so the calling thread never waits for
+ * a query. Each query runs with its own {@code LLCancellationToken}, which is cancelled as soon as the future of the
+ * query completes, be it by {@code cancel}, by {@code complete} from the caller or by the time limit. The searches of
+ * the query check the token and stop, so no thread keeps working for a query that nobody waits for.
+ * <p>
+ * Time limits are enforced by a single shared daemon thread that only completes futures, so it never runs queries.
+ */
+public class LLAsyncRailRoadServiceImpl implements LLAsyncRailRoadService {
+    private static final ScheduledThreadPoolExecutor TIMER = timer();
+
+    private final LLRailRoadService service;
+    private final Executor executor;
+    private final long timeoutNanos;
+
+    /**
+     * Create a new {@code LLAsyncRailRoadServiceImpl} without time limits.
+     *
+     * @param service  {@code LLRailRoadService} that answers the queries.
+     * @param executor {@code Executor} to run the queries on.
+     */
+    public LLAsyncRailRoadServiceImpl(LLRailRoadService service, Executor executor) {
+        this(service, executor, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create a new {@code LLAsyncRailRoadServiceImpl} with a time limit for every query.
+     *
+     * @param service  {@code LLRailRoadService} that answers the queries.
+     * @param executor {@code Executor} to run the queries on.
+     * @param timeout  maximum time per query, counted from the call. Not positive for no limit.
+     * @param unit     unit of timeout.
+     */
+    public LLAsyncRailRoadServiceImpl(LLRailRoadService service, Executor executor, long timeout, TimeUnit unit) {
+        this.service = service;
+        this.executor = executor;
+        this.timeoutNanos = Math.max(0, unit.toNanos(timeout));
+    }
+
+    /***************************************************************************************************/
+    /*                                      PUBLIC METHODS                                             *
+    /***************************************************************************************************/
+
+    @Override
+    public LLAsyncRailRoadService withTimeout(long timeout, TimeUnit unit) {
+        return new LLAsyncRailRoadServiceImpl(service, executor, timeout, unit);
+    }
+
+    @Override
+    public CompletableFuture<String> shortestPathBetween(String start, String dest) {
+        return submit(() -> service.shortestPathBetween(start, dest));
+    }
+
+    @Override
+    public CompletableFuture<Long> lengthOfShortestPathBetween(String start, String dest) {
+        return submit(() -> service.lengthOfShortestPathBetween(start, dest));
+    }
+
+    @Override
+    public CompletableFuture<String> shortestPathWithMaxHopsBetween(String start, String dest, int maxHops) {
+        return submit(() -> service.shortestPathWithMaxHopsBetween(start, dest, maxHops));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> kShortestPathsBetween(String start, String dest, int k) {
+        return submit(() -> service.kShortestPathsBetween(start, dest, k));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> paretoRoutesBetween(String start, String dest) {
+        return submit(() -> service.paretoRoutesBetween(start, dest));
+    }
+
+    @Override
+    public CompletableFuture<Long> distance(String... townNames) {
+        return submit(() -> service.distance(townNames));
+    }
+
+    @Override
+    public CompletableFuture<long[]> distanceTable(String[] starts, String[] dests) {
+        return submit(() -> service.distanceTable(starts, dests));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> reachableWithin(String[] starts, long maxDistance, boolean reverse) {
+        return submit(() -> service.reachableWithin(starts, maxDistance, reverse));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countRoutesWithMaxHops(String start, String dest, int maxHops) {
+        return submit(() -> service.countRoutesWithMaxHops(start, dest, maxHops));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countRoutesWithHops(String start, String dest, int hops) {
+        return submit(() -> service.countRoutesWithHops(start, dest, hops));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countRoutesWithMaxDistance(String start, String dest, long maxDistance) {
+        return submit(() -> service.countRoutesWithMaxDistance(start, dest, maxDistance));
+    }
+
+    @Override
+    public CompletableFuture<String> estimateRoutesWithMaxHops(String start, String dest, int maxHops,
+                                                               double relativeError) {
+        return submit(() -> service.estimateRoutesWithMaxHops(start, dest, maxHops, relativeError));
+    }
+
+    @Override
+    public CompletableFuture<String> estimateRoutesWithMaxDistance(String start, String dest, long maxDistance,
+                                                                   double relativeError) {
+        return submit(() -> service.estimateRoutesWithMaxDistance(start, dest, maxDistance, relativeError));
+    }
+
+    @Override
+    public CompletableFuture<Integer> earliestArrival(String start, String dest, int departure) {
+        return submit(() -> service.earliestArrival(start, dest, departure));
+    }
+
+    /***************************************************************************************************/
+    /*                                      PRIVATE METHODS                                            *
+    /***************************************************************************************************/
+
+    /**
+     * Run query on the executor with a new {@code LLCancellationToken} that is cancelled once the returned future
+     * completes.
+     *
+     * @param query query to run.
+     * @param <V>   type of the result.
+     * @return future of the result of query.
+     */
+    private <V> CompletableFuture<V> submit(Supplier<V> query) {
+        LLCancellationToken token = new LLCancellationToken();
+        CompletableFuture<V> future = new CompletableFuture<V>();
+
+        if (timeoutNanos > 0) {
+            ScheduledFuture<?> timeout = TIMER.schedule(
+                    () -> future.completeExceptionally(new TimeoutException(
+                            LLPropertyFactory.getProperties().get("exception.async_rail_road_service.timeout"))),
+                    timeoutNanos, TimeUnit.NANOSECONDS);
+            future.whenComplete((result, e) -> timeout.cancel(false));
+        }
+        future.whenComplete((result, e) -> token.cancel());
+
+        try {
+            executor.execute(() -> {
+                if (!future.isDone()) {
+                    try {
+                        future.complete(token.call(query));
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static ScheduledThreadPoolExecutor timer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "LLAsyncRailRoadService-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
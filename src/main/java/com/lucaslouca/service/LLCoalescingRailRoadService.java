@@ -0,0 +1,241 @@
+package com.lucaslouca.service;
+
+import com.lucaslouca.util.LLCancellationToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@code LLRailRoadService} decorator that coalesces identical queries running at the same time.
+ * <p>
+ * The first caller of a query computes it on the wrapped service. Callers that ask the same query, with equal
+ * arguments, while it runs do not compute it again but wait for the first caller and share its outcome: its result,
+ * or the exception it failed with, such as an {@code LLRailRoadServiceException} if there is no route. Lists and
+ * arrays are copied for each caller, the first one included, so callers never see each other's changes. A query is
+ * only shared while it runs; the next call after it has completed computes it anew.
+ * <p>
+ * If the first caller is cancelled through its {@code LLCancellationToken}, the waiting callers do not fail with it:
+ * one of them computes the query instead. Waiting callers stay cancellable through their own tokens.
+ */
+public class LLCoalescingRailRoadService implements LLRailRoadService {
+    // Time a waiting caller waits between two checks of its cancellation token
+    private static final long WAIT_INTERVAL_MILLIS = 10;
+
+    // Outcome of a query whose first caller was cancelled
+    private static final Object CANCELLED = new Object();
+
+    private final LLRailRoadService service;
+    private final ConcurrentHashMap<List<Object>, CompletableFuture<Object>> inFlight;
+    private final LongAdder computed;
+    private final LongAdder coalesced;
+
+    /**
+     * Create a new {@code LLCoalescingRailRoadService}.
+     *
+     * @param service {@code LLRailRoadService} that computes the queries.
+     */
+    public LLCoalescingRailRoadService(LLRailRoadService service) {
+        this.service = service;
+        this.inFlight = new ConcurrentHashMap<List<Object>, CompletableFuture<Object>>();
+        this.computed = new LongAdder();
+        this.coalesced = new LongAdder();
+    }
+
+    /***************************************************************************************************/
+    /*                                      PUBLIC METHODS                                             *
+    /***************************************************************************************************/
+
+    /**
+     * Number of calls that computed their query on the wrapped service.
+     *
+     * @return the number of computed calls since this service was created.
+     */
+    public long computedCalls() {
+        return computed.sum();
+    }
+
+    /**
+     * Number of calls that joined an identical query already running instead of computing their own.
+     *
+     * @return the number of coalesced calls since this service was created.
+     */
+    public long coalescedCalls() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public String shortestPathBetween(String start, String dest) {
+        return coalesce(key("shortestPathBetween", start, dest), () -> service.shortestPathBetween(start, dest),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public long lengthOfShortestPathBetween(String start, String dest) {
+        return coalesce(key("lengthOfShortestPathBetween", start, dest),
+                () -> service.lengthOfShortestPathBetween(start, dest), UnaryOperator.identity());
+    }
+
+    @Override
+    public String shortestPathWithMaxHopsBetween(String start, String dest, int maxHops) {
+        return coalesce(key("shortestPathWithMaxHopsBetween", start, dest, maxHops),
+                () -> service.shortestPathWithMaxHopsBetween(start, dest, maxHops), UnaryOperator.identity());
+    }
+
+    @Override
+    public List<String> kShortestPathsBetween(String start, String dest, int k) {
+        return coalesce(key("kShortestPathsBetween", start, dest, k),
+                () -> service.kShortestPathsBetween(start, dest, k), ArrayList::new);
+    }
+
+    @Override
+    public List<String> paretoRoutesBetween(String start, String dest) {
+        return coalesce(key("paretoRoutesBetween", start, dest), () -> service.paretoRoutesBetween(start, dest),
+                ArrayList::new);
+    }
+
+    @Override
+    public long distance(String... townNames) {
+        return coalesce(key("distance", Arrays.asList(townNames)), () -> service.distance(townNames),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public long[] distanceTable(String[] starts, String[] dests) {
+        return coalesce(key("distanceTable", Arrays.asList(starts), Arrays.asList(dests)),
+                () -> service.distanceTable(starts, dests), long[]::clone);
+    }
+
+    @Override
+    public List<String> reachableWithin(String[] starts, long maxDistance, boolean reverse) {
+        return coalesce(key("reachableWithin", Arrays.asList(starts), maxDistance, reverse),
+                () -> service.reachableWithin(starts, maxDistance, reverse), ArrayList::new);
+    }
+
+    @Override
+    public int countRoutesWithMaxHops(String start, String dest, int maxHops) {
+        return coalesce(key("countRoutesWithMaxHops", start, dest, maxHops),
+                () -> service.countRoutesWithMaxHops(start, dest, maxHops), UnaryOperator.identity());
+    }
+
+    @Override
+    public int countRoutesWithHops(String start, String dest, int hops) {
+        return coalesce(key("countRoutesWithHops", start, dest, hops),
+                () -> service.countRoutesWithHops(start, dest, hops), UnaryOperator.identity());
+    }
+
+    @Override
+    public int countRoutesWithMaxDistance(String start, String dest, long maxDistance) {
+        return coalesce(key("countRoutesWithMaxDistance", start, dest, maxDistance),
+                () -> service.countRoutesWithMaxDistance(start, dest, maxDistance), UnaryOperator.identity());
+    }
+
+    @Override
+    public String estimateRoutesWithMaxHops(String start, String dest, int maxHops, double relativeError) {
+        return coalesce(key("estimateRoutesWithMaxHops", start, dest, maxHops, relativeError),
+                () -> service.estimateRoutesWithMaxHops(start, dest, maxHops, relativeError),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public String estimateRoutesWithMaxDistance(String start, String dest, long maxDistance, double relativeError) {
+        return coalesce(key("estimateRoutesWithMaxDistance", start, dest, maxDistance, relativeError),
+                () -> service.estimateRoutesWithMaxDistance(start, dest, maxDistance, relativeError),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public int earliestArrival(String start, String dest, int departure) {
+        return coalesce(key("earliestArrival", start, dest, departure),
+                () -> service.earliestArrival(start, dest, departure), UnaryOperator.identity());
+    }
+
+    /***************************************************************************************************/
+    /*                                      PRIVATE METHODS                                            *
+    /***************************************************************************************************/
+
+    /**
+     * Key of a query: the name of its method followed by its arguments, arrays given as lists.
+     */
+    private static List<Object> key(Object... query) {
+        return Arrays.asList(query);
+    }
+
+    /**
+     * Compute query, or wait for the identical query that is already running.
+     *
+     * @param key   key of the query.
+     * @param query computes the query on the wrapped service.
+     * @param copy  copies the result for each caller, including the first one.
+     * @param <V>   type of the result.
+     * @return the result of the query.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> V coalesce(List<Object> key, Supplier<V> query, UnaryOperator<V> copy) {
+        while (true) {
+            CompletableFuture<Object> flight = new CompletableFuture<Object>();
+            CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+
+            if (running == null) {
+                computed.increment();
+                try {
+                    // The future holds a private snapshot, every caller gets a copy of it
+                    V result = query.get();
+                    flight.complete(result);
+                    return copy.apply(result);
+                } catch (RuntimeException | Error e) {
+                    flight.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+            }
+
+            coalesced.increment();
+            Object result = await(running);
+            if (result != CANCELLED) {
+                return copy.apply((V) result);
+            }
+        }
+    }
+
+    /**
+     * Wait for the query of another caller, checking the {@code LLCancellationToken} of this thread.
+     *
+     * @param running future of the query.
+     * @return the result of the query. {@code CANCELLED} if the other caller was cancelled.
+     * @throws CancellationException if the token of this thread is cancelled or this thread is interrupted.
+     */
+    private static Object await(CompletableFuture<Object> running) {
+        LLCancellationToken token = LLCancellationToken.current();
+        while (true) {
+            token.check();
+            try {
+                return running.get(WAIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still running, check the token again
+            } catch (CancellationException e) {
+                return CANCELLED;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a query");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CancellationException) {
+                    return CANCELLED;
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (RuntimeException) e.getCause();
+            }
+        }
+    }
+}
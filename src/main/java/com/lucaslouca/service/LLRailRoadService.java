@@ -2,6 +2,8 @@ package com.lucaslouca.service;
 
 import com.lucaslouca.util.LLTownMapImpl;
 
+import java.util.List;
+
 /**
  * {@code Interface} defining a rail road service system.
  */
@@ -24,7 +26,42 @@ public interface LLRailRoadService {
      * @return length of the shortest path between start and dest.
      * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
      */
-    int lengthOfShortestPathBetween(String start, String dest);
+    long lengthOfShortestPathBetween(String start, String dest);
+
+    /**
+     * {@code String} representing the shortest path between start and dest with at most maxHops stops.
+     *
+     * @param start   name of start town.
+     * @param dest    name of town which we want to reach.
+     * @param maxHops maximum number of stops.
+     * @return {@code String} representing the shortest path with at most maxHops stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no such route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code maxHops} is less than 1.
+     */
+    String shortestPathWithMaxHopsBetween(String start, String dest, int maxHops);
+
+    /**
+     * {@code String}s representing the k shortest routes between start and dest that do not visit a town twice.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @param k     maximum number of routes.
+     * @return {@code List} of up to k routes, ordered by distance.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code k} is less than 1.
+     */
+    List<String> kShortestPathsBetween(String start, String dest, int k);
+
+    /**
+     * {@code String}s representing the Pareto front of the routes between start and dest with respect to distance
+     * and number of stops, each followed by its distance and number of stops.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return {@code List} of the non-dominated routes, ordered by increasing distance and decreasing number of stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     */
+    List<String> paretoRoutesBetween(String start, String dest);
 
     /**
      * Distance of route.
@@ -33,7 +70,31 @@ public interface LLRailRoadService {
      * @return length of the route.
      * @throws LLTownMapImpl.NoSuchRouteException if no such route exists.
      */
-    int distance(String... townNames);
+    long distance(String... townNames);
+
+    /**
+     * Lengths of the shortest routes from every town in starts to every town in dests.
+     *
+     * @param starts names of the start towns, one per row.
+     * @param dests  names of the destination towns, one per column.
+     * @return the table in row major order: the length from {@code starts[i]} to {@code dests[j]} is at index
+     * {@code i * dests.length + j}, or {@code LLDirectedGraph.NO_SUCH_ROUTE} if there is no such route.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    long[] distanceTable(String[] starts, String[] dests);
+
+    /**
+     * {@code String}s listing the towns within maxDistance of each start town, or, in reverse, the towns from which
+     * the start town can be reached within maxDistance. Each town is followed by its distance, for example
+     * {@code "B (5), D (5), C (9)"}, ordered by increasing distance.
+     *
+     * @param starts      names of the start towns.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the towns that reach each start town.
+     * @return one {@code String} per start town, in the order of starts. Empty if no town is within maxDistance.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    List<String> reachableWithin(String[] starts, long maxDistance, boolean reverse);
 
     /**
      * Count number of possible routes starting from start and ending at dest with a maximum number of {@code maxHops} .
@@ -42,6 +103,7 @@ public interface LLRailRoadService {
      * @param dest    name of destination town of route.
      * @param maxHops maximum number of stops in route.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
      */
     int countRoutesWithMaxHops(String start, String dest, int maxHops);
 
@@ -52,6 +114,7 @@ public interface LLRailRoadService {
      * @param dest  name of destination town of route.
      * @param hops  number of stops in route.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
      */
     int countRoutesWithHops(String start, String dest, int hops);
 
@@ -62,6 +125,47 @@ public interface LLRailRoadService {
      * @param dest        name of destination town of route.
      * @param maxDistance maximum allowed distance.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
+     */
+    int countRoutesWithMaxDistance(String start, String dest, long maxDistance);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}, for counts too large for {@link #countRoutesWithMaxHops(String, String, int)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimate with its relative error and confidence interval, for example
+     * {@code "1.545e+09 (+/-0.42%, 1.538e+09 to 1.551e+09)"}.
+     */
+    String estimateRoutesWithMaxHops(String start, String dest, int maxHops, double relativeError);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}, for counts too large for {@link #countRoutesWithMaxDistance(String, String, long)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxDistance   maximum allowed distance.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimate with its relative error and confidence interval, see
+     * {@link #estimateRoutesWithMaxHops(String, String, int, double)}.
+     * @throws LLRailRoadServiceException if the map has routes of length 0.
+     */
+    String estimateRoutesWithMaxDistance(String start, String dest, long maxDistance, double relativeError);
+
+    /**
+     * Earliest time at which dest can be reached by train when leaving start at or after departure.
+     *
+     * @param start     name of start town.
+     * @param dest      name of town which we want to reach.
+     * @param departure earliest departure time at start.
+     * @return the earliest arrival time at dest.
+     * @throws LLRailRoadServiceException if dest cannot be reached from start after departure.
      */
-    int countRoutesWithMaxDistance(String start, String dest, int maxDistance);
+    int earliestArrival(String start, String dest, int departure);
 }
@@ -1,9 +1,14 @@
 package com.lucaslouca.service;
 
+import com.lucaslouca.util.LLDirectedGraph;
 import com.lucaslouca.util.LLPropertyFactory;
+import com.lucaslouca.util.LLTimetable;
+import com.lucaslouca.util.LLTimetableImpl;
 import com.lucaslouca.util.LLTownMap;
 import com.lucaslouca.util.LLTownMapImpl;
 
+import java.util.List;
+
 /**
  * {@code LLRailRoadServiceImpl} implements the {@code LLRailRoadService} {@code Interface}.
  * <p>
@@ -14,14 +19,26 @@ import com.lucaslouca.util.LLTownMapImpl;
  */
 public class LLRailRoadServiceImpl implements LLRailRoadService {
     private LLTownMap map;
+    private LLTimetable timetable;
 
     /**
-     * Create a new {@code LLRailRoadServiceImpl} that has the given map.
+     * Create a new {@code LLRailRoadServiceImpl} that has the given map and an empty timetable.
      *
      * @param map {@code LLTownMap} for the {@code LLRailRoadServiceImpl} to use.
      */
     public LLRailRoadServiceImpl(LLTownMap map) {
+        this(map, new LLTimetableImpl());
+    }
+
+    /**
+     * Create a new {@code LLRailRoadServiceImpl} that has the given map and timetable.
+     *
+     * @param map       {@code LLTownMap} for the {@code LLRailRoadServiceImpl} to use.
+     * @param timetable {@code LLTimetable} holding the trains running on the map.
+     */
+    public LLRailRoadServiceImpl(LLTownMap map, LLTimetable timetable) {
         this.map = map;
+        this.timetable = timetable;
     }
 
     /***************************************************************************************************/
@@ -54,7 +71,7 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
      * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
      */
     @Override
-    public int lengthOfShortestPathBetween(String start, String dest) {
+    public long lengthOfShortestPathBetween(String start, String dest) {
         try {
             return map.lengthOfShortestPathBetween(start, dest);
         } catch (LLTownMapImpl.NoSuchRouteException e) {
@@ -62,6 +79,62 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
         }
     }
 
+    /**
+     * {@code String} representing the shortest path between start and dest with at most maxHops stops.
+     *
+     * @param start   name of start town.
+     * @param dest    name of town which we want to reach.
+     * @param maxHops maximum number of stops.
+     * @return {@code String} representing the shortest path with at most maxHops stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no such route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code maxHops} is less than 1.
+     */
+    @Override
+    public String shortestPathWithMaxHopsBetween(String start, String dest, int maxHops) {
+        try {
+            return map.shortestPathWithMaxHopsBetween(start, dest, maxHops);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
+    }
+
+    /**
+     * {@code String}s representing the k shortest routes between start and dest that do not visit a town twice.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @param k     maximum number of routes.
+     * @return {@code List} of up to k routes, ordered by distance.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code k} is less than 1.
+     */
+    @Override
+    public List<String> kShortestPathsBetween(String start, String dest, int k) {
+        try {
+            return map.kShortestPathsBetween(start, dest, k);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
+    }
+
+    /**
+     * {@code String}s representing the Pareto front of the routes between start and dest with respect to distance
+     * and number of stops, each followed by its distance and number of stops.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return {@code List} of the non-dominated routes, ordered by increasing distance and decreasing number of stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     */
+    @Override
+    public List<String> paretoRoutesBetween(String start, String dest) {
+        try {
+            return map.paretoRoutesBetween(start, dest);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
+    }
+
     /**
      * Distance of route.
      *
@@ -70,7 +143,7 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
      * @throws LLTownMapImpl.NoSuchRouteException if no such route exists.
      */
     @Override
-    public int distance(String... townNames) {
+    public long distance(String... townNames) {
         try {
             return map.distance(townNames);
         } catch (LLTownMapImpl.NoSuchRouteException e) {
@@ -78,6 +151,44 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
         }
     }
 
+    /**
+     * Lengths of the shortest routes from every town in starts to every town in dests.
+     *
+     * @param starts names of the start towns, one per row.
+     * @param dests  names of the destination towns, one per column.
+     * @return the table in row major order: the length from {@code starts[i]} to {@code dests[j]} is at index
+     * {@code i * dests.length + j}, or {@code LLDirectedGraph.NO_SUCH_ROUTE} if there is no such route.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    @Override
+    public long[] distanceTable(String[] starts, String[] dests) {
+        try {
+            return map.distanceTable(starts, dests);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
+    }
+
+    /**
+     * {@code String}s listing the towns within maxDistance of each start town, or, in reverse, the towns from which
+     * the start town can be reached within maxDistance. Each town is followed by its distance, for example
+     * {@code "B (5), D (5), C (9)"}, ordered by increasing distance.
+     *
+     * @param starts      names of the start towns.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the towns that reach each start town.
+     * @return one {@code String} per start town, in the order of starts. Empty if no town is within maxDistance.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    @Override
+    public List<String> reachableWithin(String[] starts, long maxDistance, boolean reverse) {
+        try {
+            return map.reachableWithin(starts, maxDistance, reverse);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
+    }
+
     /**
      * Count number of possible routes starting from start and ending at dest with a maximum number of {@code maxHops} .
      *
@@ -85,10 +196,15 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
      * @param dest    name of destination town of route.
      * @param maxHops maximum number of stops in route.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
      */
     @Override
     public int countRoutesWithMaxHops(String start, String dest, int maxHops) {
-        return map.countRoutesWithMaxHops(start, dest, maxHops);
+        try {
+            return map.countRoutesWithMaxHops(start, dest, maxHops);
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            throw new LLRailRoadServiceException(e.getMessage());
+        }
     }
 
     /**
@@ -98,10 +214,15 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
      * @param dest  name of destination town of route.
      * @param hops  number of stops in route.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
      */
     @Override
     public int countRoutesWithHops(String start, String dest, int hops) {
-        return map.countRoutesWithHops(start, dest, hops);
+        try {
+            return map.countRoutesWithHops(start, dest, hops);
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            throw new LLRailRoadServiceException(e.getMessage());
+        }
     }
 
     /**
@@ -111,9 +232,71 @@ public class LLRailRoadServiceImpl implements LLRailRoadService {
      * @param dest        name of destination town of route.
      * @param maxDistance maximum allowed distance.
      * @return number of possible routes.
+     * @throws LLRailRoadServiceException if the count costs too much or the number exceeds the {@code int} range.
+     */
+    @Override
+    public int countRoutesWithMaxDistance(String start, String dest, long maxDistance) {
+        try {
+            return map.countRoutesWithMaxDistance(start, dest, maxDistance);
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            throw new LLRailRoadServiceException(e.getMessage());
+        }
+    }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}, for counts too large for {@link #countRoutesWithMaxHops(String, String, int)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimate with its relative error and confidence interval, for example
+     * {@code "1.545e+09 (+/-0.42%, 1.538e+09 to 1.551e+09)"}.
+     */
+    @Override
+    public String estimateRoutesWithMaxHops(String start, String dest, int maxHops, double relativeError) {
+        return map.estimateRoutesWithMaxHops(start, dest, maxHops, relativeError).toString();
+    }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}, for counts too large for {@link #countRoutesWithMaxDistance(String, String, long)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxDistance   maximum allowed distance.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimate with its relative error and confidence interval, see
+     * {@link #estimateRoutesWithMaxHops(String, String, int, double)}.
+     * @throws LLRailRoadServiceException if the map has routes of length 0.
      */
     @Override
-    public int countRoutesWithMaxDistance(String start, String dest, int maxDistance) {
-        return map.countRoutesWithMaxDistance(start, dest, maxDistance);
+    public String estimateRoutesWithMaxDistance(String start, String dest, long maxDistance, double relativeError) {
+        try {
+            return map.estimateRoutesWithMaxDistance(start, dest, maxDistance, relativeError).toString();
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            throw new LLRailRoadServiceException(e.getMessage());
+        }
+    }
+
+    /**
+     * Earliest time at which dest can be reached by train when leaving start at or after departure.
+     *
+     * @param start     name of start town.
+     * @param dest      name of town which we want to reach.
+     * @param departure earliest departure time at start.
+     * @return the earliest arrival time at dest.
+     * @throws LLRailRoadServiceException if dest cannot be reached from start after departure.
+     */
+    @Override
+    public int earliestArrival(String start, String dest, int departure) {
+        try {
+            return timetable.earliestArrival(start, dest, departure);
+        } catch (LLTownMapImpl.NoSuchRouteException e) {
+            throw new LLRailRoadServiceException(LLPropertyFactory.getProperties().get("exception.rail_road_service.no_route"));
+        }
     }
 }
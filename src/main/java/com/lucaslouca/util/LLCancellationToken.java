@@ -0,0 +1,87 @@
+package com.lucaslouca.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Cooperative cancellation of running queries.
+ * <p>
+ * A token is bound to the thread that runs a query with {@link #call(Supplier)}. The searches behind the queries, the
+ * Dijkstra and depth first search loops, pick up the token of their thread when they start and check it as they go,
+ * also from the worker threads of a parallel search. Once the token is cancelled, the next check throws a
+ * {@code CancellationException}, which ends the query. Searches only check between whole steps, so state kept across
+ * queries, such as a partially settled shortest path tree, stays consistent and is resumed by the next query.
+ * <p>
+ * Queries run without a token are never cancelled. Code that waits for a query instead of running it can use
+ * {@code current().check()} to stay cancellable.
+ */
+public class LLCancellationToken {
+    /**
+     * Token of threads that run without one. It is never cancelled.
+     */
+    static final LLCancellationToken NONE = new LLCancellationToken();
+
+    private static final ThreadLocal<LLCancellationToken> CURRENT = new ThreadLocal<LLCancellationToken>();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Token bound to the current thread.
+     *
+     * @return the token of the query running on this thread. {@code NONE} if there is none.
+     */
+    public static LLCancellationToken current() {
+        LLCancellationToken token = CURRENT.get();
+        return token == null ? NONE : token;
+    }
+
+    /**
+     * Run query on the current thread with this token bound to it.
+     *
+     * @param query query to run.
+     * @param <V>   type of the result.
+     * @return the result of query.
+     * @throws CancellationException if this token is cancelled before or while query runs.
+     */
+    public <V> V call(Supplier<V> query) {
+        LLCancellationToken previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            check();
+            return query.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Cancel the queries running with this token. Has no effect on queries that have already completed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Whether this token has been cancelled.
+     *
+     * @return {@code true} if {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * End the running query if this token has been cancelled.
+     *
+     * @throws CancellationException if this token has been cancelled.
+     */
+    public void check() {
+        if (cancelled) {
+            throw new CancellationException("Query cancelled");
+        }
+    }
+}
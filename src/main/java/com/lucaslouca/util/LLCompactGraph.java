@@ -0,0 +1,311 @@
+package com.lucaslouca.util;
+
+/**
+ * Immutable, array based snapshot of an {@code LLDirectedGraph}.
+ * <p>
+ * Nodes are identified by a dense {@code int} id in {@code [0, size())}. The outgoing edges of node {@code n} are
+ * stored in compressed sparse row (CSR) layout: they occupy the edge ids {@code [firstEdge(n), endEdge(n))}, with
+ * {@code target(e)} and {@code weight(e)} giving the destination and weight of edge {@code e}. The incoming edges are
+ * indexed the same way, {@code [firstInEdge(n), endInEdge(n))} with {@code source(i)} and {@code inEdge(i)} mapping an
+ * incoming edge slot to its start node and its (outgoing) edge id. Search algorithms working on this snapshot touch
+ * only primitive arrays and never box.
+ * <p>
+ * The arrays are held by an {@code LLGraphStorage}, either on the Java heap or off-heap. Only the node data stays on
+ * the heap in both cases; off-heap, the edges are written straight into direct memory.
+ *
+ * @param <T> Type of graphs's the nodes. For example a {@code LLTown}.
+ */
+@SuppressWarnings("unchecked")
+class LLCompactGraph<T> {
+    private final Object[] nodes;
+    private final LLGraphStorage storage;
+    private final int minWeight;
+    private final int maxWeight;
+
+    // Built on first use
+    private volatile LLReachabilityIndex reachabilityIndex;
+    private volatile LLEdgeIndex edgeIndex;
+    private volatile LLRangeSearch rangeSearch;
+    private volatile LLGraphStatistics statistics;
+    private volatile LLRouteEstimator.Proposal routeProposal;
+
+    /**
+     * Creates a new {@code LLCompactGraph} with its arrays on the Java heap.
+     *
+     * @param nodes   node data indexed by id.
+     * @param offsets {@code offsets[n]} is the first edge id of node {@code n}, {@code offsets[size()]} is the number of edges.
+     * @param targets destination node id of each edge.
+     * @param weights weight of each edge.
+     */
+    LLCompactGraph(Object[] nodes, int[] offsets, int[] targets, int[] weights) {
+        this(nodes, new LLHeapGraphStorage(offsets, targets, weights));
+    }
+
+    /**
+     * Creates a new {@code LLCompactGraph} that takes ownership of a storage with its outgoing edges set. The incoming
+     * edges are indexed in the storage itself.
+     *
+     * @param nodes   node data indexed by id.
+     * @param storage storage holding the outgoing edges of the nodes.
+     */
+    LLCompactGraph(Object[] nodes, LLGraphStorage storage) {
+        // Reverse CSR: count the incoming edges of node n at n + 1 and take the prefix sum, so that firstInEdge(n) is
+        // the next free slot of n. Placing the edges advances it to the start of n + 1, so shift everything back.
+        for (int edge = 0; edge < storage.edgeCount(); edge++) {
+            int next = storage.target(edge) + 1;
+            storage.setFirstInEdge(next, storage.firstInEdge(next) + 1);
+        }
+        for (int node = 0; node < nodes.length; node++) {
+            storage.setFirstInEdge(node + 1, storage.firstInEdge(node + 1) + storage.firstInEdge(node));
+        }
+        for (int node = 0; node < nodes.length; node++) {
+            for (int edge = storage.firstEdge(node); edge < storage.endEdge(node); edge++) {
+                int target = storage.target(edge);
+                int slot = storage.firstInEdge(target);
+                storage.setInEdge(slot, node, edge);
+                storage.setFirstInEdge(target, slot + 1);
+            }
+        }
+        for (int node = nodes.length; node > 0; node--) {
+            storage.setFirstInEdge(node, storage.firstInEdge(node - 1));
+        }
+        storage.setFirstInEdge(0, 0);
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int edge = 0; edge < storage.edgeCount(); edge++) {
+            min = Math.min(min, storage.weight(edge));
+            max = Math.max(max, storage.weight(edge));
+        }
+
+        this.nodes = nodes;
+        this.minWeight = min;
+        this.maxWeight = max;
+        this.storage = storage;
+    }
+
+    /**
+     * Number of nodes.
+     *
+     * @return number of nodes.
+     */
+    int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Number of edges.
+     *
+     * @return number of edges.
+     */
+    int edgeCount() {
+        return storage.edgeCount();
+    }
+
+    /**
+     * Node data for the given id.
+     *
+     * @param node node id.
+     * @return node data.
+     */
+    T node(int node) {
+        return (T) nodes[node];
+    }
+
+    /**
+     * First outgoing edge of a node.
+     *
+     * @param node node id.
+     * @return id of the first outgoing edge of {@code node}.
+     */
+    int firstEdge(int node) {
+        return storage.firstEdge(node);
+    }
+
+    /**
+     * End of the outgoing edges of a node.
+     *
+     * @param node node id.
+     * @return id after the last outgoing edge of {@code node}.
+     */
+    int endEdge(int node) {
+        return storage.endEdge(node);
+    }
+
+    /**
+     * Destination of an edge.
+     *
+     * @param edge edge id.
+     * @return node id of the edge's destination.
+     */
+    int target(int edge) {
+        return storage.target(edge);
+    }
+
+    /**
+     * Weight of an edge.
+     *
+     * @param edge edge id.
+     * @return the weight of the edge.
+     */
+    int weight(int edge) {
+        return storage.weight(edge);
+    }
+
+    /**
+     * First incoming edge slot of a node.
+     *
+     * @param node node id.
+     * @return index of the first incoming edge slot of {@code node}.
+     */
+    int firstInEdge(int node) {
+        return storage.firstInEdge(node);
+    }
+
+    /**
+     * End of the incoming edge slots of a node.
+     *
+     * @param node node id.
+     * @return index after the last incoming edge slot of {@code node}.
+     */
+    int endInEdge(int node) {
+        return storage.endInEdge(node);
+    }
+
+    /**
+     * Start node of an incoming edge slot.
+     *
+     * @param slot incoming edge slot.
+     * @return node id of the edge's start.
+     */
+    int source(int slot) {
+        return storage.source(slot);
+    }
+
+    /**
+     * Edge id of an incoming edge slot.
+     *
+     * @param slot incoming edge slot.
+     * @return id of the edge, usable with {@link #weight(int)}.
+     */
+    int inEdge(int slot) {
+        return storage.inEdge(slot);
+    }
+
+    /**
+     * Smallest edge weight.
+     *
+     * @return the smallest edge weight. {@code Integer.MAX_VALUE} if the graph has no edges.
+     */
+    int minWeight() {
+        return minWeight;
+    }
+
+    /**
+     * Largest edge weight.
+     *
+     * @return the largest edge weight. {@code 0} if the graph has no edges.
+     */
+    int maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Whether shortest path distances may exceed the {@code int} range. A shortest path or cycle has at most
+     * {@code size()} edges, so distances are guaranteed to fit into an {@code int} (with {@code Integer.MAX_VALUE}
+     * left free to mark unreachable nodes) if {@code size() * maxWeight()} does.
+     *
+     * @return {@code true} if shortest path distances have to be computed with {@code long}s.
+     */
+    boolean wideDistances() {
+        return (long) nodes.length * maxWeight >= LLShortestPaths.INFINITY;
+    }
+
+    /**
+     * Average number of outgoing edges per node.
+     *
+     * @return average out-degree.
+     */
+    double averageDegree() {
+        return nodes.length == 0 ? 0 : (double) storage.edgeCount() / nodes.length;
+    }
+
+    /**
+     * Whether the adjacency arrays are stored off-heap.
+     *
+     * @return {@code true} if the arrays are held in off-heap memory.
+     */
+    boolean isOffHeap() {
+        return storage instanceof LLDirectGraphStorage;
+    }
+
+    /**
+     * Strongly connected components and reachability index of this graph, built on first use.
+     *
+     * @return the {@code LLReachabilityIndex} of this graph.
+     */
+    LLReachabilityIndex reachability() {
+        LLReachabilityIndex index = reachabilityIndex;
+        if (index == null) {
+            index = new LLReachabilityIndex(this);
+            reachabilityIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Index for looking up the edge between two nodes, built on first use.
+     *
+     * @return the {@code LLEdgeIndex} of this graph.
+     */
+    LLEdgeIndex edgeIndex() {
+        LLEdgeIndex index = edgeIndex;
+        if (index == null) {
+            index = new LLEdgeIndex(this);
+            edgeIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Statistics of this graph, collected on first use.
+     *
+     * @return the {@code LLGraphStatistics} of this graph.
+     */
+    LLGraphStatistics statistics() {
+        LLGraphStatistics result = statistics;
+        if (result == null) {
+            result = new LLGraphStatistics(this);
+            statistics = result;
+        }
+        return result;
+    }
+
+    /**
+     * Edge scores for sampling routes on this graph, computed on first use.
+     *
+     * @return the {@code LLRouteEstimator.Proposal} of this graph.
+     */
+    LLRouteEstimator.Proposal routeProposal() {
+        LLRouteEstimator.Proposal result = routeProposal;
+        if (result == null) {
+            result = new LLRouteEstimator.Proposal(this);
+            routeProposal = result;
+        }
+        return result;
+    }
+
+    /**
+     * Range search over this graph, created on first use. Its per-thread search arrays are released with the graph.
+     *
+     * @return the {@code LLRangeSearch} of this graph.
+     */
+    LLRangeSearch rangeSearch() {
+        LLRangeSearch search = rangeSearch;
+        if (search == null) {
+            search = new LLRangeSearch(this);
+            rangeSearch = search;
+        }
+        return search;
+    }
+}
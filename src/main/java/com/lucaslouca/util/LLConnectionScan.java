@@ -0,0 +1,121 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable timetable snapshot answering earliest arrival queries with the Connection Scan Algorithm (CSA).
+ * <p>
+ * A connection is a train leaving one stop at its departure time and reaching the next stop at its arrival time,
+ * without intermediate stops. Connections are stored in four parallel {@code int} arrays sorted by departure and then
+ * arrival time, so a query is a single forward scan over contiguous memory: starting at the first connection that
+ * departs no earlier than the requested departure time, every connection that can be caught improves the arrival time
+ * at its arrival stop. The scan stops as soon as connections depart after the best known arrival time at the target.
+ * <p>
+ * Transfers are assumed to take no time: a connection can be caught at a stop if the stop is reached no later than
+ * the connection departs. Stops are identified by a dense {@code int} id in {@code [0, stopCount)}.
+ */
+class LLConnectionScan {
+    /**
+     * Arrival time at unreachable stops.
+     */
+    static final int NEVER = Integer.MAX_VALUE;
+
+    private final int stopCount;
+    private final int[] departureStops;
+    private final int[] arrivalStops;
+    private final int[] departures;
+    private final int[] arrivals;
+
+    /**
+     * Creates a new {@code LLConnectionScan} for the first count connections of the given arrays, in any order.
+     *
+     * @param stopCount      number of stops.
+     * @param departureStops stop id each connection departs from.
+     * @param arrivalStops   stop id each connection arrives at.
+     * @param departures     departure time of each connection.
+     * @param arrivals       arrival time of each connection, not before its departure.
+     * @param count          number of connections.
+     */
+    LLConnectionScan(int stopCount, int[] departureStops, int[] arrivalStops, int[] departures, int[] arrivals, int count) {
+        this.stopCount = stopCount;
+        this.departureStops = new int[count];
+        this.arrivalStops = new int[count];
+        this.departures = new int[count];
+        this.arrivals = new int[count];
+
+        // Sort by departure and then arrival time, so that a connection arriving at the minute another one departs is
+        // scanned first even if it takes no time. The sort is stable, equal connections keep their input order.
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> departures[a] != departures[b]
+                ? Integer.compare(departures[a], departures[b])
+                : Integer.compare(arrivals[a], arrivals[b]));
+
+        for (int i = 0; i < count; i++) {
+            int connection = order[i];
+            this.departureStops[i] = departureStops[connection];
+            this.arrivalStops[i] = arrivalStops[connection];
+            this.departures[i] = departures[connection];
+            this.arrivals[i] = arrivals[connection];
+        }
+    }
+
+    /**
+     * Number of connections.
+     *
+     * @return number of connections.
+     */
+    int connectionCount() {
+        return departures.length;
+    }
+
+    /**
+     * Earliest arrival time at target when being at source at the given time.
+     *
+     * @param source    id of the start stop.
+     * @param target    id of the destination stop.
+     * @param departure earliest departure time at source.
+     * @return the earliest arrival time at target. {@code departure} if {@code source == target}, {@code NEVER} if
+     * target cannot be reached.
+     */
+    int earliestArrival(int source, int target, int departure) {
+        int[] arrivalTimes = new int[stopCount];
+        Arrays.fill(arrivalTimes, NEVER);
+        arrivalTimes[source] = departure;
+
+        int first = firstDepartingAt(departure);
+        int run = first;
+        for (int i = first; i < departures.length && departures[i] < arrivalTimes[target]; i++) {
+            if (i == first || departures[i] != departures[i - 1] || arrivals[i] != arrivals[i - 1]) {
+                run = i;
+            }
+            if (arrivalTimes[departureStops[i]] <= departures[i] && arrivals[i] < arrivalTimes[arrivalStops[i]]) {
+                arrivalTimes[arrivalStops[i]] = arrivals[i];
+                if (arrivals[i] == departures[i]) {
+                    // Connections taking no time at the same minute may be chained in any order, scan them again
+                    i = run - 1;
+                }
+            }
+        }
+        return arrivalTimes[target];
+    }
+
+    /**
+     * Index of the first connection departing at or after time.
+     */
+    private int firstDepartingAt(int time) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,279 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single source shortest paths on an {@code LLCompactGraph} with delta-stepping, relaxing the edges of many nodes in
+ * parallel.
+ * <p>
+ * Nodes waiting to be scanned are kept in buckets of width delta: bucket {@code i} holds the nodes with a tentative
+ * distance in {@code [i * delta, (i + 1) * delta)}. The lowest non-empty bucket is processed in phases. Each phase
+ * takes all nodes out of the bucket and relaxes their light edges, those lighter than delta, which may put nodes back
+ * into the same bucket. Once the bucket stays empty, its distances are final, and the heavy edges of all nodes it held
+ * are relaxed once. The nodes of a phase are split into chunks that are relaxed on a {@code ForkJoinPool}; distances
+ * live in an {@code AtomicLongArray} and are lowered with a compare-and-set minimum, so concurrent relaxations of the
+ * same node never lose the smaller distance. Moving improved nodes into their buckets is done by the calling thread.
+ * <p>
+ * A delta of {@code 1} behaves like Dijkstra, one bucket per distance, while a very large delta degenerates into
+ * Bellman-Ford. {@link #defaultDelta(LLCompactGraph)} picks the usual compromise of the largest weight divided by the
+ * average degree. Distances are summed in {@code long}s. In reverse mode, the search follows the incoming edges, giving
+ * the distances from every node to the source. The search checks the {@code LLCancellationToken} of the calling thread
+ * before each phase.
+ */
+class LLDeltaStepping {
+    /**
+     * Minimum number of edges for which a parallel search pays off.
+     */
+    static final int PARALLEL_EDGES = 1 << 16;
+
+    // Nodes per relaxation task
+    private static final int CHUNK_SIZE = 512;
+
+    // Upper bound for the number of buckets that can hold nodes at the same time
+    private static final int MAX_BUCKETS = 1 << 20;
+
+    /**
+     * Growable list of node ids.
+     */
+    private static class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size++] = item;
+        }
+    }
+
+    private final LLCompactGraph<?> graph;
+    private final long delta;
+    private final boolean reverse;
+
+    /**
+     * Creates a new {@code LLDeltaStepping} search.
+     *
+     * @param graph   graph to search.
+     * @param delta   bucket width. Raised if needed, so that at most {@code MAX_BUCKETS} buckets are in use at a time.
+     * @param reverse {@code true} to follow the incoming instead of the outgoing edges.
+     * @throws IllegalArgumentException if {@code delta} is less than 1.
+     */
+    LLDeltaStepping(LLCompactGraph<?> graph, long delta, boolean reverse) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("delta must be >= 1");
+        }
+        this.graph = graph;
+        this.delta = Math.max(delta, graph.maxWeight() / (MAX_BUCKETS - 2) + 1);
+        this.reverse = reverse;
+    }
+
+    /**
+     * Bucket width derived from the weights of graph: the largest weight divided by the average degree. With random
+     * weights, a node then has about one light edge, so light phases stay short while a bucket still holds enough
+     * nodes to share among threads.
+     *
+     * @param graph graph to search.
+     * @return a bucket width of at least 1.
+     */
+    static long defaultDelta(LLCompactGraph<?> graph) {
+        double degree = Math.max(1, graph.averageDegree());
+        return Math.max(1, (long) Math.ceil(graph.maxWeight() / degree));
+    }
+
+    /**
+     * Lengths of the shortest paths from source to all nodes.
+     *
+     * @param source id of the source node.
+     * @param pool   {@code ForkJoinPool} to relax the edges on. {@code null} to relax them on the calling thread.
+     * @return array holding for each node the length of the shortest path from source to that node (to source from
+     * that node in reverse mode). {@code 0} for source itself and {@code LLShortestPaths.LONG_INFINITY} for
+     * unreachable nodes.
+     */
+    long[] distances(int source, ForkJoinPool pool) {
+        int size = graph.size();
+        AtomicLongArray distances = new AtomicLongArray(size);
+        for (int node = 0; node < size; node++) {
+            distances.set(node, LLShortestPaths.LONG_INFINITY);
+        }
+        distances.set(source, 0);
+
+        // Pending nodes can be at most maxWeight beyond the current bucket, so a ring of buckets suffices
+        IntList[] buckets = new IntList[(int) (graph.maxWeight() / delta) + 2];
+        long[] queuedIn = new long[size];
+        Arrays.fill(queuedIn, -1);
+        int[] settledIn = new int[size];
+        int phase = 0;
+
+        queue(buckets, queuedIn, source, 0);
+        long pending = 1;
+        LLCancellationToken token = LLCancellationToken.current();
+
+        for (long bucket = 0; pending > 0; bucket++) {
+            IntList current = buckets[(int) (bucket % buckets.length)];
+            if (current == null || current.size == 0) {
+                continue;
+            }
+
+            // Light phases until the bucket stays empty. Every node that was in the bucket is kept in settled.
+            phase++;
+            IntList settled = new IntList();
+            while (current.size > 0) {
+                token.check();
+                int[] frontier = new int[current.size];
+                int count = 0;
+                for (int i = 0; i < current.size; i++) {
+                    int node = current.items[i];
+                    if (queuedIn[node] != bucket) {
+                        // Stale entry, the node has moved to a lower bucket since
+                        continue;
+                    }
+                    queuedIn[node] = -1;
+                    if (settledIn[node] != phase) {
+                        settledIn[node] = phase;
+                        settled.add(node);
+                    }
+                    frontier[count++] = node;
+                }
+                pending -= current.size;
+                current.size = 0;
+
+                pending += queueAll(buckets, queuedIn, distances, relax(distances, frontier, count, true, pool));
+            }
+
+            // Distances in the bucket are final, relax the heavy edges once
+            pending += queueAll(buckets, queuedIn, distances, relax(distances, settled.items, settled.size, false, pool));
+        }
+
+        long[] result = new long[size];
+        for (int node = 0; node < size; node++) {
+            result[node] = distances.get(node);
+        }
+        return result;
+    }
+
+    /**
+     * Put improved nodes into the bucket of their current distance, unless they are already queued there.
+     *
+     * @return number of newly queued nodes.
+     */
+    private int queueAll(IntList[] buckets, long[] queuedIn, AtomicLongArray distances, int[][] improved) {
+        int queued = 0;
+        for (int[] nodes : improved) {
+            for (int i = 1; i <= nodes[0]; i++) {
+                int node = nodes[i];
+                long bucket = distances.get(node) / delta;
+                if (queuedIn[node] != bucket) {
+                    queue(buckets, queuedIn, node, bucket);
+                    queued++;
+                }
+            }
+        }
+        return queued;
+    }
+
+    private void queue(IntList[] buckets, long[] queuedIn, int node, long bucket) {
+        int slot = (int) (bucket % buckets.length);
+        if (buckets[slot] == null) {
+            buckets[slot] = new IntList();
+        }
+        buckets[slot].add(node);
+        queuedIn[node] = bucket;
+    }
+
+    /**
+     * Relax the light or heavy edges of {@code nodes[0..count)}.
+     *
+     * @return per chunk, the improved nodes with their number in the first element. A node may occur more than once.
+     */
+    private int[][] relax(AtomicLongArray distances, int[] nodes, int count, boolean light, ForkJoinPool pool) {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int[][] improved = new int[chunks][];
+
+        if (pool == null || chunks <= 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                improved[chunk] = relaxChunk(distances, nodes, chunk * CHUNK_SIZE, Math.min(count, (chunk + 1) * CHUNK_SIZE), light);
+            }
+        } else {
+            pool.invoke(new RelaxTask(distances, nodes, count, light, improved, 0, chunks));
+        }
+        return improved;
+    }
+
+    /**
+     * Relax the light or heavy edges of {@code nodes[from..to)}.
+     *
+     * @return the improved nodes, with their number in the first element.
+     */
+    private int[] relaxChunk(AtomicLongArray distances, int[] nodes, int from, int to, boolean light) {
+        int[] improved = new int[16];
+        int size = 0;
+
+        for (int i = from; i < to; i++) {
+            int node = nodes[i];
+            long distance = distances.get(node);
+            int first = reverse ? graph.firstInEdge(node) : graph.firstEdge(node);
+            int end = reverse ? graph.endInEdge(node) : graph.endEdge(node);
+
+            for (int slot = first; slot < end; slot++) {
+                int edge = reverse ? graph.inEdge(slot) : slot;
+                int weight = graph.weight(edge);
+                if ((weight < delta) != light) {
+                    continue;
+                }
+
+                int next = reverse ? graph.source(slot) : graph.target(edge);
+                long alternate = distance + weight;
+                for (long old = distances.get(next); alternate < old; old = distances.get(next)) {
+                    if (distances.compareAndSet(next, old, alternate)) {
+                        if (++size == improved.length) {
+                            improved = Arrays.copyOf(improved, 2 * size);
+                        }
+                        improved[size] = next;
+                        break;
+                    }
+                }
+            }
+        }
+        improved[0] = size;
+        return improved;
+    }
+
+    /**
+     * Task relaxing a range of chunks, splitting it in halves down to single chunks.
+     */
+    private class RelaxTask extends RecursiveAction {
+        private final AtomicLongArray distances;
+        private final int[] nodes;
+        private final int count;
+        private final boolean light;
+        private final int[][] improved;
+        private final int fromChunk;
+        private final int toChunk;
+
+        RelaxTask(AtomicLongArray distances, int[] nodes, int count, boolean light, int[][] improved, int fromChunk, int toChunk) {
+            this.distances = distances;
+            this.nodes = nodes;
+            this.count = count;
+            this.light = light;
+            this.improved = improved;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                improved[fromChunk] = relaxChunk(distances, nodes, fromChunk * CHUNK_SIZE,
+                        Math.min(count, toChunk * CHUNK_SIZE), light);
+            } else {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new RelaxTask(distances, nodes, count, light, improved, fromChunk, middle),
+                        new RelaxTask(distances, nodes, count, light, improved, middle, toChunk));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Dial's bucket queue: a monotone {@code LLIntMinQueue} for searches whose keys grow by at most a small maximum step.
+ * <p>
+ * Dijkstra with edge weights in {@code [0, maxWeight]} only ever offers keys between the last removed key and that key
+ * plus {@code maxWeight}. The queue therefore keeps one bucket per key in a ring of {@code maxWeight + 1} buckets, and
+ * a cursor at the smallest key, which only moves forward. Each bucket is a doubly linked list threaded through
+ * per-node {@code int} arrays, so inserting, removing and lowering a key are O(1) and never allocate; finding the
+ * minimum scans empty buckets, at most {@code maxWeight} of them between two removals.
+ * <p>
+ * Keys passed to {@link #offer(int, int)} must be at least the last removed key and at most that key plus
+ * {@code maxWeight}.
+ */
+class LLDialQueue extends LLIntMinQueue {
+    private static final int NONE = -1;
+
+    // Marks nodes that are not contained
+    private static final int ABSENT = -2;
+
+    private final int[] heads;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] keys;
+    private int cursor;
+    private int size;
+
+    /**
+     * Creates a new empty {@code LLDialQueue}.
+     *
+     * @param capacity  number of distinct node ids.
+     * @param maxWeight largest difference between an offered key and the last removed key.
+     */
+    LLDialQueue(int capacity, int maxWeight) {
+        this.heads = new int[maxWeight + 1];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(previous, ABSENT);
+    }
+
+    @Override
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    void offer(int node, int key) {
+        if (previous[node] == ABSENT) {
+            size++;
+        } else if (key < keys[node]) {
+            unlink(node);
+        } else {
+            return;
+        }
+        keys[node] = key;
+        link(node);
+    }
+
+    @Override
+    int peekKey() {
+        while (heads[cursor % heads.length] == NONE) {
+            cursor++;
+        }
+        return cursor;
+    }
+
+    @Override
+    int poll() {
+        int node = heads[peekKey() % heads.length];
+        unlink(node);
+        size--;
+        return node;
+    }
+
+    private void link(int node) {
+        int bucket = keys[node] % heads.length;
+        int head = heads[bucket];
+        next[node] = head;
+        previous[node] = NONE;
+        if (head != NONE) {
+            previous[head] = node;
+        }
+        heads[bucket] = node;
+    }
+
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before == NONE) {
+            heads[keys[node] % heads.length] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        previous[node] = ABSENT;
+    }
+}
@@ -0,0 +1,144 @@
+package com.lucaslouca.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * {@code LLGraphStorage} backed by direct (off-heap) memory.
+ * <p>
+ * The adjacency arrays are buffers allocated with {@code ByteBuffer.allocateDirect}, in native byte order, and the
+ * snapshot writes the edges straight into them, without staging arrays on the heap. The garbage collector neither
+ * copies nor scans their contents, so its work does not grow with the number of edges. A direct buffer holds at most
+ * 2GB, so each array is split into pages of {@code PAGE_SIZE} ints. The memory is released when the storage becomes
+ * unreachable.
+ */
+class LLDirectGraphStorage implements LLGraphStorage {
+    private static final int PAGE_SHIFT = 27;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * {@code int} array in direct memory, initially all {@code 0}.
+     */
+    private static class IntColumn {
+        private final IntBuffer[] pages;
+        private final int length;
+
+        IntColumn(int length) {
+            this.length = length;
+            this.pages = new IntBuffer[Math.max(1, (length + PAGE_SIZE - 1) >>> PAGE_SHIFT)];
+
+            for (int page = 0; page < pages.length; page++) {
+                int count = Math.min(PAGE_SIZE, length - (page << PAGE_SHIFT));
+                pages[page] = ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        }
+
+        int get(int index) {
+            return pages[index >>> PAGE_SHIFT].get(index & PAGE_MASK);
+        }
+
+        void set(int index, int value) {
+            pages[index >>> PAGE_SHIFT].put(index & PAGE_MASK, value);
+        }
+
+        int length() {
+            return length;
+        }
+    }
+
+    private final IntColumn offsets;
+    private final IntColumn targets;
+    private final IntColumn weights;
+    private final IntColumn inOffsets;
+    private final IntColumn sources;
+    private final IntColumn inEdges;
+
+    /**
+     * Creates a new, empty {@code LLDirectGraphStorage}.
+     *
+     * @param size      number of nodes.
+     * @param edgeCount number of edges.
+     */
+    LLDirectGraphStorage(int size, int edgeCount) {
+        this.offsets = new IntColumn(size + 1);
+        this.targets = new IntColumn(edgeCount);
+        this.weights = new IntColumn(edgeCount);
+        this.inOffsets = new IntColumn(size + 1);
+        this.sources = new IntColumn(edgeCount);
+        this.inEdges = new IntColumn(edgeCount);
+    }
+
+    @Override
+    public int size() {
+        return offsets.length() - 1;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length();
+    }
+
+    @Override
+    public int firstEdge(int node) {
+        return offsets.get(node);
+    }
+
+    @Override
+    public int endEdge(int node) {
+        return offsets.get(node + 1);
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets.get(edge);
+    }
+
+    @Override
+    public int weight(int edge) {
+        return weights.get(edge);
+    }
+
+    @Override
+    public int firstInEdge(int node) {
+        return inOffsets.get(node);
+    }
+
+    @Override
+    public int endInEdge(int node) {
+        return inOffsets.get(node + 1);
+    }
+
+    @Override
+    public int source(int slot) {
+        return sources.get(slot);
+    }
+
+    @Override
+    public int inEdge(int slot) {
+        return inEdges.get(slot);
+    }
+
+    @Override
+    public void setFirstEdge(int node, int edge) {
+        offsets.set(node, edge);
+    }
+
+    @Override
+    public void setEdge(int edge, int target, int weight) {
+        targets.set(edge, target);
+        weights.set(edge, weight);
+    }
+
+    @Override
+    public void setFirstInEdge(int node, int slot) {
+        inOffsets.set(node, slot);
+    }
+
+    @Override
+    public void setInEdge(int slot, int source, int edge) {
+        sources.set(slot, source);
+        inEdges.set(slot, edge);
+    }
+}
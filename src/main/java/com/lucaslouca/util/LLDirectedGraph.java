@@ -1,6 +1,13 @@
 package com.lucaslouca.util;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class representing a generic directed graph.
@@ -19,30 +26,41 @@ public class LLDirectedGraph<T> {
     }
 
     /**
-     * Condition to be evaluated for a path during DFS traversal
+     * {@code RuntimeException} that is thrown when a query would cost more than its budget allows, or its result does
+     * not fit into the result type.
      */
-    private interface DFSCondition {
+    public static class QueryRejectedException extends RuntimeException {
+        public QueryRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The engines a route count can run on, see {@link #setCountEngineHint(CountEngine)}.
+     */
+    public enum CountEngine {
         /**
-         * Evaluate condition for given path.
-         *
-         * @param path Path for which to evaluate condition
-         * @return true if condition is met. False otherwise
+         * Enumerate the routes one by one, in parallel for large search trees.
          */
-        boolean evaluate(LLDirectedGraph.GraphPath path);
+        ENUMERATION,
+
+        /**
+         * Count the routes per node and hop, or unit of distance, by dynamic programming.
+         */
+        DYNAMIC_PROGRAMMING
     }
 
     /**
      * Internal Graph Node model never exposed to the public.
-     * Wrapper class containing properties for shortest path computation, etc.
      */
-    private class GraphNode implements Comparable<GraphNode> {
+    private class GraphNode {
         private T data;
-        private Integer distance;
-        private GraphNode previous;
+        private int id;
         protected Map<T, Integer> neighbours;
 
-        public GraphNode(T data) {
+        public GraphNode(T data, int id) {
             this.data = data;
+            this.id = id;
             this.neighbours = new HashMap<T, Integer>();
         }
 
@@ -50,53 +68,12 @@ public class LLDirectedGraph<T> {
             return data;
         }
 
-        public Map<T, Integer> getNeighbours() {
-            return neighbours;
-        }
-
-        public int getDistance() {
-            return distance;
+        public int getId() {
+            return id;
         }
 
-        public void setDistance(int distance) {
-            this.distance = distance;
-        }
-
-        public GraphNode getPrevious() {
-            return previous;
-        }
-
-        public void setPrevious(GraphNode previous) {
-            this.previous = previous;
-        }
-
-        public GraphPath path(GraphNode startNode) {
-            List<T> nodes = new LinkedList<T>();
-            int distance = 0;
-            GraphNode currentNode = this;
-
-            if (currentNode.getPrevious() == null) {
-                return new GraphPath(nodes, distance);
-            } else {
-                nodes.add(currentNode.getData());
-
-                while (!currentNode.equals(currentNode.getPrevious())) {
-                    distance += weightForEdge(currentNode.getPrevious().getData(), currentNode.getData());
-
-                    currentNode = currentNode.getPrevious();
-                    nodes.add(0, currentNode.getData());
-
-                    if (currentNode.equals(startNode)) {
-                        break;
-                    }
-                }
-
-                return new GraphPath(nodes, distance);
-            }
-        }
-
-        public int compareTo(GraphNode other) {
-            return distance.compareTo(other.getDistance());
+        public Map<T, Integer> getNeighbours() {
+            return neighbours;
         }
 
         @Override
@@ -112,7 +89,7 @@ public class LLDirectedGraph<T> {
     public class GraphPath {
         private final String PATH_SEPARATOR = "->";
         private List<T> nodes;
-        private int distance;
+        private long distance;
 
         /**
          * Creates a new empty {@code GraphPath}.
@@ -128,7 +105,7 @@ public class LLDirectedGraph<T> {
          * @param nodes  {@code List} of nodes that make up the path.
          * @param length length of path.
          */
-        public GraphPath(List<T> nodes, int length) {
+        public GraphPath(List<T> nodes, long length) {
             this.nodes = nodes;
             this.distance = length;
         }
@@ -188,7 +165,7 @@ public class LLDirectedGraph<T> {
          *
          * @return the length of the path.
          */
-        public int distance() {
+        public long distance() {
             return distance;
         }
 
@@ -214,11 +191,164 @@ public class LLDirectedGraph<T> {
         }
     }
 
+    /**
+     * An instance of {@code ReachableNodes} holds the nodes within a distance budget of a start node and their
+     * distances, ordered by increasing distance and, at equal distance, by node id.
+     */
+    public class ReachableNodes {
+        private final String DISTANCE_SEPARATOR = ", ";
+        private final int[] ids;
+        private final long[] distances;
+
+        /**
+         * Creates a new {@code ReachableNodes}.
+         *
+         * @param ids       node ids, see {@link LLDirectedGraph#nodeId(Object)}.
+         * @param distances distance of each node.
+         */
+        ReachableNodes(int[] ids, long[] distances) {
+            this.ids = ids;
+            this.distances = distances;
+        }
+
+        /**
+         * Number of nodes.
+         *
+         * @return number of nodes within the budget.
+         */
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * Node at index.
+         *
+         * @param index position in {@code [0, size())}.
+         * @return the node.
+         */
+        public T node(int index) {
+            return graphNodes.get(ids[index]).getData();
+        }
+
+        /**
+         * Id of the node at index, see {@link LLDirectedGraph#nodeId(Object)}.
+         *
+         * @param index position in {@code [0, size())}.
+         * @return the id of the node.
+         */
+        public int nodeId(int index) {
+            return ids[index];
+        }
+
+        /**
+         * Distance of the node at index.
+         *
+         * @param index position in {@code [0, size())}.
+         * @return length of the shortest path between the start node and the node at index.
+         */
+        public long distance(int index) {
+            return distances[index];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    sb.append(DISTANCE_SEPARATOR);
+                }
+                sb.append(node(i)).append(" (").append(distances[i]).append(')');
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * {@code Spliterator} that lazily builds a {@code GraphPath} for each route reported by an {@code LLRouteWalker}.
+     */
+    private class RouteSpliterator implements Spliterator<GraphPath> {
+        private final LLCompactGraph<T> compactGraph;
+        private final LLRouteWalker walker;
+
+        RouteSpliterator(LLCompactGraph<T> compactGraph, LLRouteWalker walker) {
+            this.compactGraph = compactGraph;
+            this.walker = walker;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super GraphPath> action) {
+            if (!walker.next()) {
+                return false;
+            }
+
+            List<T> nodes = new ArrayList<T>(walker.hops() + 1);
+            for (int i = 0; i <= walker.hops(); i++) {
+                nodes.add(compactGraph.node(walker.node(i)));
+            }
+            action.accept(new GraphPath(nodes, walker.distance()));
+            return true;
+        }
+
+        @Override
+        public Spliterator<GraphPath> trySplit() {
+            LLRouteWalker other = walker.trySplit();
+            return other == null ? null : new RouteSpliterator(compactGraph, other);
+        }
+
+        @Override
+        public long estimateSize() {
+            return walker.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        }
+    }
+
+
+    /**
+     * Distance reported by {@link #distances(int[], int[], long[])} and {@link #distanceTable(List, List)} for a route
+     * that does not exist.
+     */
+    public static final long NO_SUCH_ROUTE = -1;
+
+    /**
+     * Default maximum number of edge expansions of a route count, see {@link #setExpansionBudget(long)}.
+     */
+    public static final long DEFAULT_EXPANSION_BUDGET = 1L << 32;
+
+    // Minimum number of nodes for computing the spur paths of the k shortest paths in parallel
+    private static final int PARALLEL_K_SHORTEST_PATHS_SIZE = 10000;
+
+    // Minimum number of edges for relaxing the layers of a hop constrained shortest path in parallel
+    private static final int PARALLEL_MAX_HOPS_EDGES = 1 << 16;
+
+    // Minimum number of edges times searches for computing a distance table in parallel
+    private static final long PARALLEL_DISTANCE_TABLE_WORK = 1 << 20;
+
+    // Minimum number of start nodes for running a batch of range queries in parallel
+    private static final int PARALLEL_REACHABLE_WITHIN_STARTS = 16;
 
     private Map<T, GraphNode> graph;
+    private List<GraphNode> graphNodes;
+
+    // Array based snapshot of the graph and cached shortest path trees. Reset whenever the graph changes.
+    private LLCompactGraph<T> compactGraph;
+    private int[] compactIds;
+    private int[] nodeIds;
+    private LLShortestPathTreeCache shortestPathTrees;
+    private boolean offHeap;
+    // Whether the neighbour maps have been dropped, leaving the off-heap snapshot as the only copy of the edges
+    private boolean frozen;
+    private boolean reorderNodes;
+    private volatile long expansionBudget = DEFAULT_EXPANSION_BUDGET;
+    private final LLQueryPlanner planner = new LLQueryPlanner();
 
     public LLDirectedGraph() {
         graph = new HashMap<T, GraphNode>();
+        graphNodes = new ArrayList<GraphNode>();
+        shortestPathTrees = new LLShortestPathTreeCache(LLShortestPathTreeCache.DEFAULT_BUDGET);
     }
 
     /**
@@ -227,12 +357,107 @@ public class LLDirectedGraph<T> {
      * @param node the new node to add to this graph.
      */
     public void addNode(T node) {
-        GraphNode graphNode = new GraphNode(node);
         if (!graph.containsKey(node)) {
+            graphChanged();
+            GraphNode graphNode = new GraphNode(node, graphNodes.size());
             graph.put(node, graphNode);
+            graphNodes.add(graphNode);
+        }
+    }
+
+    /**
+     * Set the memory budget of the shortest path tree cache.
+     * <p>
+     * Once a shortest path has been computed from a source, the (partial) shortest path tree of that source is kept,
+     * so that later queries from the same source are answered from the tree or resume its search. The least recently
+     * used trees are evicted when the cache exceeds its budget. All trees are dropped when the graph changes.
+     *
+     * @param bytes memory budget in bytes. {@code 0} disables caching.
+     */
+    public void setShortestPathCacheBudget(long bytes) {
+        shortestPathTrees.setBudget(bytes);
+    }
+
+    /**
+     * Choose where the array based snapshot used by the search algorithms is stored.
+     * <p>
+     * Off-heap, the adjacency and weight arrays are kept in direct memory, which the garbage collector does not have
+     * to copy or scan. This keeps GC pauses short for very large graphs. Once the snapshot is built, it is the only
+     * copy of the edges: the neighbour maps of the nodes are dropped, so that the heap holds little more than the
+     * nodes themselves. They are rebuilt from the snapshot when the graph changes, at the cost of a pass over all
+     * edges.
+     *
+     * @param offHeap {@code true} to store the snapshot off-heap. {@code false} (the default) to keep it on the heap.
+     */
+    public void setOffHeapStorage(boolean offHeap) {
+        if (this.offHeap != offHeap) {
+            this.offHeap = offHeap;
+            graphChanged();
+        }
+    }
+
+    /**
+     * Choose whether the nodes are renumbered for memory locality in the array based snapshot used by the search
+     * algorithms.
+     * <p>
+     * By default, the snapshot numbers the nodes in the order in which they were added, which on a large network
+     * scatters neighbouring towns all over memory. With reordering, the snapshot numbers them in reverse Cuthill-McKee
+     * order, so that a search mostly visits nodes stored close to each other. Results and the ids returned by
+     * {@link #nodeId(Object)} do not change; the ids are translated at the boundary of the snapshot.
+     *
+     * @param reorderNodes {@code true} to renumber the nodes. {@code false} (the default) to keep the insertion order.
+     */
+    public void setNodeReordering(boolean reorderNodes) {
+        if (this.reorderNodes != reorderNodes) {
+            this.reorderNodes = reorderNodes;
+            graphChanged();
         }
     }
 
+    /**
+     * Set the maximum number of edge expansions a route count may cost.
+     * <p>
+     * The number of routes grows exponentially with the hop or distance budget of a count, so a single count can keep
+     * a core busy for hours. Before a count runs, its cost is estimated for two engines: enumerating the routes, which
+     * costs about {@code d^h} expansions for average out-degree {@code d} and {@code h} hops (the distance budget
+     * divided by the smallest edge weight), and dynamic programming, which costs about {@code (n + m)} per hop or unit
+     * of distance. The engine predicted to be faster runs, see {@link #setCountEngineHint(CountEngine)}. A count whose
+     * cheaper estimate exceeds the budget is rejected with a {@code QueryRejectedException}, and an enumeration that
+     * runs over the cost of dynamic programming or over the budget is abandoned, in favour of dynamic programming if
+     * that fits the budget.
+     *
+     * @param expansionBudget maximum number of edge expansions per count. {@link #DEFAULT_EXPANSION_BUDGET} by default.
+     */
+    public void setExpansionBudget(long expansionBudget) {
+        this.expansionBudget = expansionBudget;
+    }
+
+    /**
+     * Force the engine of the route counts, for testing and for comparing the engines.
+     * <p>
+     * By default, a query planner chooses the engine of every count: it estimates the cost of both engines from the
+     * {@link #statistics()} of the graph and the budget of the count, converts the costs into latencies with the time
+     * per unit of cost measured in earlier counts, and runs the engine with the smaller predicted latency. The
+     * measurements are kept when the graph changes. A forced engine is still bypassed for counts it cannot run within
+     * the expansion budget, see {@link #setExpansionBudget(long)}, and dynamic programming for distance counts on
+     * graphs with edges of weight 0.
+     *
+     * @param engine engine to run the counts on. {@code null} (the default) to let the planner choose.
+     */
+    public void setCountEngineHint(CountEngine engine) {
+        planner.setHint(engine);
+    }
+
+    /**
+     * Statistics of this graph, as used to plan queries: sizes, out-degree histogram, weight range and strongly
+     * connected components. They are collected when first needed after the graph has changed.
+     *
+     * @return the {@code LLGraphStatistics} of the current graph.
+     */
+    public LLGraphStatistics statistics() {
+        return compact().statistics();
+    }
+
     /**
      * Check whether graphs contains given node.
      *
@@ -259,6 +484,7 @@ public class LLDirectedGraph<T> {
             throw new IllegalArgumentException("Weight must be >= 0");
         }
 
+        graphChanged();
         graph.get(start).getNeighbours().put(dest, weight);
     }
 
@@ -272,6 +498,7 @@ public class LLDirectedGraph<T> {
     public void removeEdge(T start, T dest) {
         validateInputNodes(start, dest);
 
+        graphChanged();
         graph.get(start).getNeighbours().remove(dest);
     }
 
@@ -279,19 +506,36 @@ public class LLDirectedGraph<T> {
      * Get all the adjacent graph of the given node.
      *
      * @param node the node to retrieve the neighbors from.
-     * @return {@code Set} of neighbors.
+     * @return {@code Set} of neighbors. Read from the snapshot, and unmodifiable, while the graph is stored off-heap.
      * @throws NoSuchElementException if node doesn't exist.
      */
     public Set<T> getNeighbours(T node) {
         validateInputNodes(node);
 
-        return graph.get(node).getNeighbours().keySet();
+        Map<T, Integer> neighbours = graph.get(node).getNeighbours();
+        return neighbours != null ? neighbours.keySet() : frozenNeighbours(node);
+    }
+
+    /**
+     * Neighbours of an existing node, read from the snapshot.
+     */
+    private synchronized Set<T> frozenNeighbours(T node) {
+        LLCompactGraph<T> compactGraph = compact();
+        int id = compactId(node);
+        Set<T> neighbours = new HashSet<T>();
+        for (int edge = compactGraph.firstEdge(id); edge < compactGraph.endEdge(id); edge++) {
+            neighbours.add(compactGraph.node(compactGraph.target(edge)));
+        }
+        return Collections.unmodifiableSet(neighbours);
     }
 
     /**
      * Given two graph in the graph, returns whether there is an edge from the
      * first node to the second node. If either node does not exist in the
      * graph, throws a NoSuchElementException.
+     * <p>
+     * The edge is looked up in the hash edge index of the array based snapshot, which is built by the first query
+     * after the graph changed.
      *
      * @param start the start node.
      * @param dest  the destination node.
@@ -299,20 +543,14 @@ public class LLDirectedGraph<T> {
      * @throws NoSuchElementException if either endpoint does not exist.
      */
     public boolean edgeExists(T start, T dest) {
-        validateInputNodes(start, dest);
-
-        return graph.get(start).getNeighbours().containsKey(dest);
-    }
+        int startId = nodeId(start);
+        int destId = nodeId(dest);
+        if (startId < 0 || destId < 0) {
+            throw new NoSuchElementException(LLPropertyFactory.getProperties().get("exception.directed_graph.no_such_element"));
+        }
 
-    /**
-     * Get weight of the given edge.
-     *
-     * @param start the start node.
-     * @param dest  the destination node.
-     * @return the weight of the given edge.
-     */
-    private int weightForEdge(T start, T dest) {
-        return graph.get(start).getNeighbours().get(dest);
+        LLEdgeIndex index = compact().edgeIndex();
+        return index.contains(compactId(startId), compactId(destId));
     }
 
     /**
@@ -324,111 +562,310 @@ public class LLDirectedGraph<T> {
         return graph.keySet();
     }
 
+    /**
+     * Drop everything derived from the current state of the graph, before it changes. Dropped neighbour maps are
+     * rebuilt first.
+     */
+    private void graphChanged() {
+        thaw();
+        compactGraph = null;
+        shortestPathTrees.clear();
+    }
+
+    /**
+     * Rebuild the neighbour maps of the nodes from the snapshot, if they have been dropped.
+     */
+    private synchronized void thaw() {
+        if (frozen) {
+            for (GraphNode graphNode : graphNodes) {
+                int node = compactId(graphNode.getId());
+                graphNode.neighbours = new HashMap<T, Integer>();
+                for (int edge = compactGraph.firstEdge(node); edge < compactGraph.endEdge(node); edge++) {
+                    graphNode.neighbours.put(compactGraph.node(compactGraph.target(edge)), compactGraph.weight(edge));
+                }
+            }
+            frozen = false;
+        }
+    }
 
     /**
-     * Run a Dijkstra on the graph starting from start node and ending as soon as we reach dest.
+     * Array based snapshot of this graph. The snapshot is built on first use and reused until the graph changes.
+     * Node ids in the snapshot are the ids of the {@code GraphNode}s, unless the nodes are reordered; then
+     * {@code compactIds} translates them and {@code nodeIds} translates them back. Off-heap, the neighbour maps are
+     * dropped once the snapshot is built.
+     * Synchronized, so that concurrent queries build the snapshot only once.
      *
-     * @param start source node.
-     * @param dest  destination node.
+     * @return {@code LLCompactGraph} representing the current state of this graph.
      */
-    private void dijkstra(T start, T dest) {
-        PriorityQueue<GraphNode> queue = new PriorityQueue<GraphNode>();
+    private synchronized LLCompactGraph<T> compact() {
+        if (compactGraph == null) {
+            int size = graphNodes.size();
+            Object[] nodes = new Object[size];
+            int edgeCount = 0;
+            for (GraphNode graphNode : graphNodes) {
+                nodes[graphNode.getId()] = graphNode.getData();
+                edgeCount += graphNode.getNeighbours().size();
+            }
 
-        // Init graph:
-        // Assign to every node a tentative distance value. Set it to zero for our initial node
-        // and to infinity for all other graph.
-        Set<T> nodes = getNodes();
-        for (T node : nodes) {
-            GraphNode graphNode = graph.get(node);
-            graphNode.setDistance(Integer.MAX_VALUE);
-            if (start.equals(node)) {
-                graphNode.setDistance(0);
-                graphNode.setPrevious(graphNode);
+            LLGraphStorage storage = storage(size, edgeCount);
+            int edge = 0;
+            for (GraphNode graphNode : graphNodes) {
+                storage.setFirstEdge(graphNode.getId(), edge);
+                for (Map.Entry<T, Integer> neighbour : graphNode.getNeighbours().entrySet()) {
+                    storage.setEdge(edge++, graph.get(neighbour.getKey()).getId(), neighbour.getValue());
+                }
+            }
+            storage.setFirstEdge(size, edge);
+            compactGraph = new LLCompactGraph<T>(nodes, storage);
+
+            if (reorderNodes) {
+                compactIds = LLNodeOrdering.reverseCuthillMcKee(compactGraph);
+                nodeIds = new int[size];
+                for (int id = 0; id < size; id++) {
+                    nodeIds[compactIds[id]] = id;
+                }
+                compactGraph = reordered(compactGraph, compactIds, nodeIds);
+            } else {
+                compactIds = null;
+                nodeIds = null;
             }
 
-            // Add node to priority queue
-            queue.add(graphNode);
+            if (offHeap) {
+                for (GraphNode graphNode : graphNodes) {
+                    graphNode.neighbours = null;
+                }
+                frozen = true;
+            }
         }
+        return compactGraph;
+    }
 
-        // Compute distances
-        while (!queue.isEmpty()) {
-            GraphNode currentGraphNode = queue.poll(); // Node with shortest distance
-
-            if (currentGraphNode.getData().equals(dest) && !currentGraphNode.equals(currentGraphNode.getPrevious())) {
-                break;
-            }
+    /**
+     * Empty storage for a snapshot, on or off the heap.
+     */
+    private LLGraphStorage storage(int size, int edgeCount) {
+        return offHeap ? new LLDirectGraphStorage(size, edgeCount) : new LLHeapGraphStorage(size, edgeCount);
+    }
 
-            for (T neighbour : getNeighbours(currentGraphNode.getData())) {
-                GraphNode neighbourGraphNode = graph.get(neighbour);
+    /**
+     * Snapshot with node {@code n} of the given snapshot renumbered to {@code ids[n]}, where oldIds is the inverse of
+     * ids. The edges of each node keep their order.
+     */
+    private LLCompactGraph<T> reordered(LLCompactGraph<T> compactGraph, int[] ids, int[] oldIds) {
+        int size = compactGraph.size();
+        Object[] nodes = new Object[size];
+        for (int node = 0; node < size; node++) {
+            nodes[ids[node]] = compactGraph.node(node);
+        }
 
-                final int alternateDist = currentGraphNode.getDistance() + weightForEdge(currentGraphNode.getData(), neighbour);
-                if (alternateDist < neighbourGraphNode.getDistance() || neighbourGraphNode.equals(neighbourGraphNode.getPrevious())) { // shorter path to neighbour found
-                    queue.remove(neighbourGraphNode);
-                    neighbourGraphNode.setDistance(alternateDist);
-                    neighbourGraphNode.setPrevious(currentGraphNode);
-                    queue.add(neighbourGraphNode);
-                }
+        LLGraphStorage storage = storage(size, compactGraph.edgeCount());
+        int edge = 0;
+        for (int node = 0; node < size; node++) {
+            int oldNode = oldIds[node];
+            storage.setFirstEdge(node, edge);
+            for (int oldEdge = compactGraph.firstEdge(oldNode); oldEdge < compactGraph.endEdge(oldNode); oldEdge++) {
+                storage.setEdge(edge++, ids[compactGraph.target(oldEdge)], compactGraph.weight(oldEdge));
             }
         }
+        storage.setFirstEdge(size, edge);
+        return new LLCompactGraph<T>(nodes, storage);
     }
 
+    /**
+     * Id of an existing node in the current snapshot.
+     */
+    private int compactId(T node) {
+        compact();
+        return compactId(graph.get(node).getId());
+    }
 
     /**
-     * Count number of paths stating from currentNode and ending at destinationNode based on a filter condition.
+     * Translate the id of a {@code GraphNode} into its id in the current snapshot.
+     */
+    private int compactId(int id) {
+        return compactIds == null ? id : compactIds[id];
+    }
+
+
+    /**
+     * {@code LLRouteWalker} over the routes starting at start that end at dest with a maximum number of maxHops.
+     */
+    private LLRouteWalker maxHopsWalker(T start, T dest, int maxHops) {
+        validateInputNodes(start, dest);
+        final int destId = compactId(dest);
+        final LLReachabilityIndex index = compact().reachability();
+
+        return new LLRouteWalker(compact(), compactId(start), (node, hops, distance) -> {
+            return hops > maxHops || !index.reachableOrSame(node, destId);
+        }, (node, hops, distance) -> {
+            return node == destId;
+        }, (hops, distance) -> {
+            return maxHops - hops;
+        });
+    }
+
+    /**
+     * {@code LLRouteWalker} over the routes starting at start that end at dest with exactly hops number of hops.
+     */
+    private LLRouteWalker hopsWalker(T start, T dest, int hops) {
+        validateInputNodes(start, dest);
+        final int destId = compactId(dest);
+        final LLReachabilityIndex index = compact().reachability();
+
+        return new LLRouteWalker(compact(), compactId(start), (node, pathHops, distance) -> {
+            return pathHops > hops || !index.reachableOrSame(node, destId);
+        }, (node, pathHops, distance) -> {
+            return node == destId && pathHops == hops;
+        }, (pathHops, distance) -> {
+            return hops - pathHops;
+        });
+    }
+
+    /**
+     * {@code LLRouteWalker} over the routes starting at start that end at dest with a distance less equal to distance.
+     */
+    private LLRouteWalker maxDistanceWalker(T start, T dest, long distance) {
+        validateInputNodes(start, dest);
+        return maxDistanceWalker(start, dest, distance, distancesToDest(start, dest));
+    }
+
+    /**
+     * Shortest distances from every node of the current snapshot to dest.
      *
-     * @param start  starting node.
-     * @param stop   {@code DFSCondition} that evaluates to {@code true} if current search should be aborted for current path.
-     * @param filter {@code DFSCondition} that evaluates to {@code true} if current path should be counted.
-     * @return number of paths the met the condition.
+     * @return the distances. {@code null} if dest cannot be reached from start, to skip the search.
      */
-    private int countPaths(T start, DFSCondition stop, DFSCondition filter) {
-        int total = 0;
+    private int[] distancesToDest(T start, T dest) {
+        int destId = compactId(dest);
+        return compact().reachability().reachable(compactId(start), destId)
+                ? LLShortestPaths.distancesTo(compact(), destId)
+                : null;
+    }
 
-        // Start a DFS from each neighbour
-        for (T neighbour : getNeighbours(start)) {
-            GraphPath path = new GraphPath();
-            path.appendNode(start, 0);
-            path.appendNode(neighbour, weightForEdge(start, neighbour));
-            total += dfs(neighbour, stop, filter, path);
+    /**
+     * {@code LLRouteWalker} over the routes starting at start that end at dest with a distance less equal to distance.
+     * <p>
+     * A reverse Dijkstra from dest gives a lower bound for the remaining distance of every route. A route is not
+     * extended any further once it can no longer get back to dest within the budget, which includes every route
+     * that arrives at a node from which dest is not reachable at all.
+     */
+    private LLRouteWalker maxDistanceWalker(T start, T dest, long distance, int[] distancesToDest) {
+        final int destId = compactId(dest);
+        final int minWeight = compact().minWeight();
+
+        if (distancesToDest == null) {
+            // No route at all, skip the reverse search
+            return new LLRouteWalker(compact(), compactId(start), (node, hops, pathDistance) -> {
+                return true;
+            }, (node, hops, pathDistance) -> {
+                return false;
+            }, null);
         }
 
-        return total;
+        return new LLRouteWalker(compact(), compactId(start), (node, hops, pathDistance) -> {
+            return pathDistance > distance || distancesToDest[node] > distance - pathDistance;
+        }, (node, hops, pathDistance) -> {
+            return node == destId && pathDistance <= distance;
+        }, (hops, pathDistance) -> {
+            return minWeight > 0 ? (int) Math.min(Integer.MAX_VALUE, (distance - pathDistance) / minWeight) : Integer.MAX_VALUE;
+        });
     }
 
     /**
-     * Count number of paths stating from currentNode and ending at destinationNode using Depth First Search (DFS).
-     * <p>
-     * The algorithms traverses from currentNode to adjacent nodes (neighbours) until we get to the destination node
-     * or until we reach maximum depth of maxHops.
+     * Count the routes reported by walker, or compute their number with countByDP, on the engine chosen by the query
+     * planner within the expansion budget. Large search trees are counted in parallel on the common
+     * {@code ForkJoinPool}.
      *
-     * @param currentNode search start node.
-     * @param stop        {@code DFSCondition} that evaluates to true if current search should be aborted for current path.
-     * @param filter      {@code DFSCondition} that evaluates to true if current path should be counted.
-     * @param path        current path.
-     * @return
+     * @param query     kind of the count, for the latency measurements of the planner.
+     * @param walker    walker positioned before the first route.
+     * @param dpCost    estimated cost of countByDP, {@code LLRouteCounts.UNSUPPORTED} if there is none.
+     * @param countByDP number of routes by dynamic programming.
+     * @return number of routes.
+     * @throws QueryRejectedException if the count costs too much or the number of routes exceeds the {@code int}
+     *                                range.
      */
-    private int dfs(T currentNode, DFSCondition stop, DFSCondition filter, GraphPath path) {
-        int total = 0;
+    private int count(LLQueryPlanner.Query query, LLRouteWalker walker, long dpCost, LongSupplier countByDP) {
+        long budget = expansionBudget;
+        long walkerCost = walker.estimateSize();
+        long count;
+
+        if (Math.min(walkerCost, dpCost) > budget) {
+            throw new QueryRejectedException(LLPropertyFactory.propertyWithArgs(
+                    "exception.directed_graph.query_too_expensive", String.valueOf(Math.min(walkerCost, dpCost)),
+                    String.valueOf(budget)));
+        }
 
-        if (filter.evaluate(path)) {
-            // Count path as valid
-            total++;
+        CountEngine engine = planner.choose(query, walkerCost <= budget ? walkerCost : LLRouteCounts.UNSUPPORTED,
+                dpCost <= budget ? dpCost : LLRouteCounts.UNSUPPORTED);
+        if (engine == CountEngine.DYNAMIC_PROGRAMMING) {
+            count = countByDP(query, dpCost, countByDP);
+        } else {
+            // The estimate of the walker is rough, so unless it is forced it gets no more time than dynamic
+            // programming is predicted to take
+            long maxSteps = planner.hint() == CountEngine.ENUMERATION
+                    ? budget : Math.min(budget, planner.enumerationCostOf(query, dpCost));
+            long started = System.nanoTime();
+            count = walk(walker, maxSteps);
+            planner.record(query, CountEngine.ENUMERATION, walkerCost, System.nanoTime() - started);
+
+            if (count == LLParallelRouteCounter.BUDGET_EXCEEDED && dpCost <= budget) {
+                count = countByDP(query, dpCost, countByDP);
+            } else if (count == LLParallelRouteCounter.BUDGET_EXCEEDED) {
+                throw new QueryRejectedException(LLPropertyFactory.propertyWithArgs(
+                        "exception.directed_graph.query_budget_exceeded", String.valueOf(budget)));
+            }
         }
 
-        for (T neighbour : getNeighbours(currentNode)) {
+        if (count > Integer.MAX_VALUE) {
+            throw new QueryRejectedException(LLPropertyFactory.propertyWithArgs(
+                    "exception.directed_graph.count_overflow", String.valueOf(Integer.MAX_VALUE)));
+        }
+        return (int) count;
+    }
 
-            path.appendNode(neighbour, weightForEdge(currentNode, neighbour));
+    /**
+     * Compute the number of routes with countByDP and record its latency.
+     */
+    private long countByDP(LLQueryPlanner.Query query, long dpCost, LongSupplier countByDP) {
+        long started = System.nanoTime();
+        long count = countByDP.getAsLong();
+        planner.record(query, CountEngine.DYNAMIC_PROGRAMMING, dpCost, System.nanoTime() - started);
+        return count;
+    }
 
-            if (stop.evaluate(path)) {
-                path.removeLastNode(weightForEdge(currentNode, neighbour));
-                continue; // go to next neighbour
-            } else {
-                total += dfs(neighbour, stop, filter, path);
-            }
+    /**
+     * Count the routes reported by walker, expanding at most about maxSteps edges.
+     *
+     * @return number of routes. {@code LLParallelRouteCounter.BUDGET_EXCEEDED} if the budget ran out first.
+     */
+    private long walk(LLRouteWalker walker, long maxSteps) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
 
-            path.removeLastNode(weightForEdge(currentNode, neighbour));
+        if (pool.getParallelism() > 1 && walker.estimateSize() > LLParallelRouteCounter.PARALLEL_THRESHOLD) {
+            return LLParallelRouteCounter.count(walker, pool, maxSteps);
+        } else {
+            long count = walker.count(maxSteps);
+            return walker.isExhausted() ? count : LLParallelRouteCounter.BUDGET_EXCEEDED;
         }
-        return total;
+    }
+
+    /**
+     * Estimate the number of routes between two snapshot ids with an {@code LLRouteEstimator}.
+     */
+    private LLRouteCountEstimate estimateRoutes(int startId, int destId, long budget, boolean byDistance,
+                                                double relativeError) {
+        if (!(relativeError > 0)) {
+            throw new IllegalArgumentException(
+                    LLPropertyFactory.getProperties().get("exception.directed_graph.estimate_relative_error"));
+        }
+        return new LLRouteEstimator(compact(), startId, destId, budget, byDistance).estimate(relativeError,
+                expansionBudget);
+    }
+
+    /**
+     * Lazy {@code Stream} of the routes reported by walker.
+     */
+    private Stream<GraphPath> routes(LLRouteWalker walker) {
+        return StreamSupport.stream(new RouteSpliterator(compact(), walker), false);
     }
 
 
@@ -461,15 +898,25 @@ public class LLDirectedGraph<T> {
     public GraphPath shortestPathBetween(T start, T dest) throws NodeNotReachableException {
         validateInputNodes(start, dest);
 
-        dijkstra(start, dest);
+        LLCompactGraph<T> compactGraph = compact();
+        int startId = compactId(start);
+        int destId = compactId(dest);
 
-        GraphNode destNode = graph.get(dest);
-        GraphPath path = destNode.path(graph.get(start));
+        if (!compactGraph.reachability().reachable(startId, destId)) {
+            throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.node_not_reachable"));
+        }
+
+        LLShortestPathTree tree = shortestPathTrees.tree(compactGraph, startId);
+        int[] path = tree.pathTo(destId);
 
-        if (path.getNodes().isEmpty()) {
+        if (path == null) {
             throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.node_not_reachable"));
         } else {
-            return path;
+            List<T> nodes = new ArrayList<T>(path.length);
+            for (int node : path) {
+                nodes.add(compactGraph.node(node));
+            }
+            return new GraphPath(nodes, tree.distanceTo(destId));
         }
     }
 
@@ -481,22 +928,79 @@ public class LLDirectedGraph<T> {
      * @throws NoSuchElementException    if a node in the route does not exist in the graph.
      * @throws NodeNotReachableException if node is unreachable.
      */
-    public int distance(List<T> nodes) throws NodeNotReachableException {
-        validateInputNodes((T[]) nodes.toArray());
+    public long distance(List<T> nodes) throws NodeNotReachableException {
+        int[] ids = new int[nodes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = nodeId(nodes.get(i));
+            if (ids[i] < 0) {
+                throw new NoSuchElementException(LLPropertyFactory.getProperties().get("exception.directed_graph.no_such_element"));
+            }
+        }
 
-        int distance = 0;
-        for (int i = 0; i < nodes.size() - 1; i++) {
-            T start = nodes.get(i);
-            T dest = nodes.get(i + 1);
+        long distance = distance(compact().edgeIndex(), ids, 0, ids.length);
+        if (distance == NO_SUCH_ROUTE) {
+            throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.invalid_edge"));
+        }
+        return distance;
+    }
 
-            if (edgeExists(start, dest)) {
-                distance += weightForEdge(start, dest);
-            } else {
-                throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.invalid_edge"));
-            }
+    /**
+     * Id of a node, for use with {@link #distances(int[], int[], long[])}. Ids are dense, starting at {@code 0} in the
+     * order in which the nodes were added, and do not change.
+     *
+     * @param node node to look up.
+     * @return the id of node. {@code -1} if node does not exist in the graph.
+     */
+    public int nodeId(T node) {
+        GraphNode graphNode = graph.get(node);
+        return graphNode == null ? -1 : graphNode.getId();
+    }
 
+    /**
+     * Total distances of a batch of routes, given in columnar form: the node ids of all routes are concatenated in
+     * nodes, and route {@code r} occupies {@code nodes[offsets[r]]} up to (excluding) {@code nodes[offsets[r + 1]]}.
+     * <p>
+     * Edges are looked up in the hash edge index of the array based snapshot, so no node is boxed, hashed or validated
+     * more than once. A route with an unknown node id or a missing edge is reported as {@code NO_SUCH_ROUTE} instead
+     * of failing the batch.
+     *
+     * @param nodes     node ids of all routes, see {@link #nodeId(Object)}.
+     * @param offsets   start of each route in nodes, followed by the end of the last route.
+     * @param distances receives the distance of route {@code r} at index {@code r}, or {@code NO_SUCH_ROUTE}.
+     * @throws IllegalArgumentException if distances is shorter than the number of routes.
+     */
+    public void distances(int[] nodes, int[] offsets, long[] distances) {
+        int routes = offsets.length - 1;
+        if (distances.length < routes) {
+            throw new IllegalArgumentException("distances must hold " + routes + " routes");
         }
 
+        LLEdgeIndex index = compact().edgeIndex();
+        for (int route = 0; route < routes; route++) {
+            distances[route] = distance(index, nodes, offsets[route], offsets[route + 1]);
+        }
+    }
+
+    /**
+     * Distance of the route {@code nodes[from..to)}.
+     *
+     * @return the distance. {@code NO_SUCH_ROUTE} if a node id is unknown or an edge does not exist.
+     */
+    private long distance(LLEdgeIndex index, int[] nodes, int from, int to) {
+        int size = graphNodes.size();
+        long distance = 0;
+        for (int i = from; i < to; i++) {
+            if (nodes[i] < 0 || nodes[i] >= size) {
+                return NO_SUCH_ROUTE;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int weight = index.weight(compactId(nodes[i - 1]), compactId(nodes[i]));
+            if (weight == LLEdgeIndex.NO_EDGE) {
+                return NO_SUCH_ROUTE;
+            }
+            distance += weight;
+        }
         return distance;
     }
 
@@ -507,15 +1011,15 @@ public class LLDirectedGraph<T> {
      * @param dest    destination node of route.
      * @param maxHops maximum number of stops in route.
      * @return number of possible routes.
+     * @throws QueryRejectedException if the count costs more than the expansion budget, see
+     *                                {@link #setExpansionBudget(long)}, or the number exceeds the {@code int} range.
      */
     public int countRoutesWithMaxHops(T start, T dest, int maxHops) {
-        validateInputNodes(start, dest);
-
-        return countPaths(start, (p) -> {
-            return p.hopCount() > maxHops;
-        }, (p) -> {
-            return dest.equals(p.last());
-        });
+        LLRouteWalker walker = maxHopsWalker(start, dest, maxHops);
+        int startId = compactId(start);
+        int destId = compactId(dest);
+        return count(LLQueryPlanner.Query.COUNT_MAX_HOPS, walker, LLRouteCounts.hopsCost(compact(), maxHops),
+                () -> LLRouteCounts.byHops(compact(), startId, destId, 1, maxHops));
     }
 
     /**
@@ -525,15 +1029,15 @@ public class LLDirectedGraph<T> {
      * @param dest  destination node of route.
      * @param hops  number of stops in route.
      * @return number of possible routes.
+     * @throws QueryRejectedException if the count costs more than the expansion budget, see
+     *                                {@link #setExpansionBudget(long)}, or the number exceeds the {@code int} range.
      */
     public int countRoutesWithHops(T start, T dest, int hops) {
-        validateInputNodes(start, dest);
-
-        return countPaths(start, (p) -> {
-            return p.hopCount() > hops;
-        }, (p) -> {
-            return dest.equals(p.last()) && p.hopCount() == hops;
-        });
+        LLRouteWalker walker = hopsWalker(start, dest, hops);
+        int startId = compactId(start);
+        int destId = compactId(dest);
+        return count(LLQueryPlanner.Query.COUNT_HOPS, walker, LLRouteCounts.hopsCost(compact(), hops),
+                () -> LLRouteCounts.byHops(compact(), startId, destId, Math.max(1, hops), hops));
     }
 
     /**
@@ -543,14 +1047,468 @@ public class LLDirectedGraph<T> {
      * @param dest     destination node of route.
      * @param distance maximum  allowed distance.
      * @return number of possible routes.
+     * @throws QueryRejectedException if the count costs more than the expansion budget, see
+     *                                {@link #setExpansionBudget(long)}, or the number exceeds the {@code int} range.
      */
-    public int countRoutesWithMaxDistance(T start, T dest, int distance) {
+    public int countRoutesWithMaxDistance(T start, T dest, long distance) {
         validateInputNodes(start, dest);
+        int[] distancesToDest = distancesToDest(start, dest);
+        if (distancesToDest == null) {
+            return 0;
+        }
 
-        return countPaths(start, (p) -> {
-            return p.distance() > distance;
-        }, (p) -> {
-            return dest.equals(p.last()) && p.distance() <= distance;
-        });
+        LLRouteWalker walker = maxDistanceWalker(start, dest, distance, distancesToDest);
+        int startId = compactId(start);
+        int destId = compactId(dest);
+        return count(LLQueryPlanner.Query.COUNT_MAX_DISTANCE, walker, LLRouteCounts.distanceCost(compact(), distance),
+                () -> LLRouteCounts.byDistance(compact(), startId, destId, distance, distancesToDest));
+    }
+
+    /**
+     * Estimate the number of routes starting from start and ending at dest with a maximum number of maxHops, for
+     * budgets with more routes than {@link #countRoutesWithMaxHops(Object, Object, int)} can count.
+     * <p>
+     * Random routes are sampled in parallel on the common {@code ForkJoinPool} until the 95% confidence interval of
+     * the estimate is within relativeError of it, or until the expansion budget, see
+     * {@link #setExpansionBudget(long)}, is spent. In that case the estimate reports the error it has reached.
+     *
+     * @param start         starting node of route.
+     * @param dest          destination node of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimated number of routes with its confidence interval.
+     * @throws IllegalArgumentException if relativeError is not positive.
+     */
+    public LLRouteCountEstimate estimateRoutesWithMaxHops(T start, T dest, int maxHops, double relativeError) {
+        validateInputNodes(start, dest);
+        return estimateRoutes(compactId(start), compactId(dest), maxHops, false, relativeError);
+    }
+
+    /**
+     * Estimate the number of routes starting from start and ending at dest with a distance less equal to distance,
+     * for budgets with more routes than {@link #countRoutesWithMaxDistance(Object, Object, long)} can count. See
+     * {@link #estimateRoutesWithMaxHops(Object, Object, int, double)}.
+     *
+     * @param start         starting node of route.
+     * @param dest          destination node of route.
+     * @param distance      maximum allowed distance.
+     * @param relativeError target half width of the confidence interval relative to the estimate, for example
+     *                      {@code 0.01} for 1%.
+     * @return the estimated number of routes with its confidence interval.
+     * @throws IllegalArgumentException if relativeError is not positive.
+     * @throws QueryRejectedException   if the graph has edges of weight 0, which may lead to infinitely many routes.
+     */
+    public LLRouteCountEstimate estimateRoutesWithMaxDistance(T start, T dest, long distance, double relativeError) {
+        validateInputNodes(start, dest);
+        if (compact().edgeCount() > 0 && compact().minWeight() <= 0) {
+            throw new QueryRejectedException(
+                    LLPropertyFactory.getProperties().get("exception.directed_graph.estimate_zero_weight"));
+        }
+        return estimateRoutes(compactId(start), compactId(dest), distance, true, relativeError);
+    }
+
+    /**
+     * Lazy {@code Stream} of the routes starting from start and ending at dest with a maximum number of maxHops.
+     * <p>
+     * Routes are enumerated on demand from a snapshot of this graph: only the route currently being built is kept in
+     * memory, so the stream can be consumed in constant memory and stopped early, for example with {@code limit(n)}
+     * or through its {@code iterator()}. The stream can be made parallel, in which case the search tree is split
+     * between the workers. Changes to this graph after the call are not reflected in the stream.
+     *
+     * @param start   starting node of route.
+     * @param dest    destination node of route.
+     * @param maxHops maximum number of stops in route.
+     * @return {@code Stream} of the matching routes.
+     * @throws NoSuchElementException if either node does not exist in the graph.
+     */
+    public Stream<GraphPath> routesWithMaxHops(T start, T dest, int maxHops) {
+        return routes(maxHopsWalker(start, dest, maxHops));
+    }
+
+    /**
+     * Lazy {@code Stream} of the routes starting from start and ending at dest with a exactly number of hops. See
+     * {@link #routesWithMaxHops(Object, Object, int)} for the properties of the stream.
+     *
+     * @param start starting node of route.
+     * @param dest  destination node of route.
+     * @param hops  number of stops in route.
+     * @return {@code Stream} of the matching routes.
+     * @throws NoSuchElementException if either node does not exist in the graph.
+     */
+    public Stream<GraphPath> routesWithHops(T start, T dest, int hops) {
+        return routes(hopsWalker(start, dest, hops));
+    }
+
+    /**
+     * Lazy {@code Stream} of the routes starting from start and ending at dest with a distance less equal to distance.
+     * See {@link #routesWithMaxHops(Object, Object, int)} for the properties of the stream.
+     *
+     * @param start    starting node of route.
+     * @param dest     destination node of route.
+     * @param distance maximum  allowed distance.
+     * @return {@code Stream} of the matching routes.
+     * @throws NoSuchElementException if either node does not exist in the graph.
+     */
+    public Stream<GraphPath> routesWithMaxDistance(T start, T dest, long distance) {
+        return routes(maxDistanceWalker(start, dest, distance));
+    }
+
+    /**
+     * The k shortest loopless paths between start and dest, computed with Yen's algorithm. A path is loopless if it
+     * does not visit a node twice, except that it ends at its start node when {@code start} equals {@code dest}.
+     * <p>
+     * On large graphs, the spur paths of each path are computed in parallel.
+     *
+     * @param start start node.
+     * @param dest  node which we want to reach.
+     * @param k     maximum number of paths.
+     * @return {@code List} of up to k {@code GraphPath}s, ordered by distance.
+     * @throws NoSuchElementException    if either node does not exist in the graph.
+     * @throws IllegalArgumentException  if {@code k} is less than 1.
+     * @throws NodeNotReachableException if {@code dest} is unreachable.
+     */
+    public List<GraphPath> kShortestPathsBetween(T start, T dest, int k) throws NodeNotReachableException {
+        boolean parallel = compact().size() >= PARALLEL_K_SHORTEST_PATHS_SIZE && ForkJoinPool.commonPool().getParallelism() > 1;
+        return kShortestPathsBetween(start, dest, k, parallel);
+    }
+
+    /**
+     * The k shortest loopless paths between start and dest, computed with Yen's algorithm. See
+     * {@link #kShortestPathsBetween(Object, Object, int)}.
+     *
+     * @param start    start node.
+     * @param dest     node which we want to reach.
+     * @param k        maximum number of paths.
+     * @param parallel whether to compute the spur paths of each path in parallel.
+     * @return {@code List} of up to k {@code GraphPath}s, ordered by distance.
+     * @throws NoSuchElementException    if either node does not exist in the graph.
+     * @throws IllegalArgumentException  if {@code k} is less than 1.
+     * @throws NodeNotReachableException if {@code dest} is unreachable.
+     */
+    public List<GraphPath> kShortestPathsBetween(T start, T dest, int k, boolean parallel) throws NodeNotReachableException {
+        validateInputNodes(start, dest);
+
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1");
+        }
+
+        LLCompactGraph<T> compactGraph = compact();
+        int startId = compactId(start);
+        int destId = compactId(dest);
+
+        if (!compactGraph.reachability().reachable(startId, destId)) {
+            throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.node_not_reachable"));
+        }
+
+        List<GraphPath> paths = new ArrayList<GraphPath>();
+        for (LLKShortestPaths.Route route : new LLKShortestPaths(compactGraph, startId, destId).paths(k, parallel)) {
+            List<T> nodes = new ArrayList<T>(route.nodes().length);
+            for (int node : route.nodes()) {
+                nodes.add(compactGraph.node(node));
+            }
+            paths.add(new GraphPath(nodes, route.distance()));
+        }
+        return paths;
+    }
+
+    /**
+     * The Pareto front of the routes between start and dest with respect to distance and number of hops: every route
+     * for which no other route is both not longer and has at most as many hops. Of several routes with the same
+     * distance and number of hops, only one is reported.
+     * <p>
+     * The front holds the shortest route as well as, for instance, the route with the fewest stops. When {@code start}
+     * equals {@code dest}, the routes are cycles.
+     *
+     * @param start start node.
+     * @param dest  node which we want to reach.
+     * @return {@code List} of the non-dominated {@code GraphPath}s, ordered by increasing distance and decreasing
+     * number of hops.
+     * @throws NoSuchElementException    if either node does not exist in the graph.
+     * @throws NodeNotReachableException if {@code dest} is unreachable.
+     */
+    public List<GraphPath> paretoRoutesBetween(T start, T dest) throws NodeNotReachableException {
+        validateInputNodes(start, dest);
+
+        LLCompactGraph<T> compactGraph = compact();
+        int startId = compactId(start);
+        int destId = compactId(dest);
+
+        if (!compactGraph.reachability().reachable(startId, destId)) {
+            throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.node_not_reachable"));
+        }
+
+        List<GraphPath> paths = new ArrayList<GraphPath>();
+        for (LLKShortestPaths.Route route : new LLParetoRoutes(compactGraph, startId, destId).front()) {
+            List<T> nodes = new ArrayList<T>(route.nodes().length);
+            for (int node : route.nodes()) {
+                nodes.add(compactGraph.node(node));
+            }
+            paths.add(new GraphPath(nodes, route.distance()));
+        }
+        return paths;
+    }
+
+    /**
+     * Shortest path between start and dest that has at most maxHops edges, computed with a layered Bellman-Ford. When
+     * {@code start} equals {@code dest}, the path is a non-empty cycle.
+     * <p>
+     * On large graphs, the nodes of each layer are relaxed in parallel.
+     *
+     * @param start   start node.
+     * @param dest    node which we want to reach.
+     * @param maxHops maximum number of edges of the path.
+     * @return {@code GraphPath} representing the shortest path between start and dest with at most maxHops edges.
+     * @throws NoSuchElementException    if either node does not exist in the graph.
+     * @throws IllegalArgumentException  if {@code maxHops} is less than 1.
+     * @throws NodeNotReachableException if {@code dest} is unreachable within maxHops edges.
+     */
+    public GraphPath shortestPathWithMaxHopsBetween(T start, T dest, int maxHops) throws NodeNotReachableException {
+        boolean parallel = compact().edgeCount() >= PARALLEL_MAX_HOPS_EDGES && ForkJoinPool.commonPool().getParallelism() > 1;
+        return shortestPathWithMaxHopsBetween(start, dest, maxHops, parallel);
+    }
+
+    /**
+     * Shortest path between start and dest that has at most maxHops edges. See
+     * {@link #shortestPathWithMaxHopsBetween(Object, Object, int)}.
+     *
+     * @param start    start node.
+     * @param dest     node which we want to reach.
+     * @param maxHops  maximum number of edges of the path.
+     * @param parallel whether to relax the nodes of each layer in parallel.
+     * @return {@code GraphPath} representing the shortest path between start and dest with at most maxHops edges.
+     * @throws NoSuchElementException    if either node does not exist in the graph.
+     * @throws IllegalArgumentException  if {@code maxHops} is less than 1.
+     * @throws NodeNotReachableException if {@code dest} is unreachable within maxHops edges.
+     */
+    public GraphPath shortestPathWithMaxHopsBetween(T start, T dest, int maxHops, boolean parallel) throws NodeNotReachableException {
+        validateInputNodes(start, dest);
+
+        if (maxHops < 1) {
+            throw new IllegalArgumentException("maxHops must be >= 1");
+        }
+
+        LLCompactGraph<T> compactGraph = compact();
+        int startId = compactId(start);
+        int destId = compactId(dest);
+
+        LLKShortestPaths.Route route = compactGraph.reachability().reachable(startId, destId)
+                ? new LLHopConstrainedPaths(compactGraph, startId, destId).path(maxHops, parallel)
+                : null;
+
+        if (route == null) {
+            throw new NodeNotReachableException(LLPropertyFactory.getProperties().get("exception.directed_graph.node_not_reachable"));
+        }
+
+        List<T> nodes = new ArrayList<T>(route.nodes().length);
+        for (int node : route.nodes()) {
+            nodes.add(compactGraph.node(node));
+        }
+        return new GraphPath(nodes, route.distance());
+    }
+
+    /**
+     * Lengths of the shortest paths from start to all nodes it can reach, computed with delta-stepping. Unlike the
+     * other queries, start itself is reported with distance {@code 0}.
+     * <p>
+     * On large graphs, the edges are relaxed in parallel on the common {@code ForkJoinPool}. The bucket width is
+     * derived from the edge weights, see {@link #distancesFrom(Object, long, boolean)}.
+     *
+     * @param start start node.
+     * @return {@code Map} from every node reachable from start to the length of its shortest path.
+     * @throws NoSuchElementException if start does not exist in the graph.
+     */
+    public Map<T, Long> distancesFrom(T start) {
+        LLCompactGraph<T> compactGraph = compact();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        boolean parallel = compactGraph.edgeCount() >= LLDeltaStepping.PARALLEL_EDGES && pool.getParallelism() > 1;
+        return distancesFrom(start, LLDeltaStepping.defaultDelta(compactGraph), parallel);
+    }
+
+    /**
+     * Lengths of the shortest paths from start to all nodes it can reach, computed with delta-stepping. See
+     * {@link #distancesFrom(Object)}.
+     * <p>
+     * Nodes are processed in buckets of width delta. A small delta does little redundant work but offers little
+     * parallelism; {@code 1} behaves like Dijkstra. A large delta processes many nodes at once, some of them before
+     * their distance is final. The largest weight divided by the average out-degree is a good default.
+     *
+     * @param start    start node.
+     * @param delta    bucket width, at least {@code 1}.
+     * @param parallel whether to relax the edges in parallel on the common {@code ForkJoinPool}.
+     * @return {@code Map} from every node reachable from start to the length of its shortest path.
+     * @throws NoSuchElementException   if start does not exist in the graph.
+     * @throws IllegalArgumentException if {@code delta} is less than 1.
+     */
+    public Map<T, Long> distancesFrom(T start, long delta, boolean parallel) {
+        validateInputNodes(start);
+
+        LLCompactGraph<T> compactGraph = compact();
+        long[] distances = new LLDeltaStepping(compactGraph, delta, false)
+                .distances(compactId(start), parallel ? ForkJoinPool.commonPool() : null);
+
+        Map<T, Long> result = new HashMap<T, Long>();
+        for (int node = 0; node < distances.length; node++) {
+            if (distances[node] != LLShortestPaths.LONG_INFINITY) {
+                result.put(compactGraph.node(node), distances[node]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lengths of the shortest paths from every node in starts to every node in dests, computed with the bucket based
+     * many-to-many algorithm of {@code LLDistanceTable}. As for {@link #shortestPathBetween(Object, Object)}, the
+     * distance from a node to itself is the length of the shortest non-empty cycle through it.
+     * <p>
+     * When the table is large enough, its searches are run in parallel on the common {@code ForkJoinPool}.
+     *
+     * @param starts start nodes, one per row.
+     * @param dests  destination nodes, one per column.
+     * @return the table in row major order: the distance from {@code starts.get(i)} to {@code dests.get(j)} is at
+     * index {@code i * dests.size() + j}. {@code NO_SUCH_ROUTE} if dest is unreachable from start.
+     * @throws NoSuchElementException   if a node does not exist in the graph.
+     * @throws IllegalArgumentException if the table has more than {@code Integer.MAX_VALUE} entries.
+     */
+    public long[] distanceTable(List<T> starts, List<T> dests) {
+        long work = (long) (starts.size() + dests.size()) * compact().edgeCount();
+        boolean parallel = work >= PARALLEL_DISTANCE_TABLE_WORK && ForkJoinPool.commonPool().getParallelism() > 1;
+        return distanceTable(starts, dests, parallel);
+    }
+
+    /**
+     * Lengths of the shortest paths from every node in starts to every node in dests. See
+     * {@link #distanceTable(List, List)}.
+     *
+     * @param starts   start nodes, one per row.
+     * @param dests    destination nodes, one per column.
+     * @param parallel whether to run the searches in parallel on the common {@code ForkJoinPool}.
+     * @return the table in row major order: the distance from {@code starts.get(i)} to {@code dests.get(j)} is at
+     * index {@code i * dests.size() + j}. {@code NO_SUCH_ROUTE} if dest is unreachable from start.
+     * @throws NoSuchElementException   if a node does not exist in the graph.
+     * @throws IllegalArgumentException if the table has more than {@code Integer.MAX_VALUE} entries.
+     */
+    public long[] distanceTable(List<T> starts, List<T> dests, boolean parallel) {
+        if ((long) starts.size() * dests.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Distance table must have at most " + Integer.MAX_VALUE + " entries");
+        }
+
+        int[] sources = new int[starts.size()];
+        for (int i = 0; i < sources.length; i++) {
+            validateInputNodes(starts.get(i));
+            sources[i] = compactId(starts.get(i));
+        }
+        int[] targets = new int[dests.size()];
+        for (int i = 0; i < targets.length; i++) {
+            validateInputNodes(dests.get(i));
+            targets[i] = compactId(dests.get(i));
+        }
+
+        long[] table = new LLDistanceTable(compact(), sources, targets).distances(parallel);
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == LLShortestPaths.LONG_INFINITY) {
+                table[i] = NO_SUCH_ROUTE;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Nodes whose shortest path from start is at most maxDistance long, found with a Dijkstra that stops at
+     * maxDistance. As for {@link #shortestPathBetween(Object, Object)}, start itself is only included if a non-empty
+     * cycle leads back to it within maxDistance.
+     *
+     * @param start       start node.
+     * @param maxDistance maximum distance, inclusive.
+     * @return the nodes within maxDistance of start.
+     * @throws NoSuchElementException if start does not exist in the graph.
+     */
+    public ReachableNodes reachableWithin(T start, long maxDistance) {
+        return reachableWithin(start, maxDistance, false);
+    }
+
+    /**
+     * Nodes whose shortest path from start is at most maxDistance long, or, in reverse, nodes from which start can be
+     * reached within maxDistance. See {@link #reachableWithin(Object, long)}.
+     *
+     * @param start       start node.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the nodes that reach start instead of the nodes that start reaches.
+     * @return the nodes within maxDistance of start.
+     * @throws NoSuchElementException if start does not exist in the graph.
+     */
+    public ReachableNodes reachableWithin(T start, long maxDistance, boolean reverse) {
+        validateInputNodes(start);
+
+        LLCompactGraph<T> compactGraph = compact();
+        return reachableWithin(compactGraph, nodeIds, compactId(start), maxDistance, reverse);
+    }
+
+    /**
+     * Range queries for a batch of start nodes. See {@link #reachableWithin(Object, long, boolean)}.
+     * <p>
+     * Large batches are run in parallel on the common {@code ForkJoinPool}, each thread with its own search arrays.
+     *
+     * @param starts      start nodes.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the nodes that reach each start instead of the nodes that it reaches.
+     * @return the nodes within maxDistance of each start, in the order of starts.
+     * @throws NoSuchElementException if a start node does not exist in the graph.
+     */
+    public List<ReachableNodes> reachableWithin(List<T> starts, long maxDistance, boolean reverse) {
+        boolean parallel = starts.size() >= PARALLEL_REACHABLE_WITHIN_STARTS && ForkJoinPool.commonPool().getParallelism() > 1;
+        return reachableWithin(starts, maxDistance, reverse, parallel);
+    }
+
+    /**
+     * Range queries for a batch of start nodes. See {@link #reachableWithin(List, long, boolean)}.
+     *
+     * @param starts      start nodes.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the nodes that reach each start instead of the nodes that it reaches.
+     * @param parallel    whether to run the queries in parallel on the common {@code ForkJoinPool}.
+     * @return the nodes within maxDistance of each start, in the order of starts.
+     * @throws NoSuchElementException if a start node does not exist in the graph.
+     */
+    public List<ReachableNodes> reachableWithin(List<T> starts, long maxDistance, boolean reverse, boolean parallel) {
+        LLCompactGraph<T> compactGraph = compact();
+        int[] nodeIds = this.nodeIds;
+        int[] sources = new int[starts.size()];
+        for (int i = 0; i < sources.length; i++) {
+            validateInputNodes(starts.get(i));
+            sources[i] = compactId(starts.get(i));
+        }
+
+        IntStream indexes = IntStream.range(0, sources.length);
+        return (parallel ? indexes.parallel() : indexes)
+                .mapToObj(i -> reachableWithin(compactGraph, nodeIds, sources[i], maxDistance, reverse))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Range query from the snapshot node source, translated to node ids with nodeIds and ordered by distance and id.
+     */
+    private ReachableNodes reachableWithin(LLCompactGraph<T> compactGraph, int[] nodeIds, int source, long maxDistance,
+                                           boolean reverse) {
+        LLRangeSearch.Range range = compactGraph.rangeSearch().within(source, maxDistance, reverse);
+        int[] ids = range.nodes();
+        long[] distances = range.distances();
+
+        if (nodeIds != null) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = nodeIds[ids[i]];
+            }
+        }
+        // Nodes at equal distance are settled in heap order
+        int from = 0;
+        while (from < ids.length) {
+            int to = from + 1;
+            while (to < ids.length && distances[to] == distances[from]) {
+                to++;
+            }
+            Arrays.sort(ids, from, to);
+            from = to;
+        }
+        return new ReachableNodes(ids, distances);
     }
 }
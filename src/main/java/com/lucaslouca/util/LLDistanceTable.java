@@ -0,0 +1,290 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Many-to-many shortest path distances from a list of sources to a list of targets of an {@code LLCompactGraph},
+ * computed with the bucket algorithm.
+ * <p>
+ * A backward search from every target settles the nodes closest to it and leaves a bucket entry, the target and the
+ * distance to it, at each of them. A forward search from every source then scans the buckets of the nodes it reaches:
+ * a path to a target is found where the forward search meets the ball of the target's backward search. The bucket
+ * algorithm is usually run on a contraction hierarchy, where both searches are small. This graph has none, so the
+ * backward searches are cut off after a budget of settled nodes instead. A backward search cut off at radius
+ * {@code r} holds every node closer than {@code r} to its target, so, as in a bidirectional search, the forward search
+ * is done with that target once its own radius plus {@code r} reaches the best distance found. A backward search that
+ * was not cut off resolves its target with the bucket of the source alone.
+ * <p>
+ * Larger balls make the forward searches shorter. When the searches have to meet in the middle, the balls of the two
+ * directions multiply to roughly the size of the graph, so {@code T} backward balls of {@code b} nodes and {@code S}
+ * forward balls of {@code n / b} nodes cost least for {@code b = sqrt(n * S / T)}. The budget is twice that, since
+ * the forward searches also scan buckets, capped so that all buckets hold at most {@code BUCKET_ENTRIES_PER_NODE}
+ * entries per node.
+ * <p>
+ * The backward searches, and then the rows, are run in parallel. Each thread reuses its own search arrays. As for the
+ * other queries, the distance from a node to itself is the length of the shortest non-empty cycle through it.
+ * Distances are summed in {@code long}s.
+ */
+class LLDistanceTable {
+    // Bucket entries per node of the graph that the backward searches create together
+    private static final int BUCKET_ENTRIES_PER_NODE = 4;
+
+    // Minimum number of nodes settled by a backward search
+    private static final int MIN_BALL_SIZE = 64;
+
+    // Number of nodes a forward search settles between two checks whether all targets are resolved
+    private static final int CHECK_INTERVAL = 16;
+
+    private final LLCompactGraph<?> graph;
+    private final int[] sources;
+    private final int[] targets;
+
+    // Token of the thread that computes the table, checked by the searches of all threads
+    private LLCancellationToken token;
+
+    // Buckets in CSR layout: the entries of node n are at [bucketOffsets[n], bucketOffsets[n + 1])
+    private int[] bucketOffsets;
+    private int[] bucketColumns;
+    private long[] bucketDistances;
+
+    // Radius of the backward search of each target. LONG_INFINITY if it settled every node that can reach the target.
+    private long[] radii;
+
+    /**
+     * Creates a new {@code LLDistanceTable}.
+     *
+     * @param graph   graph to search.
+     * @param sources ids of the source nodes, one per row.
+     * @param targets ids of the target nodes, one per column.
+     */
+    LLDistanceTable(LLCompactGraph<?> graph, int[] sources, int[] targets) {
+        this.graph = graph;
+        this.sources = sources;
+        this.targets = targets;
+    }
+
+    /**
+     * Lengths of the shortest paths from every source to every target.
+     *
+     * @param parallel whether to run the searches concurrently on the common {@code ForkJoinPool}.
+     * @return the table in row major order: the distance from {@code sources[i]} to {@code targets[j]} is at index
+     * {@code i * targets.length + j}. {@code LLShortestPaths.LONG_INFINITY} if there is no path.
+     */
+    long[] distances(boolean parallel) {
+        int columns = targets.length;
+        token = LLCancellationToken.current();
+        long[] table = new long[sources.length * columns];
+
+        int ball = ballSize();
+        int[][] ballNodes = new int[columns][];
+        long[][] ballDistances = new long[columns][];
+        radii = new long[columns];
+        run(columns, parallel, (search, column) -> search.backward(column, ball, ballNodes, ballDistances));
+        fillBuckets(ballNodes, ballDistances);
+
+        run(sources.length, parallel, (search, row) -> search.forward(row, table));
+        return table;
+    }
+
+    /**
+     * Number of nodes each backward search may settle, see the class comment.
+     */
+    private int ballSize() {
+        int columns = Math.max(1, targets.length);
+        long ball = (long) (2 * Math.sqrt((double) graph.size() * sources.length / columns));
+        ball = Math.min(ball, (long) BUCKET_ENTRIES_PER_NODE * graph.size() / columns);
+        return (int) Math.min(graph.size(), Math.max(MIN_BALL_SIZE, ball));
+    }
+
+    /**
+     * Run task for {@code [0, count)}, in a few chunks that each use their own {@code Search}.
+     */
+    private void run(int count, boolean parallel, ObjIntConsumer<Search> task) {
+        int chunks = Math.min(count, parallel ? 4 * ForkJoinPool.commonPool().getParallelism() : 1);
+        IntStream ids = IntStream.range(0, chunks);
+        (parallel ? ids.parallel() : ids).forEach(chunk -> {
+            Search search = new Search();
+            for (int i = (int) ((long) chunk * count / chunks); i < (long) (chunk + 1) * count / chunks; i++) {
+                task.accept(search, i);
+            }
+        });
+    }
+
+    /**
+     * Turn the balls of the backward searches into buckets, grouped by node.
+     */
+    private void fillBuckets(int[][] ballNodes, long[][] ballDistances) {
+        bucketOffsets = new int[graph.size() + 1];
+        for (int[] nodes : ballNodes) {
+            for (int node : nodes) {
+                bucketOffsets[node + 1]++;
+            }
+        }
+        for (int node = 0; node < graph.size(); node++) {
+            bucketOffsets[node + 1] += bucketOffsets[node];
+        }
+
+        int[] ends = Arrays.copyOf(bucketOffsets, graph.size());
+        bucketColumns = new int[bucketOffsets[graph.size()]];
+        bucketDistances = new long[bucketColumns.length];
+        for (int column = 0; column < ballNodes.length; column++) {
+            for (int i = 0; i < ballNodes[column].length; i++) {
+                int entry = ends[ballNodes[column][i]]++;
+                bucketColumns[entry] = column;
+                bucketDistances[entry] = ballDistances[column][i];
+            }
+        }
+    }
+
+    /**
+     * Dijkstra search state, reset after every search so that it can be reused.
+     */
+    private class Search {
+        private final long[] distances = new long[graph.size()];
+        private final int[] touched = new int[graph.size()];
+        private int touchedCount;
+        private final LLLongMinHeap queue = new LLLongMinHeap(graph.size());
+
+        // Best distance found so far for each column of the current row
+        private final long[] best = new long[targets.length];
+        private final boolean[] open = new boolean[targets.length];
+
+        Search() {
+            Arrays.fill(distances, LLShortestPaths.LONG_INFINITY);
+        }
+
+        /**
+         * Settle at most ball nodes closest to the target of column, following the incoming edges.
+         */
+        void backward(int column, int ball, int[][] ballNodes, long[][] ballDistances) {
+            int[] nodes = new int[Math.min(ball, MIN_BALL_SIZE)];
+            long[] nodeDistances = new long[nodes.length];
+            int settled = 0;
+
+            reach(targets[column], 0);
+            while (!queue.isEmpty() && settled < ball) {
+                token.check();
+                int node = queue.poll();
+                long distance = distances[node];
+                if (settled == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, Math.min(ball, 2 * settled));
+                    nodeDistances = Arrays.copyOf(nodeDistances, nodes.length);
+                }
+                nodes[settled] = node;
+                nodeDistances[settled] = distance;
+                settled++;
+
+                for (int slot = graph.firstInEdge(node); slot < graph.endInEdge(node); slot++) {
+                    long alternate = distance + graph.weight(graph.inEdge(slot));
+                    if (alternate < distances[graph.source(slot)]) {
+                        reach(graph.source(slot), alternate);
+                    }
+                }
+            }
+
+            radii[column] = queue.isEmpty() ? LLShortestPaths.LONG_INFINITY : queue.peekKey();
+            ballNodes[column] = Arrays.copyOf(nodes, settled);
+            ballDistances[column] = Arrays.copyOf(nodeDistances, settled);
+            reset();
+        }
+
+        /**
+         * Fill the row of the table for the source of row.
+         */
+        void forward(int row, long[] table) {
+            int source = sources[row];
+            LLReachabilityIndex reachability = graph.reachability();
+            boolean anyOpen = false;
+            for (int column = 0; column < targets.length; column++) {
+                best[column] = LLShortestPaths.LONG_INFINITY;
+                open[column] = reachability.reachable(source, targets[column]);
+                anyOpen |= open[column];
+            }
+
+            if (anyOpen) {
+                // The bucket entry of a target at itself would be an empty path, the non-empty cycle is found below
+                reach(source, 0);
+                scan(source, 0, true);
+
+                for (int settled = 0; !queue.isEmpty(); settled++) {
+                    if (settled % CHECK_INTERVAL == 0) {
+                        token.check();
+                        if (resolved(queue.peekKey())) {
+                            break;
+                        }
+                    }
+
+                    int node = queue.poll();
+                    long distance = distances[node];
+                    for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                        int next = graph.target(edge);
+                        long alternate = distance + graph.weight(edge);
+                        if (next == source) {
+                            closeCycle(source, alternate);
+                        } else if (alternate < distances[next]) {
+                            reach(next, alternate);
+                            scan(next, alternate, false);
+                        }
+                    }
+                }
+                reset();
+            }
+
+            System.arraycopy(best, 0, table, row * targets.length, targets.length);
+        }
+
+        /**
+         * Offer the paths through the bucket entries of node, which is at distance from the source.
+         */
+        private void scan(int node, long distance, boolean source) {
+            for (int entry = bucketOffsets[node]; entry < bucketOffsets[node + 1]; entry++) {
+                int column = bucketColumns[entry];
+                long alternate = distance + bucketDistances[entry];
+                if (alternate < best[column] && !(source && targets[column] == node)) {
+                    best[column] = alternate;
+                }
+            }
+        }
+
+        private void closeCycle(int source, long distance) {
+            for (int column = 0; column < targets.length; column++) {
+                if (targets[column] == source && distance < best[column]) {
+                    best[column] = distance;
+                }
+            }
+        }
+
+        /**
+         * Whether no node at radius or beyond can improve an open column. An open column stays unresolved until a
+         * path has been found, and a column whose backward search was cut off at r also needs radius + r >= best.
+         */
+        private boolean resolved(long radius) {
+            for (int column = 0; column < targets.length; column++) {
+                if (open[column] && (best[column] == LLShortestPaths.LONG_INFINITY
+                        || (radii[column] != LLShortestPaths.LONG_INFINITY && best[column] - radii[column] > radius))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void reach(int node, long distance) {
+            if (distances[node] == LLShortestPaths.LONG_INFINITY) {
+                touched[touchedCount++] = node;
+            }
+            distances[node] = distance;
+            queue.offer(node, distance);
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = LLShortestPaths.LONG_INFINITY;
+            }
+            touchedCount = 0;
+            queue.clear();
+        }
+    }
+}
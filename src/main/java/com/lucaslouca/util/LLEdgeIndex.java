@@ -0,0 +1,93 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash index of the edges of an {@code LLCompactGraph}, for looking up the edge between two nodes in O(1).
+ * <p>
+ * An edge is keyed by the {@code long} {@code start << 32 | dest} of its node ids. The keys live in an open addressing
+ * table with linear probing that is at most half full, with the weights in a parallel {@code int} array. The table is
+ * built once for the immutable snapshot, so there are no deletions, and a lookup touches only primitive arrays and
+ * never allocates. Most lookups take a single probe.
+ */
+class LLEdgeIndex {
+    /**
+     * Returned by {@link #weight(int, int)} if there is no edge. Edge weights are never negative.
+     */
+    static final int NO_EDGE = -1;
+
+    // Node ids are never negative, so no key collides with the empty slot marker
+    private static final long EMPTY = -1L;
+
+    private final long[] keys;
+    private final int[] weights;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * Creates a new {@code LLEdgeIndex} for the given graph.
+     *
+     * @param graph graph to index.
+     */
+    LLEdgeIndex(LLCompactGraph<?> graph) {
+        int capacity = Integer.highestOneBit(Math.max(2, 2 * graph.edgeCount() - 1)) << 1;
+        this.keys = new long[capacity];
+        this.weights = new int[capacity];
+        this.mask = capacity - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        Arrays.fill(keys, EMPTY);
+
+        for (int node = 0; node < graph.size(); node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                long key = key(node, graph.target(edge));
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                weights[slot] = graph.weight(edge);
+            }
+        }
+    }
+
+    /**
+     * Weight of the edge from start to dest.
+     *
+     * @param start id of the start node.
+     * @param dest  id of the destination node.
+     * @return the weight of the edge. {@code NO_EDGE} if there is none.
+     */
+    int weight(int start, int dest) {
+        long key = key(start, dest);
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return weights[slot];
+            } else if (candidate == EMPTY) {
+                return NO_EDGE;
+            }
+        }
+    }
+
+    /**
+     * Whether there is an edge from start to dest.
+     *
+     * @param start id of the start node.
+     * @param dest  id of the destination node.
+     * @return {@code true} if the edge exists.
+     */
+    boolean contains(int start, int dest) {
+        return weight(start, dest) != NO_EDGE;
+    }
+
+    private static long key(int start, int dest) {
+        return (long) start << 32 | dest;
+    }
+
+    /**
+     * Home slot of a key: Fibonacci hashing, which takes the high bits of the key multiplied by 2^64 / phi.
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
@@ -0,0 +1,210 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of a snapshot of an {@code LLDirectedGraph}, collected once when they are first needed and used by the
+ * {@code LLQueryPlanner} to estimate the cost of queries.
+ * <p>
+ * Besides the sizes, the out-degree histogram and the weight range, the statistics describe how fast the number of
+ * walks grows with their length. The out-degree of a node that a walk reaches is weighted by the number of edges that
+ * lead to it, so the {@link #branchingFactor()} is the average out-degree seen when a walk is extended, not the
+ * average over all nodes. Long walks can only stay within cyclic strongly connected components; a graph without any
+ * has no walk longer than its number of components.
+ */
+public class LLGraphStatistics {
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int maxDegree;
+    private final int[] degreeHistogram;
+    private final int minWeight;
+    private final int maxWeight;
+    private final double branchingFactor;
+    private final int componentCount;
+    private final int largestComponentSize;
+    private final int cyclicComponentCount;
+    private final int cyclicNodeCount;
+
+    /**
+     * Collects the statistics of the given graph.
+     *
+     * @param graph graph to describe.
+     */
+    LLGraphStatistics(LLCompactGraph<?> graph) {
+        int size = graph.size();
+        int maxDegree = 0;
+        int[] histogram = new int[Integer.SIZE + 1];
+        long reachedDegrees = 0;
+
+        for (int node = 0; node < size; node++) {
+            int degree = graph.endEdge(node) - graph.firstEdge(node);
+            maxDegree = Math.max(maxDegree, degree);
+            histogram[bucket(degree)]++;
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int target = graph.target(edge);
+                reachedDegrees += graph.endEdge(target) - graph.firstEdge(target);
+            }
+        }
+
+        LLReachabilityIndex index = graph.reachability();
+        int[] componentSizes = new int[index.componentCount()];
+        for (int node = 0; node < size; node++) {
+            componentSizes[index.component(node)]++;
+        }
+        int largest = 0;
+        int cyclicComponents = 0;
+        int cyclicNodes = 0;
+        for (int component = 0; component < componentSizes.length; component++) {
+            largest = Math.max(largest, componentSizes[component]);
+            if (index.isCyclic(component)) {
+                cyclicComponents++;
+                cyclicNodes += componentSizes[component];
+            }
+        }
+
+        this.nodeCount = size;
+        this.edgeCount = graph.edgeCount();
+        this.maxDegree = maxDegree;
+        this.degreeHistogram = Arrays.copyOf(histogram, bucket(maxDegree) + 1);
+        this.minWeight = edgeCount == 0 ? 0 : graph.minWeight();
+        this.maxWeight = graph.maxWeight();
+        this.branchingFactor = edgeCount == 0 ? 0 : (double) reachedDegrees / edgeCount;
+        this.componentCount = componentSizes.length;
+        this.largestComponentSize = largest;
+        this.cyclicComponentCount = cyclicComponents;
+        this.cyclicNodeCount = cyclicNodes;
+    }
+
+    /**
+     * Histogram bucket of an out-degree: {@code 0} for degree 0 and {@code k} for degrees in {@code [2^(k-1), 2^k)}.
+     */
+    private static int bucket(int degree) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(degree);
+    }
+
+    /**
+     * Number of nodes.
+     *
+     * @return number of nodes.
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Number of edges.
+     *
+     * @return number of edges.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Largest out-degree of a node.
+     *
+     * @return the largest out-degree. {@code 0} if the graph has no edges.
+     */
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Average out-degree of the nodes.
+     *
+     * @return edges per node.
+     */
+    public double averageDegree() {
+        return nodeCount == 0 ? 0 : (double) edgeCount / nodeCount;
+    }
+
+    /**
+     * Out-degree histogram with power of two buckets.
+     *
+     * @return the number of nodes per bucket: bucket {@code 0} counts the nodes without outgoing edges and bucket
+     * {@code k > 0} the nodes with an out-degree in {@code [2^(k-1), 2^k)}.
+     */
+    public int[] degreeHistogram() {
+        return degreeHistogram.clone();
+    }
+
+    /**
+     * Smallest edge weight.
+     *
+     * @return the smallest edge weight. {@code 0} if the graph has no edges.
+     */
+    public int minWeight() {
+        return minWeight;
+    }
+
+    /**
+     * Largest edge weight.
+     *
+     * @return the largest edge weight. {@code 0} if the graph has no edges.
+     */
+    public int maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Average number of ways to extend a walk by one edge, see the class comment.
+     *
+     * @return the average out-degree of the targets of the edges. {@code 0} if the graph has no edges.
+     */
+    public double branchingFactor() {
+        return branchingFactor;
+    }
+
+    /**
+     * Number of strongly connected components.
+     *
+     * @return number of components.
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Number of nodes of the largest strongly connected component.
+     *
+     * @return size of the largest component.
+     */
+    public int largestComponentSize() {
+        return largestComponentSize;
+    }
+
+    /**
+     * Number of strongly connected components that contain a cycle.
+     *
+     * @return number of cyclic components. {@code 0} if the graph is acyclic.
+     */
+    public int cyclicComponentCount() {
+        return cyclicComponentCount;
+    }
+
+    /**
+     * Number of nodes that lie on a cycle.
+     *
+     * @return number of nodes in cyclic components.
+     */
+    public int cyclicNodeCount() {
+        return cyclicNodeCount;
+    }
+
+    /**
+     * Whether the graph has no cycles, in which case no walk has more than {@code componentCount() - 1} edges.
+     *
+     * @return {@code true} if no component is cyclic.
+     */
+    public boolean isAcyclic() {
+        return cyclicComponentCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d nodes, %d edges, degrees %s (max %d), weights [%d, %d], branching %.2f, "
+                        + "%d components (largest %d, %d cyclic with %d nodes)", nodeCount, edgeCount,
+                Arrays.toString(degreeHistogram), maxDegree, minWeight, maxWeight, branchingFactor, componentCount,
+                largestComponentSize, cyclicComponentCount, cyclicNodeCount);
+    }
+}
@@ -0,0 +1,123 @@
+package com.lucaslouca.util;
+
+/**
+ * Storage of the adjacency arrays of an {@code LLCompactGraph}.
+ * <p>
+ * The outgoing edges are kept in compressed sparse row (CSR) layout, the incoming edges in a second, reverse CSR
+ * index. Search algorithms only read the graph through these accessors, so the arrays can live on the Java heap or
+ * outside of it. A storage is created empty for a given number of nodes and edges and filled through the setters while
+ * the snapshot is built, before it is shared between threads.
+ */
+interface LLGraphStorage {
+    /**
+     * Number of nodes.
+     *
+     * @return number of nodes.
+     */
+    int size();
+
+    /**
+     * Number of edges.
+     *
+     * @return number of edges.
+     */
+    int edgeCount();
+
+    /**
+     * First outgoing edge of a node.
+     *
+     * @param node node id.
+     * @return id of the first outgoing edge of {@code node}.
+     */
+    int firstEdge(int node);
+
+    /**
+     * End of the outgoing edges of a node.
+     *
+     * @param node node id.
+     * @return id after the last outgoing edge of {@code node}.
+     */
+    int endEdge(int node);
+
+    /**
+     * Destination of an edge.
+     *
+     * @param edge edge id.
+     * @return node id of the edge's destination.
+     */
+    int target(int edge);
+
+    /**
+     * Weight of an edge.
+     *
+     * @param edge edge id.
+     * @return the weight of the edge.
+     */
+    int weight(int edge);
+
+    /**
+     * First incoming edge slot of a node.
+     *
+     * @param node node id.
+     * @return index of the first incoming edge slot of {@code node}.
+     */
+    int firstInEdge(int node);
+
+    /**
+     * End of the incoming edge slots of a node.
+     *
+     * @param node node id.
+     * @return index after the last incoming edge slot of {@code node}.
+     */
+    int endInEdge(int node);
+
+    /**
+     * Start node of an incoming edge slot.
+     *
+     * @param slot incoming edge slot.
+     * @return node id of the edge's start.
+     */
+    int source(int slot);
+
+    /**
+     * Edge id of an incoming edge slot.
+     *
+     * @param slot incoming edge slot.
+     * @return id of the edge.
+     */
+    int inEdge(int slot);
+
+    /**
+     * Set the first outgoing edge of a node.
+     *
+     * @param node node id in {@code [0, size()]}. For {@code size()}, edge is the number of edges.
+     * @param edge id of the first outgoing edge of {@code node}.
+     */
+    void setFirstEdge(int node, int edge);
+
+    /**
+     * Set the destination and weight of an edge.
+     *
+     * @param edge   edge id.
+     * @param target node id of the edge's destination.
+     * @param weight the weight of the edge.
+     */
+    void setEdge(int edge, int target, int weight);
+
+    /**
+     * Set the first incoming edge slot of a node.
+     *
+     * @param node node id in {@code [0, size()]}. For {@code size()}, slot is the number of edges.
+     * @param slot index of the first incoming edge slot of {@code node}.
+     */
+    void setFirstInEdge(int node, int slot);
+
+    /**
+     * Set the start node and edge id of an incoming edge slot.
+     *
+     * @param slot   incoming edge slot.
+     * @param source node id of the edge's start.
+     * @param edge   id of the edge.
+     */
+    void setInEdge(int slot, int source, int edge);
+}
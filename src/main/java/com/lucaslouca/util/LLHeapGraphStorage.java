@@ -0,0 +1,112 @@
+package com.lucaslouca.util;
+
+/**
+ * {@code LLGraphStorage} backed by {@code int[]} arrays on the Java heap.
+ */
+class LLHeapGraphStorage implements LLGraphStorage {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] inOffsets;
+    private final int[] sources;
+    private final int[] inEdges;
+
+    /**
+     * Creates a new, empty {@code LLHeapGraphStorage}.
+     *
+     * @param size      number of nodes.
+     * @param edgeCount number of edges.
+     */
+    LLHeapGraphStorage(int size, int edgeCount) {
+        this(new int[size + 1], new int[edgeCount], new int[edgeCount]);
+    }
+
+    /**
+     * Creates a new {@code LLHeapGraphStorage} that takes ownership of the given outgoing edge arrays. The incoming
+     * edges still have to be set.
+     *
+     * @param offsets {@code offsets[n]} is the first edge id of node {@code n}, {@code offsets[size]} is the number of edges.
+     * @param targets destination node id of each edge.
+     * @param weights weight of each edge.
+     */
+    LLHeapGraphStorage(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.inOffsets = new int[offsets.length];
+        this.sources = new int[targets.length];
+        this.inEdges = new int[targets.length];
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public int weight(int edge) {
+        return weights[edge];
+    }
+
+    @Override
+    public int firstInEdge(int node) {
+        return inOffsets[node];
+    }
+
+    @Override
+    public int endInEdge(int node) {
+        return inOffsets[node + 1];
+    }
+
+    @Override
+    public int source(int slot) {
+        return sources[slot];
+    }
+
+    @Override
+    public int inEdge(int slot) {
+        return inEdges[slot];
+    }
+
+    @Override
+    public void setFirstEdge(int node, int edge) {
+        offsets[node] = edge;
+    }
+
+    @Override
+    public void setEdge(int edge, int target, int weight) {
+        targets[edge] = target;
+        weights[edge] = weight;
+    }
+
+    @Override
+    public void setFirstInEdge(int node, int slot) {
+        inOffsets[node] = slot;
+    }
+
+    @Override
+    public void setInEdge(int slot, int source, int edge) {
+        sources[slot] = source;
+        inEdges[slot] = edge;
+    }
+}
@@ -0,0 +1,187 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest path between two nodes of an {@code LLCompactGraph} that uses at most a given number of edges, computed with
+ * a layered Bellman-Ford in {@code O(maxHops * E)} time.
+ * <p>
+ * After layer {@code h}, the distance row holds the length of the shortest path with at most {@code h} edges from the
+ * source to every node. Only two rows are kept: each layer pulls over the incoming edges of every node from the
+ * previous row into the next one, so the nodes can be relaxed independently and large layers are run in parallel.
+ * <p>
+ * The path is rebuilt from parent layers that only record the nodes whose distance improved in a layer, together with
+ * their parent. They are recorded in increasing node order, so the parent of a node in a layer is found by binary
+ * search; a node missing from a layer kept its distance and parent of the previous layer. When source and target are
+ * the same, the path is a non-empty cycle. Distances are summed in {@code long}s.
+ */
+class LLHopConstrainedPaths {
+    private final LLCompactGraph<?> graph;
+    private final int source;
+    private final int target;
+
+    // Parent layers: nodes improved in layer h and their parents are at [layerEnds[h - 1], layerEnds[h])
+    private int[] changedNodes;
+    private int[] changedParents;
+    private int[] layerEnds;
+    private int changedCount;
+
+    /**
+     * Creates a new {@code LLHopConstrainedPaths} search.
+     *
+     * @param graph  graph to search.
+     * @param source id of the start node.
+     * @param target id of the destination node.
+     */
+    LLHopConstrainedPaths(LLCompactGraph<?> graph, int source, int target) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Shortest path from source to target with at most maxHops edges.
+     *
+     * @param maxHops  maximum number of edges of the path.
+     * @param parallel whether to relax the nodes of each layer concurrently.
+     * @return the path. {@code null} if there is none.
+     */
+    LLKShortestPaths.Route path(int maxHops, boolean parallel) {
+        int size = graph.size();
+
+        // A shortest path has less than size edges and a shortest cycle at most size, so more layers change nothing
+        int layers = Math.min(maxHops, size);
+
+        long[] current = new long[size];
+        long[] next = new long[size];
+        int[] parents = new int[size];
+        Arrays.fill(current, LLShortestPaths.LONG_INFINITY);
+        current[source] = 0;
+
+        changedNodes = new int[Math.max(16, size)];
+        changedParents = new int[changedNodes.length];
+        layerEnds = new int[layers + 1];
+        changedCount = 0;
+
+        long cycleDistance = LLShortestPaths.LONG_INFINITY;
+        int cycleLayer = -1;
+        int cycleParent = -1;
+
+        LLCancellationToken token = LLCancellationToken.current();
+        for (int layer = 1; layer <= layers; layer++) {
+            token.check();
+            long[] previous = current;
+            long[] row = next;
+            IntStream nodes = IntStream.range(0, size);
+            (parallel ? nodes.parallel() : nodes).forEach(node -> relax(previous, row, parents, node));
+
+            // The source keeps distance 0, but a path back to it closes a cycle
+            row[source] = 0;
+            parents[source] = -1;
+            if (source == target) {
+                for (int slot = graph.firstInEdge(source); slot < graph.endInEdge(source); slot++) {
+                    int from = graph.source(slot);
+                    if (previous[from] != LLShortestPaths.LONG_INFINITY) {
+                        long alternate = previous[from] + graph.weight(graph.inEdge(slot));
+                        if (alternate < cycleDistance) {
+                            cycleDistance = alternate;
+                            cycleLayer = layer;
+                            cycleParent = from;
+                        }
+                    }
+                }
+            }
+
+            boolean changed = record(parents, layer);
+            next = current;
+            current = row;
+            if (!changed) {
+                layerEnds = Arrays.copyOf(layerEnds, layer + 1);
+                break;
+            }
+        }
+
+        if (source == target) {
+            return cycleParent < 0 ? null : route(cycleParent, cycleLayer - 1, cycleDistance, true);
+        } else {
+            long distance = current[target];
+            return distance == LLShortestPaths.LONG_INFINITY ? null
+                    : route(target, layerEnds.length - 1, distance, false);
+        }
+    }
+
+    /**
+     * Pull the shortest path with one more edge to node over its incoming edges.
+     */
+    private void relax(long[] previous, long[] row, int[] parents, int node) {
+        long best = previous[node];
+        int parent = -1;
+        for (int slot = graph.firstInEdge(node); slot < graph.endInEdge(node); slot++) {
+            long distance = previous[graph.source(slot)];
+            if (distance != LLShortestPaths.LONG_INFINITY) {
+                long alternate = distance + graph.weight(graph.inEdge(slot));
+                if (alternate < best) {
+                    best = alternate;
+                    parent = graph.source(slot);
+                }
+            }
+        }
+        row[node] = best;
+        parents[node] = parent;
+    }
+
+    /**
+     * Append the nodes improved in layer to the parent layers, in increasing node order.
+     *
+     * @return {@code true} if any node improved.
+     */
+    private boolean record(int[] parents, int layer) {
+        int begin = changedCount;
+        for (int node = 0; node < parents.length; node++) {
+            if (parents[node] >= 0) {
+                if (changedCount == changedNodes.length) {
+                    changedNodes = Arrays.copyOf(changedNodes, 2 * changedCount);
+                    changedParents = Arrays.copyOf(changedParents, 2 * changedCount);
+                }
+                changedNodes[changedCount] = node;
+                changedParents[changedCount] = parents[node];
+                changedCount++;
+            }
+        }
+        layerEnds[layer] = changedCount;
+        return changedCount > begin;
+    }
+
+    /**
+     * Rebuild the path ending at last backwards through the parent layers.
+     *
+     * @param last     last node of the path before the cycle is closed, or the target.
+     * @param layer    layer in which the distance of last is final.
+     * @param distance length of the path.
+     * @param cycle    whether to close the path with an edge back to the source.
+     */
+    private LLKShortestPaths.Route route(int last, int layer, long distance, boolean cycle) {
+        int[] reversed = new int[layer + 2];
+        int length = 0;
+        if (cycle) {
+            reversed[length++] = source;
+        }
+
+        int node = last;
+        reversed[length++] = node;
+        for (; node != source; layer--) {
+            int index = Arrays.binarySearch(changedNodes, layerEnds[layer - 1], layerEnds[layer], node);
+            if (index >= 0) {
+                node = changedParents[index];
+                reversed[length++] = node;
+            }
+        }
+
+        int[] path = new int[length];
+        for (int i = 0; i < length; i++) {
+            path[i] = reversed[length - 1 - i];
+        }
+        return new LLKShortestPaths.Route(path, distance);
+    }
+}
@@ -0,0 +1,140 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of node ids in {@code [0, capacity)}, ordered by an {@code int} key.
+ * <p>
+ * Each node is contained at most once. Its key can be lowered in place with {@link #offer(int, int)}, which makes the
+ * heap suitable for Dijkstra style searches without boxing or duplicate entries. Unlike {@code LLDialQueue}, it accepts
+ * any keys in any order.
+ */
+class LLIntMinHeap extends LLIntMinQueue {
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Creates a new empty {@code LLIntMinHeap}.
+     *
+     * @param capacity number of distinct node ids.
+     */
+    LLIntMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Whether the heap is empty.
+     *
+     * @return {@code true} if the heap contains no nodes.
+     */
+    @Override
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Insert node with the given key, or lower its key if it is already contained and key is smaller.
+     *
+     * @param node node id.
+     * @param key  key of the node.
+     */
+    @Override
+    void offer(int node, int key) {
+        int position = positions[node];
+
+        if (position < 0) {
+            position = size++;
+            heap[position] = node;
+            positions[node] = position;
+            keys[node] = key;
+            siftUp(position);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(position);
+        }
+    }
+
+    /**
+     * Key of the node with the smallest key.
+     *
+     * @return the smallest key.
+     */
+    @Override
+    int peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Remove the node with the smallest key.
+     *
+     * @return id of the removed node.
+     */
+    @Override
+    int poll() {
+        int node = heap[0];
+        positions[node] = -1;
+
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return node;
+    }
+
+    /**
+     * Remove all nodes.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        int key = keys[node];
+
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[position] = parentNode;
+            positions[parentNode] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        int key = keys[node];
+        int half = size >>> 1;
+
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childNode = heap[child];
+            if (key <= keys[childNode]) {
+                break;
+            }
+            heap[position] = childNode;
+            positions[childNode] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
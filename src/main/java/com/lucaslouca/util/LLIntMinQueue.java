@@ -0,0 +1,38 @@
+package com.lucaslouca.util;
+
+/**
+ * Indexed min-priority queue of node ids in {@code [0, capacity)}, ordered by an {@code int} key.
+ * <p>
+ * Each node is contained at most once. Its key can be lowered in place with {@link #offer(int, int)}, which makes the
+ * queue suitable for Dijkstra style searches without boxing or duplicate entries.
+ */
+abstract class LLIntMinQueue {
+    /**
+     * Whether the queue is empty.
+     *
+     * @return {@code true} if the queue contains no nodes.
+     */
+    abstract boolean isEmpty();
+
+    /**
+     * Insert node with the given key, or lower its key if it is already contained and key is smaller.
+     *
+     * @param node node id.
+     * @param key  key of the node.
+     */
+    abstract void offer(int node, int key);
+
+    /**
+     * Key of the node with the smallest key.
+     *
+     * @return the smallest key.
+     */
+    abstract int peekKey();
+
+    /**
+     * Remove the node with the smallest key.
+     *
+     * @return id of the removed node.
+     */
+    abstract int poll();
+}
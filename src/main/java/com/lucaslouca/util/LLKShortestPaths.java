@@ -0,0 +1,254 @@
+package com.lucaslouca.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Yen's algorithm for the k shortest loopless paths between two nodes of an {@code LLCompactGraph}.
+ * <p>
+ * A path is loopless if no node appears twice, except that the path may end at its start node when source and target
+ * are the same. The graph itself is never modified: removed nodes and edges of a spur search are marked in scratch
+ * arrays that are stamped with a search number, so nothing has to be cleared between searches.
+ * <p>
+ * All spur searches run towards the same target, so they share the distances to the target computed once by a reverse
+ * Dijkstra. Removing nodes and edges can only make paths longer, so these distances are an admissible and consistent
+ * A* heuristic for every spur search. Path distances are summed in {@code long}s; where the reverse distances are
+ * capped, they remain admissible and the search reopens nodes as needed. In parallel mode the spur searches of a path
+ * are run concurrently, each thread using its own scratch buffers.
+ */
+class LLKShortestPaths {
+    /**
+     * A loopless path, identified by its node sequence.
+     */
+    static class Route implements Comparable<Route> {
+        private final int[] nodes;
+        private final long distance;
+
+        Route(int[] nodes, long distance) {
+            this.nodes = nodes;
+            this.distance = distance;
+        }
+
+        int[] nodes() {
+            return nodes;
+        }
+
+        long distance() {
+            return distance;
+        }
+
+        @Override
+        public int compareTo(Route other) {
+            if (distance != other.distance) {
+                return Long.compare(distance, other.distance);
+            } else if (nodes.length != other.nodes.length) {
+                return Integer.compare(nodes.length, other.nodes.length);
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] != other.nodes[i]) {
+                    return Integer.compare(nodes[i], other.nodes[i]);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Route && Arrays.equals(nodes, ((Route) o).nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    /**
+     * Scratch buffers of a spur search.
+     */
+    private class Scratch {
+        private final long[] distances = new long[graph.size()];
+        private final int[] predecessors = new int[graph.size()];
+        private final int[] visited = new int[graph.size()];
+        private final int[] removedNodes = new int[graph.size()];
+        private final int[] removedEdges = new int[graph.edgeCount()];
+        private final LLLongMinHeap queue = new LLLongMinHeap(graph.size());
+        private int stamp;
+    }
+
+    private final LLCompactGraph<?> graph;
+    private final int source;
+    private final int target;
+    private final int[] distancesToTarget;
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Creates a new {@code LLKShortestPaths} search.
+     *
+     * @param graph  graph to search.
+     * @param source id of the start node.
+     * @param target id of the destination node.
+     */
+    LLKShortestPaths(LLCompactGraph<?> graph, int source, int target) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.distancesToTarget = LLShortestPaths.distancesTo(graph, target);
+    }
+
+    /**
+     * The k shortest loopless paths from source to target.
+     *
+     * @param k        maximum number of paths.
+     * @param parallel whether to compute the spur paths of each path concurrently.
+     * @return up to k paths, ordered by distance.
+     */
+    List<Route> paths(int k, boolean parallel) {
+        List<Route> result = new ArrayList<Route>();
+        LLCancellationToken token = LLCancellationToken.current();
+        Route first = spurPath(scratches.get(), new int[]{source}, 0, 0, result);
+        if (first == null) {
+            return result;
+        }
+
+        PriorityQueue<Route> candidates = new PriorityQueue<Route>();
+        Set<Route> seen = new HashSet<Route>();
+        candidates.add(first);
+        seen.add(first);
+
+        while (result.size() < k && !candidates.isEmpty()) {
+            token.check();
+            Route previous = candidates.poll();
+            result.add(previous);
+
+            if (result.size() < k) {
+                int[] nodes = previous.nodes();
+                long[] prefixDistances = prefixDistances(nodes);
+                IntStream spurIndexes = IntStream.range(0, nodes.length - 1);
+
+                Route[] spurPaths = (parallel ? spurIndexes.parallel() : spurIndexes)
+                        .mapToObj(i -> {
+                            token.check();
+                            return spurPath(scratches.get(), nodes, i, prefixDistances[i], result);
+                        })
+                        .toArray(Route[]::new);
+
+                for (Route route : spurPaths) {
+                    if (route != null && seen.add(route)) {
+                        candidates.add(route);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shortest path that follows {@code nodes[0..spurIndex]} and then deviates from every path found so far that
+     * shares this root.
+     *
+     * @param scratch      scratch buffers of the calling thread.
+     * @param nodes        path providing the root.
+     * @param spurIndex    index of the spur node in nodes.
+     * @param rootDistance distance of the root path.
+     * @param found        paths found so far.
+     * @return the new path. {@code null} if there is none.
+     */
+    private Route spurPath(Scratch scratch, int[] nodes, int spurIndex, long rootDistance, List<Route> found) {
+        int stamp = ++scratch.stamp;
+        int spur = nodes[spurIndex];
+
+        // Remove the root path (except the spur node) and the edges by which found paths leave the root
+        for (int i = 0; i < spurIndex; i++) {
+            scratch.removedNodes[nodes[i]] = stamp;
+        }
+        for (Route route : found) {
+            int[] other = route.nodes();
+            if (other.length > spurIndex + 1 && sharesRoot(other, nodes, spurIndex)) {
+                int edge = edge(other[spurIndex], other[spurIndex + 1]);
+                scratch.removedEdges[edge] = stamp;
+            }
+        }
+
+        // A* from spur to target. The target is never expanded, so it is only reached as the end of a path.
+        LLLongMinHeap queue = scratch.queue;
+        queue.clear();
+        scratch.distances[spur] = 0;
+        scratch.visited[spur] = stamp;
+        queue.offer(spur, distancesToTarget[spur]);
+
+        long best = LLShortestPaths.LONG_INFINITY;
+        int bestPredecessor = -1;
+
+        while (!queue.isEmpty() && queue.peekKey() < best) {
+            int node = queue.poll();
+            long distance = scratch.distances[node];
+
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int next = graph.target(edge);
+                long alternate = distance + graph.weight(edge);
+
+                if (scratch.removedEdges[edge] == stamp || alternate >= best) {
+                    continue;
+                } else if (next == target) {
+                    best = alternate;
+                    bestPredecessor = node;
+                } else if (scratch.removedNodes[next] != stamp && distancesToTarget[next] != LLShortestPaths.INFINITY
+                        && (scratch.visited[next] != stamp || alternate < scratch.distances[next])) {
+                    scratch.visited[next] = stamp;
+                    scratch.distances[next] = alternate;
+                    scratch.predecessors[next] = node;
+                    queue.offer(next, alternate + distancesToTarget[next]);
+                }
+            }
+        }
+
+        if (bestPredecessor < 0) {
+            return null;
+        }
+
+        // Root path followed by the spur path, which is rebuilt backwards from the predecessors
+        int spurLength = 1;
+        for (int node = bestPredecessor; node != spur; node = scratch.predecessors[node]) {
+            spurLength++;
+        }
+        int[] path = Arrays.copyOf(nodes, spurIndex + 1 + spurLength);
+        path[path.length - 1] = target;
+        int position = path.length - 2;
+        for (int node = bestPredecessor; node != spur; node = scratch.predecessors[node]) {
+            path[position--] = node;
+        }
+        return new Route(path, rootDistance + best);
+    }
+
+    private long[] prefixDistances(int[] nodes) {
+        long[] distances = new long[nodes.length];
+        for (int i = 1; i < nodes.length; i++) {
+            distances[i] = distances[i - 1] + graph.weight(edge(nodes[i - 1], nodes[i]));
+        }
+        return distances;
+    }
+
+    private int edge(int from, int to) {
+        for (int edge = graph.firstEdge(from); edge < graph.endEdge(from); edge++) {
+            if (graph.target(edge) == to) {
+                return edge;
+            }
+        }
+        throw new IllegalStateException("No edge " + from + "->" + to);
+    }
+
+    private static boolean sharesRoot(int[] path, int[] root, int spurIndex) {
+        for (int i = 0; i <= spurIndex; i++) {
+            if (path[i] != root[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.lucaslouca.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the routes reported by an {@code LLRouteWalker} on a {@code ForkJoinPool}.
+ * <p>
+ * Each task counts with its own walker, and therefore its own path buffer. A task counts in batches of
+ * {@code STEPS_PER_BATCH} edge expansions. Between batches, when the pool is running out of queued work and the
+ * estimated size of the remaining search tree exceeds {@code SPLIT_THRESHOLD}, it splits its walker and forks a task
+ * for the other part. Irregular search trees are therefore divided where the work actually is. Partial counts are
+ * summed in a {@code LongAdder}.
+ * <p>
+ * A count can be given a budget of edge expansions, which the tasks draw from batch by batch. Steps a batch does not
+ * use, because its walker finished early, are given back. Once the budget is used up, all tasks stop and the count is
+ * abandoned.
+ */
+class LLParallelRouteCounter {
+    /**
+     * Estimated search tree size above which a count is worth running in parallel.
+     */
+    static final long PARALLEL_THRESHOLD = 1L << 20;
+
+    /**
+     * Count reported when the budget ran out before all routes were counted.
+     */
+    static final long BUDGET_EXCEEDED = -1;
+
+    private static final long SPLIT_THRESHOLD = 1L << 12;
+    private static final long STEPS_PER_BATCH = 1L << 10;
+
+    /**
+     * Task counting the routes of one walker, forking tasks for parts of its search tree on demand.
+     */
+    private static class CountTask extends RecursiveAction {
+        private final LLRouteWalker walker;
+        private final LongAdder total;
+        private final AtomicLong budget;
+
+        CountTask(LLRouteWalker walker, LongAdder total, AtomicLong budget) {
+            this.walker = walker;
+            this.total = total;
+            this.budget = budget;
+        }
+
+        @Override
+        protected void compute() {
+            List<CountTask> forked = new ArrayList<CountTask>();
+            long count = 0;
+
+            while (!walker.isExhausted()) {
+                long steps = reserve();
+                if (steps == 0) {
+                    // Out of budget, make sure no steps given back later make the count look complete
+                    budget.set(Long.MIN_VALUE);
+                    break;
+                }
+                long before = walker.steps();
+                count += walker.count(steps);
+                budget.addAndGet(steps - (walker.steps() - before));
+
+                if (getSurplusQueuedTaskCount() < 2 && walker.estimateSize() > SPLIT_THRESHOLD) {
+                    LLRouteWalker other = walker.trySplit();
+                    if (other != null) {
+                        CountTask task = new CountTask(other, total, budget);
+                        task.fork();
+                        forked.add(task);
+                    }
+                }
+            }
+            total.add(count);
+
+            for (CountTask task : forked) {
+                task.join();
+            }
+        }
+
+        /**
+         * Take up to {@code STEPS_PER_BATCH} steps from the budget.
+         *
+         * @return number of steps taken. {@code 0} if the budget is used up.
+         */
+        private long reserve() {
+            while (true) {
+                long left = budget.get();
+                if (left <= 0) {
+                    return 0;
+                }
+                long steps = Math.min(left, STEPS_PER_BATCH);
+                if (budget.compareAndSet(left, left - steps)) {
+                    return steps;
+                }
+            }
+        }
+    }
+
+    /**
+     * Disable instantiation.
+     */
+    private LLParallelRouteCounter() {
+    }
+
+    /**
+     * Count the routes reported by walker using the given pool.
+     *
+     * @param walker walker positioned before the first route.
+     * @param pool   {@code ForkJoinPool} to run the count on.
+     * @return number of routes.
+     */
+    static long count(LLRouteWalker walker, ForkJoinPool pool) {
+        return count(walker, pool, Long.MAX_VALUE);
+    }
+
+    /**
+     * Count the routes reported by walker using the given pool, expanding at most about maxSteps edges.
+     *
+     * @param walker   walker positioned before the first route.
+     * @param pool     {@code ForkJoinPool} to run the count on.
+     * @param maxSteps maximum number of edges to expand, over all tasks.
+     * @return number of routes. {@code BUDGET_EXCEEDED} if the budget ran out first.
+     */
+    static long count(LLRouteWalker walker, ForkJoinPool pool, long maxSteps) {
+        LongAdder total = new LongAdder();
+        AtomicLong budget = new AtomicLong(maxSteps);
+        pool.invoke(new CountTask(walker, total, budget));
+        return budget.get() < 0 ? BUDGET_EXCEEDED : total.sum();
+    }
+}
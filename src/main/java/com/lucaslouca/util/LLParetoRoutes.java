@@ -0,0 +1,171 @@
+package com.lucaslouca.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bi-criteria label setting search for the Pareto front of (distance, hops) routes between two nodes of an
+ * {@code LLCompactGraph}.
+ * <p>
+ * A label is a route from the source to a node, stored in parallel primitive arrays as its node, distance, hop count
+ * and parent label. Labels are settled in lexicographic (distance, hops) order. A label is dominated if another label
+ * at the same node is not longer and has at most as many hops. Since labels at a node are settled with increasing
+ * distance, a label is therefore only settled if it has fewer hops than every label settled at its node before, and a
+ * single {@code int} per node decides dominance.
+ * <p>
+ * A reverse breadth first search gives the minimum number of hops from every node to the target. A label is pruned
+ * once it cannot reach the target with fewer hops than the routes found so far, since those are all at most as long.
+ * <p>
+ * With non-negative weights, every route of the front is loopless. When source and target are the same node, the front
+ * consists of cycles.
+ */
+class LLParetoRoutes {
+    private static final int NONE = Integer.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final LLCompactGraph<?> graph;
+    private final int source;
+    private final int target;
+
+    // Labels
+    private int[] nodes = new int[INITIAL_CAPACITY];
+    private long[] distances = new long[INITIAL_CAPACITY];
+    private int[] hops = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int labelCount;
+
+    // Binary heap of label ids ordered by (distance, hops)
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int heapSize;
+
+    /**
+     * Creates a new {@code LLParetoRoutes} search.
+     *
+     * @param graph  graph to search.
+     * @param source id of the start node.
+     * @param target id of the destination node.
+     */
+    LLParetoRoutes(LLCompactGraph<?> graph, int source, int target) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * The Pareto front of the routes from source to target. Of several routes with the same distance and number of
+     * hops, only one is reported.
+     *
+     * @return the non-dominated routes, ordered by increasing distance and decreasing number of hops.
+     */
+    List<LLKShortestPaths.Route> front() {
+        int[] hopsToTarget = LLShortestPaths.hopsTo(graph, target);
+        int[] minHops = new int[graph.size()];
+        Arrays.fill(minHops, NONE);
+        int targetMinHops = NONE;
+        List<LLKShortestPaths.Route> front = new ArrayList<LLKShortestPaths.Route>();
+
+        push(addLabel(source, 0, 0, -1));
+        LLCancellationToken token = LLCancellationToken.current();
+
+        while (heapSize > 0) {
+            token.check();
+            int label = poll();
+            int node = nodes[label];
+            int labelHops = hops[label];
+
+            if (label != 0 && node == target) {
+                if (labelHops < targetMinHops) {
+                    targetMinHops = labelHops;
+                    front.add(route(label));
+                }
+                continue;
+            } else if (labelHops >= minHops[node]) {
+                continue;
+            }
+            minHops[node] = labelHops;
+
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int next = graph.target(edge);
+                int nextHops = labelHops + 1;
+
+                // Only extend by edges that may still lead to a non-dominated route
+                if (hopsToTarget[next] != LLShortestPaths.INFINITY && nextHops + hopsToTarget[next] < targetMinHops
+                        && (next == target || nextHops < minHops[next])) {
+                    push(addLabel(next, distances[label] + graph.weight(edge), nextHops, label));
+                }
+            }
+        }
+        return front;
+    }
+
+    private int addLabel(int node, long distance, int labelHops, int parent) {
+        if (labelCount == nodes.length) {
+            int capacity = labelCount * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            hops = Arrays.copyOf(hops, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+        }
+        nodes[labelCount] = node;
+        distances[labelCount] = distance;
+        hops[labelCount] = labelHops;
+        parents[labelCount] = parent;
+        return labelCount++;
+    }
+
+    /**
+     * Route of a label, rebuilt by following its parents.
+     */
+    private LLKShortestPaths.Route route(int label) {
+        int[] path = new int[hops[label] + 1];
+        for (int current = label, position = path.length - 1; current >= 0; current = parents[current]) {
+            path[position--] = nodes[current];
+        }
+        return new LLKShortestPaths.Route(path, distances[label]);
+    }
+
+    private boolean less(int label, int other) {
+        return distances[label] < distances[other]
+                || (distances[label] == distances[other] && hops[label] < hops[other]);
+    }
+
+    private void push(int label) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int position = heapSize++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(label, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = label;
+    }
+
+    private int poll() {
+        int result = heap[0];
+        int label = heap[--heapSize];
+        int position = 0;
+        int half = heapSize >>> 1;
+
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], label)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        if (heapSize > 0) {
+            heap[position] = label;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package com.lucaslouca.util;
+
+import com.lucaslouca.util.LLDirectedGraph.CountEngine;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the engine that answers a query of an {@code LLDirectedGraph} from the estimated costs of the engines and
+ * the latencies measured so far.
+ * <p>
+ * The engines estimate their costs in units of their own: edge expansions for an enumeration and counter updates for
+ * dynamic programming. For every kind of query and engine, the planner keeps the time a unit took in past queries, as
+ * an exponentially weighted moving average, and chooses the engine with the smallest predicted latency. Until an
+ * engine has been measured a unit of either engine is assumed to take the same time. Queries too small to time
+ * reliably are not recorded.
+ * <p>
+ * A hint forces an engine, for tests and for comparing the engines. It is ignored for queries the engine does not
+ * support.
+ */
+class LLQueryPlanner {
+    /**
+     * The kinds of queries that can be answered by more than one engine.
+     */
+    enum Query {
+        COUNT_MAX_HOPS, COUNT_HOPS, COUNT_MAX_DISTANCE
+    }
+
+    // Weight of a new measurement in the moving average
+    private static final double ALPHA = 0.2;
+
+    // Minimum estimated cost of a query whose latency is recorded
+    private static final long MIN_RECORDED_COST = 1 << 12;
+
+    // Nanoseconds per unit of cost, per kind of query and engine
+    private final double[][] nanosPerUnit;
+    private volatile CountEngine hint;
+
+    LLQueryPlanner() {
+        nanosPerUnit = new double[Query.values().length][CountEngine.values().length];
+        for (double[] rates : nanosPerUnit) {
+            Arrays.fill(rates, 1.0);
+        }
+    }
+
+    /**
+     * Force an engine for all queries it supports.
+     *
+     * @param hint engine to use. {@code null} to let the planner choose.
+     */
+    void setHint(CountEngine hint) {
+        this.hint = hint;
+    }
+
+    /**
+     * The forced engine.
+     *
+     * @return the engine forced by {@link #setHint(CountEngine)}. {@code null} if the planner chooses.
+     */
+    CountEngine hint() {
+        return hint;
+    }
+
+    /**
+     * Cost of an enumeration that is predicted to take as long as dynamic programming of a given cost.
+     *
+     * @param query  kind of the query.
+     * @param dpCost estimated cost of dynamic programming.
+     * @return the equivalent cost of an enumeration. {@code UNSUPPORTED} if dpCost is {@code UNSUPPORTED}.
+     */
+    synchronized long enumerationCostOf(Query query, long dpCost) {
+        double[] rates = nanosPerUnit[query.ordinal()];
+        double cost = (double) dpCost * rates[CountEngine.DYNAMIC_PROGRAMMING.ordinal()]
+                / rates[CountEngine.ENUMERATION.ordinal()];
+        return dpCost == LLRouteCounts.UNSUPPORTED || cost >= Long.MAX_VALUE ? LLRouteCounts.UNSUPPORTED : (long) cost;
+    }
+
+    /**
+     * Choose the engine for a query.
+     *
+     * @param query           kind of the query.
+     * @param enumerationCost estimated cost of enumerating the routes, {@code UNSUPPORTED} if it cannot be used.
+     * @param dpCost          estimated cost of dynamic programming, {@code UNSUPPORTED} if it cannot be used.
+     * @return the hinted engine if it supports the query, otherwise the supported engine with the smallest predicted
+     * latency. {@code null} if neither engine supports the query.
+     */
+    CountEngine choose(Query query, long enumerationCost, long dpCost) {
+        CountEngine hint = this.hint;
+        if (hint == CountEngine.ENUMERATION && enumerationCost != LLRouteCounts.UNSUPPORTED) {
+            return hint;
+        } else if (hint == CountEngine.DYNAMIC_PROGRAMMING && dpCost != LLRouteCounts.UNSUPPORTED) {
+            return hint;
+        } else if (enumerationCost == LLRouteCounts.UNSUPPORTED && dpCost == LLRouteCounts.UNSUPPORTED) {
+            return null;
+        }
+
+        double enumeration = predictedNanos(query, CountEngine.ENUMERATION, enumerationCost);
+        double dp = predictedNanos(query, CountEngine.DYNAMIC_PROGRAMMING, dpCost);
+        return dp <= enumeration ? CountEngine.DYNAMIC_PROGRAMMING : CountEngine.ENUMERATION;
+    }
+
+    /**
+     * Predicted latency of a query.
+     *
+     * @param query  kind of the query.
+     * @param engine engine that answers it.
+     * @param cost   estimated cost of the query for engine.
+     * @return predicted latency in nanoseconds. {@code Double.POSITIVE_INFINITY} if cost is {@code UNSUPPORTED}.
+     */
+    synchronized double predictedNanos(Query query, CountEngine engine, long cost) {
+        if (cost == LLRouteCounts.UNSUPPORTED) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return nanosPerUnit[query.ordinal()][engine.ordinal()] * cost;
+    }
+
+    /**
+     * Record the latency of a query, to refine the predictions of later queries.
+     *
+     * @param query  kind of the query.
+     * @param engine engine that answered it.
+     * @param cost   estimated cost of the query for engine.
+     * @param nanos  measured latency in nanoseconds.
+     */
+    synchronized void record(Query query, CountEngine engine, long cost, long nanos) {
+        if (cost < MIN_RECORDED_COST || cost == LLRouteCounts.UNSUPPORTED || nanos <= 0) {
+            return;
+        }
+        double[] rates = nanosPerUnit[query.ordinal()];
+        rates[engine.ordinal()] = (1 - ALPHA) * rates[engine.ordinal()] + ALPHA * nanos / cost;
+    }
+}
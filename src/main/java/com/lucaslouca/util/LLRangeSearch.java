@@ -0,0 +1,146 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Range queries on an {@code LLCompactGraph}: the nodes within a distance budget of a node, found with a Dijkstra that
+ * stops at the budget.
+ * <p>
+ * The search only touches the nodes it reaches, so small budgets stay cheap on large graphs. Its arrays are sized to
+ * the graph and kept per thread, and a stamp marks the entries of the current search, so nothing is allocated or
+ * cleared per query apart from the result. Instances are thread-safe and live as long as their snapshot, see
+ * {@link LLCompactGraph#rangeSearch()}.
+ */
+class LLRangeSearch {
+    /**
+     * Nodes within the budget and their distances, in two arrays ordered by increasing distance.
+     */
+    static class Range {
+        private final int[] nodes;
+        private final long[] distances;
+
+        Range(int[] nodes, long[] distances) {
+            this.nodes = nodes;
+            this.distances = distances;
+        }
+
+        int[] nodes() {
+            return nodes;
+        }
+
+        long[] distances() {
+            return distances;
+        }
+    }
+
+    /**
+     * Search arrays of one thread.
+     */
+    private class Scratch {
+        private final long[] distances = new long[graph.size()];
+        private final int[] visited = new int[graph.size()];
+        private final LLLongMinHeap queue = new LLLongMinHeap(graph.size());
+        private int[] nodes = new int[16];
+        private long[] nodeDistances = new long[16];
+        private int stamp;
+    }
+
+    private final LLCompactGraph<?> graph;
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Creates a new {@code LLRangeSearch}.
+     *
+     * @param graph graph to search.
+     */
+    LLRangeSearch(LLCompactGraph<?> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Nodes whose shortest path from source is at most budget long. As for the other queries, source itself is only
+     * included if a non-empty cycle leads back to it within the budget.
+     *
+     * @param source  id of the start node.
+     * @param budget  maximum distance, inclusive.
+     * @param reverse {@code true} to follow the incoming edges, giving the nodes from which source can be reached
+     *                within the budget.
+     * @return the nodes within the budget, ordered by increasing distance.
+     */
+    Range within(int source, long budget, boolean reverse) {
+        Scratch scratch = scratches.get();
+        if (++scratch.stamp == 0) {
+            Arrays.fill(scratch.visited, 0);
+            scratch.stamp = 1;
+        }
+        int stamp = scratch.stamp;
+        long[] distances = scratch.distances;
+        int[] visited = scratch.visited;
+        LLLongMinHeap queue = scratch.queue;
+        queue.clear();
+
+        long cycle = LLShortestPaths.LONG_INFINITY;
+        int count = 0;
+
+        distances[source] = 0;
+        visited[source] = stamp;
+        queue.offer(source, 0);
+        LLCancellationToken token = LLCancellationToken.current();
+
+        while (!queue.isEmpty() && queue.peekKey() <= budget) {
+            token.check();
+            int node = queue.poll();
+            long distance = distances[node];
+            if (node != source) {
+                count = add(scratch, count, node, distance);
+            }
+
+            int first = reverse ? graph.firstInEdge(node) : graph.firstEdge(node);
+            int end = reverse ? graph.endInEdge(node) : graph.endEdge(node);
+            for (int slot = first; slot < end; slot++) {
+                int edge = reverse ? graph.inEdge(slot) : slot;
+                int next = reverse ? graph.source(slot) : graph.target(edge);
+                long alternate = distance + graph.weight(edge);
+
+                if (next == source) {
+                    cycle = Math.min(cycle, alternate);
+                } else if (alternate <= budget && (visited[next] != stamp || alternate < distances[next])) {
+                    distances[next] = alternate;
+                    visited[next] = stamp;
+                    queue.offer(next, alternate);
+                }
+            }
+        }
+        queue.clear();
+
+        int[] nodes = new int[cycle <= budget ? count + 1 : count];
+        long[] nodeDistances = new long[nodes.length];
+        if (cycle <= budget) {
+            // Place source after the nodes that are at most as far as its cycle
+            int position = 0;
+            while (position < count && scratch.nodeDistances[position] <= cycle) {
+                position++;
+            }
+            System.arraycopy(scratch.nodes, 0, nodes, 0, position);
+            System.arraycopy(scratch.nodeDistances, 0, nodeDistances, 0, position);
+            nodes[position] = source;
+            nodeDistances[position] = cycle;
+            System.arraycopy(scratch.nodes, position, nodes, position + 1, count - position);
+            System.arraycopy(scratch.nodeDistances, position, nodeDistances, position + 1, count - position);
+        } else {
+            System.arraycopy(scratch.nodes, 0, nodes, 0, count);
+            System.arraycopy(scratch.nodeDistances, 0, nodeDistances, 0, count);
+        }
+        return new Range(nodes, nodeDistances);
+    }
+
+    private int add(Scratch scratch, int count, int node, long distance) {
+        if (count == scratch.nodes.length) {
+            scratch.nodes = Arrays.copyOf(scratch.nodes, 2 * count);
+            scratch.nodeDistances = Arrays.copyOf(scratch.nodeDistances, 2 * count);
+        }
+        scratch.nodes[count] = node;
+        scratch.nodeDistances[count] = distance;
+        return count + 1;
+    }
+}
@@ -0,0 +1,275 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of an {@code LLCompactGraph} and a reachability index over their condensation.
+ * <p>
+ * Components are computed with an iterative version of Tarjan's algorithm, so deep graphs cannot overflow the call
+ * stack. Tarjan completes a component only after all components reachable from it, so component ids are a reverse
+ * topological order of the condensation DAG: an edge between two different components always leads to a smaller id.
+ * <p>
+ * For up to {@code MAX_BITSET_COMPONENTS} components, the set of components reachable from each component is stored
+ * as a bitset and {@link #reachable(int, int)} is answered in O(1). For larger graphs the bitsets would not fit in
+ * memory; queries are then answered by a search over the condensation DAG that never visits components with a
+ * smaller id than the target.
+ */
+class LLReachabilityIndex {
+    private static final int MAX_BITSET_COMPONENTS = 1 << 13;
+
+    private final int[] components;
+    private final int componentCount;
+    private final boolean[] cyclic;
+
+    // Condensation DAG in CSR layout
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+
+    // reachable[c] holds the components reachable from c via a non-empty path. Null if there are too many components.
+    private final long[][] reachable;
+
+    /**
+     * Creates a new {@code LLReachabilityIndex} for the given graph.
+     *
+     * @param graph graph to index.
+     */
+    LLReachabilityIndex(LLCompactGraph<?> graph) {
+        int size = graph.size();
+        this.components = new int[size];
+        this.componentCount = tarjan(graph, components);
+
+        // A component is cyclic if it has more than one node or a self loop
+        this.cyclic = new boolean[componentCount];
+        int[] componentSizes = new int[componentCount];
+        for (int node = 0; node < size; node++) {
+            componentSizes[components[node]]++;
+        }
+
+        // Condensation edges, without duplicates
+        int[] offsets = new int[componentCount + 1];
+        int[][] members = membersOf(componentSizes);
+        int[] marks = new int[componentCount];
+        Arrays.fill(marks, -1);
+        int[] targets = new int[graph.edgeCount()];
+        int edges = 0;
+
+        for (int component = 0; component < componentCount; component++) {
+            cyclic[component] = componentSizes[component] > 1;
+            offsets[component] = edges;
+
+            for (int node : members[component]) {
+                for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                    int target = components[graph.target(edge)];
+                    if (target == component) {
+                        cyclic[component] = true;
+                    } else if (marks[target] != component) {
+                        marks[target] = component;
+                        targets[edges++] = target;
+                    }
+                }
+            }
+        }
+        offsets[componentCount] = edges;
+        this.dagOffsets = offsets;
+        this.dagTargets = Arrays.copyOf(targets, edges);
+
+        this.reachable = componentCount <= MAX_BITSET_COMPONENTS ? closure() : null;
+    }
+
+    /**
+     * Strongly connected component of a node.
+     *
+     * @param node node id.
+     * @return id of the component containing node.
+     */
+    int component(int node) {
+        return components[node];
+    }
+
+    /**
+     * Number of strongly connected components.
+     *
+     * @return number of components.
+     */
+    int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Whether a component contains a cycle, that is, more than one node or a self loop.
+     *
+     * @param component id of the component.
+     * @return {@code true} if walks can return to the component.
+     */
+    boolean isCyclic(int component) {
+        return cyclic[component];
+    }
+
+    /**
+     * Whether there is a path with at least one edge from one node to another. For {@code from == to} this is the
+     * case if the node lies on a cycle.
+     *
+     * @param from id of the start node.
+     * @param to   id of the destination node.
+     * @return {@code true} if to can be reached from from.
+     */
+    boolean reachable(int from, int to) {
+        int source = components[from];
+        int target = components[to];
+
+        if (source == target) {
+            return cyclic[source];
+        } else if (source < target) {
+            // Edges always lead to smaller component ids
+            return false;
+        } else if (reachable != null) {
+            return (reachable[source][target >>> 6] & (1L << target)) != 0;
+        } else {
+            return search(source, target);
+        }
+    }
+
+    /**
+     * Whether to is from itself or can be reached from it.
+     *
+     * @param from id of the start node.
+     * @param to   id of the destination node.
+     * @return {@code true} if {@code from == to} or to can be reached from from.
+     */
+    boolean reachableOrSame(int from, int to) {
+        return from == to || reachable(from, to);
+    }
+
+    /**
+     * Transitive closure of the condensation DAG as bitsets, computed in increasing component id order so that all
+     * successors of a component are complete before it.
+     */
+    private long[][] closure() {
+        int words = (componentCount + 63) >>> 6;
+        long[][] closure = new long[componentCount][words];
+
+        for (int component = 0; component < componentCount; component++) {
+            long[] bits = closure[component];
+            if (cyclic[component]) {
+                bits[component >>> 6] |= 1L << component;
+            }
+            for (int edge = dagOffsets[component]; edge < dagOffsets[component + 1]; edge++) {
+                int successor = dagTargets[edge];
+                long[] successorBits = closure[successor];
+                for (int word = 0; word <= (successor >>> 6); word++) {
+                    bits[word] |= successorBits[word];
+                }
+                bits[successor >>> 6] |= 1L << successor;
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Depth first search on the condensation DAG from source for target, with {@code source != target}.
+     */
+    private boolean search(int source, int target) {
+        boolean[] visited = new boolean[componentCount];
+        int[] stack = new int[componentCount];
+        int top = 0;
+        stack[top++] = source;
+        visited[source] = true;
+
+        while (top > 0) {
+            int component = stack[--top];
+            for (int edge = dagOffsets[component]; edge < dagOffsets[component + 1]; edge++) {
+                int successor = dagTargets[edge];
+                if (successor == target) {
+                    return true;
+                } else if (successor > target && !visited[successor]) {
+                    visited[successor] = true;
+                    stack[top++] = successor;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int[][] membersOf(int[] componentSizes) {
+        int[][] members = new int[componentCount][];
+        int[] filled = new int[componentCount];
+        for (int component = 0; component < componentCount; component++) {
+            members[component] = new int[componentSizes[component]];
+        }
+        for (int node = 0; node < components.length; node++) {
+            int component = components[node];
+            members[component][filled[component]++] = node;
+        }
+        return members;
+    }
+
+    /**
+     * Iterative Tarjan. Stores the component id of each node in components.
+     *
+     * @return number of components.
+     */
+    private static int tarjan(LLCompactGraph<?> graph, int[] components) {
+        int size = graph.size();
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int[] callStack = new int[size];
+        int[] cursors = new int[size];
+        Arrays.fill(index, -1);
+
+        int nextIndex = 0;
+        int componentCount = 0;
+        int top = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+
+            int depth = 0;
+            callStack[0] = root;
+            cursors[root] = graph.firstEdge(root);
+            index[root] = lowLink[root] = nextIndex++;
+            stack[top++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int node = callStack[depth];
+
+                if (cursors[node] < graph.endEdge(node)) {
+                    int target = graph.target(cursors[node]++);
+
+                    if (index[target] < 0) {
+                        // "Recurse" into target
+                        index[target] = lowLink[target] = nextIndex++;
+                        stack[top++] = target;
+                        onStack[target] = true;
+                        cursors[target] = graph.firstEdge(target);
+                        callStack[++depth] = target;
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                } else {
+                    if (lowLink[node] == index[node]) {
+                        int member;
+                        do {
+                            member = stack[--top];
+                            onStack[member] = false;
+                            components[member] = componentCount;
+                        } while (member != node);
+                        componentCount++;
+                    }
+
+                    // "Return" to the caller
+                    depth--;
+                    if (depth >= 0) {
+                        int caller = callStack[depth];
+                        lowLink[caller] = Math.min(lowLink[caller], lowLink[node]);
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+}
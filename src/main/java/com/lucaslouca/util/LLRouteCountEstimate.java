@@ -0,0 +1,90 @@
+package com.lucaslouca.util;
+
+import java.util.Locale;
+
+/**
+ * Estimated number of routes with its 95% confidence interval, as computed by
+ * {@link LLDirectedGraph#estimateRoutesWithMaxHops(Object, Object, int, double)} and
+ * {@link LLDirectedGraph#estimateRoutesWithMaxDistance(Object, Object, long, double)}.
+ * <p>
+ * Counts are {@code double}s, so numbers of routes far beyond the {@code long} range can be estimated. Counts beyond
+ * the {@code double} range are reported as infinite.
+ */
+public class LLRouteCountEstimate {
+    /**
+     * Confidence level of the interval.
+     */
+    public static final double CONFIDENCE = 0.95;
+
+    private final double count;
+    private final double halfWidth;
+    private final long samples;
+
+    /**
+     * Creates a new {@code LLRouteCountEstimate}.
+     *
+     * @param count     estimated number of routes.
+     * @param halfWidth half the width of the confidence interval.
+     * @param samples   number of sampled walks.
+     */
+    LLRouteCountEstimate(double count, double halfWidth, long samples) {
+        this.count = count;
+        this.halfWidth = halfWidth;
+        this.samples = samples;
+    }
+
+    /**
+     * Estimated number of routes.
+     *
+     * @return the estimate.
+     */
+    public double count() {
+        return count;
+    }
+
+    /**
+     * Lower end of the confidence interval.
+     *
+     * @return the lower bound, at least {@code 0}.
+     */
+    public double lowerBound() {
+        return Math.max(0, count - halfWidth);
+    }
+
+    /**
+     * Upper end of the confidence interval.
+     *
+     * @return the upper bound.
+     */
+    public double upperBound() {
+        return count + halfWidth;
+    }
+
+    /**
+     * Half the width of the confidence interval relative to the estimate.
+     *
+     * @return the relative error. {@code 0} if the estimate is {@code 0}.
+     */
+    public double relativeError() {
+        return count == 0 ? 0 : halfWidth / count;
+    }
+
+    /**
+     * Number of walks sampled for the estimate.
+     *
+     * @return number of samples. {@code 0} if the count is known to be {@code 0} without sampling.
+     */
+    public long samples() {
+        return samples;
+    }
+
+    /**
+     * The estimate, its relative error and its confidence interval, for example
+     * {@code "1.545e+09 (+/-0.42%, 1.538e+09 to 1.551e+09)"}.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.4g (+/-%.2f%%, %.4g to %.4g)", count, relativeError() * 100, lowerBound(),
+                upperBound());
+    }
+}
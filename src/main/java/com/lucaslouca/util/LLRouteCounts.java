@@ -0,0 +1,171 @@
+package com.lucaslouca.util;
+
+/**
+ * Route counts on an {@code LLCompactGraph} by dynamic programming, for budgets where enumerating the routes with an
+ * {@code LLRouteWalker} would take too long.
+ * <p>
+ * The number of routes that end at a node with a given number of hops, or a given distance, is the sum of the numbers
+ * for its predecessors one hop, or one edge weight, earlier. Routes that share a prefix are therefore counted
+ * together, and the cost grows with the budget instead of with the number of routes: {@code O(hops * (n + m))} for a
+ * hop budget and {@code O(distance * (n + m))} for a distance budget. Counts that do not fit into a {@code long} are
+ * reported as {@code SATURATED}.
+ * <p>
+ * The routes counted are those of the corresponding walkers: walks from start that end at dest with at least one hop,
+ * including walks that pass through dest or start on the way.
+ */
+class LLRouteCounts {
+    /**
+     * Count reported when the number of routes exceeds the {@code long} range.
+     */
+    static final long SATURATED = Long.MAX_VALUE;
+
+    /**
+     * Cost reported for a count that cannot be done by dynamic programming.
+     */
+    static final long UNSUPPORTED = Long.MAX_VALUE;
+
+    // Maximum number of counters held by a count by distance
+    private static final long MAX_DISTANCE_CELLS = 1L << 22;
+
+    /**
+     * Disable instantiation.
+     */
+    private LLRouteCounts() {
+    }
+
+    /**
+     * Estimated number of operations of {@link #byHops(LLCompactGraph, int, int, int, int)}.
+     *
+     * @param graph   graph to count on.
+     * @param maxHops maximum number of hops.
+     * @return cost of the count.
+     */
+    static long hopsCost(LLCompactGraph<?> graph, int maxHops) {
+        return saturatedMultiply(Math.max(0, maxHops), (long) graph.size() + graph.edgeCount());
+    }
+
+    /**
+     * Estimated number of operations of {@link #byDistance(LLCompactGraph, int, int, long, int[])}.
+     *
+     * @param graph       graph to count on.
+     * @param maxDistance maximum distance.
+     * @return cost of the count. {@code UNSUPPORTED} if the graph has edges of weight 0 or the counters would not fit
+     * into memory.
+     */
+    static long distanceCost(LLCompactGraph<?> graph, long maxDistance) {
+        if (graph.edgeCount() > 0 && graph.minWeight() <= 0) {
+            return UNSUPPORTED;
+        } else if (saturatedMultiply(rows(graph, maxDistance), graph.size()) > MAX_DISTANCE_CELLS) {
+            return UNSUPPORTED;
+        }
+        return saturatedMultiply(Math.max(1, maxDistance), (long) graph.size() + graph.edgeCount());
+    }
+
+    /**
+     * Number of routes from start to dest with at least minHops and at most maxHops hops.
+     *
+     * @param graph   graph to count on.
+     * @param start   id of the start node.
+     * @param dest    id of the destination node.
+     * @param minHops minimum number of hops, at least 1.
+     * @param maxHops maximum number of hops.
+     * @return number of routes, {@code SATURATED} if it exceeds the {@code long} range.
+     */
+    static long byHops(LLCompactGraph<?> graph, int start, int dest, int minHops, int maxHops) {
+        LLCancellationToken token = LLCancellationToken.current();
+        LLReachabilityIndex index = graph.reachability();
+        long[] current = new long[graph.size()];
+        long[] next = new long[graph.size()];
+        current[start] = 1;
+        long total = 0;
+
+        boolean routesLeft = true;
+        for (int hops = 1; hops <= maxHops && routesLeft; hops++) {
+            token.check();
+            routesLeft = false;
+            for (int node = 0; node < graph.size(); node++) {
+                long routes = current[node];
+                if (routes != 0) {
+                    current[node] = 0;
+                    routesLeft = true;
+                    for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                        int target = graph.target(edge);
+                        if (index.reachableOrSame(target, dest)) {
+                            next[target] = saturatedAdd(next[target], routes);
+                        }
+                    }
+                }
+            }
+            if (hops >= minHops) {
+                total = saturatedAdd(total, next[dest]);
+            }
+
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+        return total;
+    }
+
+    /**
+     * Number of routes from start to dest with a distance of at most maxDistance. Requires
+     * {@link #distanceCost(LLCompactGraph, long)} not to be {@code UNSUPPORTED}.
+     * <p>
+     * The counters of the distances that an edge can still reach are kept in a ring of {@code maxWeight + 1} rows.
+     *
+     * @param graph           graph to count on.
+     * @param start           id of the start node.
+     * @param dest            id of the destination node.
+     * @param maxDistance     maximum distance, inclusive.
+     * @param distancesToDest shortest distances from every node to dest, to leave out routes that cannot get back to
+     *                        dest within the budget.
+     * @return number of routes, {@code SATURATED} if it exceeds the {@code long} range.
+     */
+    static long byDistance(LLCompactGraph<?> graph, int start, int dest, long maxDistance, int[] distancesToDest) {
+        LLCancellationToken token = LLCancellationToken.current();
+        int rows = rows(graph, maxDistance);
+        long[][] ring = new long[rows][graph.size()];
+        ring[0][start] = 1;
+        long total = 0;
+
+        for (long distance = 0; distance <= maxDistance; distance++) {
+            token.check();
+            long[] row = ring[(int) (distance % rows)];
+            for (int node = 0; node < graph.size(); node++) {
+                long routes = row[node];
+                if (routes != 0) {
+                    row[node] = 0;
+                    if (node == dest && distance > 0) {
+                        total = saturatedAdd(total, routes);
+                    }
+                    for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                        int target = graph.target(edge);
+                        long alternate = distance + graph.weight(edge);
+                        if (distancesToDest[target] != LLShortestPaths.INFINITY
+                                && distancesToDest[target] <= maxDistance - alternate) {
+                            long[] targetRow = ring[(int) (alternate % rows)];
+                            targetRow[target] = saturatedAdd(targetRow[target], routes);
+                        }
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Number of rows of the ring of a count by distance.
+     */
+    private static int rows(LLCompactGraph<?> graph, long maxDistance) {
+        return (int) Math.min(graph.maxWeight(), Math.max(0, maxDistance)) + 1;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? SATURATED : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+}
@@ -0,0 +1,340 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates the number of routes between two nodes of an {@code LLCompactGraph} by sequential importance sampling of
+ * the walk tree, for budgets with far more routes than can be counted.
+ * <p>
+ * The nodes of the walk tree are the walks from start, and the children of a walk extend it by one edge. A sample
+ * descends from the root to a leaf, choosing one child at a time, and weighs every walk it passes by the inverse of
+ * the probability of having chosen it. The sum of the weights of the walks that end at dest is an unbiased estimate of
+ * the number of routes, for any choice probabilities that are positive for every child (with uniform probabilities
+ * this is Knuth's estimator of the size of a backtrack tree). The variance depends on how well the probabilities
+ * follow the number of routes behind each child, so:
+ * <ul>
+ * <li>children that can no longer get back to dest within the budget are never chosen, and</li>
+ * <li>the other children are chosen in proportion to the {@link Proposal} score of their edge, with a share of the
+ * probability spread evenly, so that a poor score cannot starve a child.</li>
+ * </ul>
+ * Samples are drawn in rounds, in parallel on the common {@code ForkJoinPool}, until the confidence interval of their
+ * mean is within the requested relative error, or the number of edge expansions exceeds the given budget.
+ */
+class LLRouteEstimator {
+    /**
+     * Approximate number of routes behind each edge, up to a common factor, for walks bounded by hops and by distance.
+     * <p>
+     * The number of walks of length {@code r} from node {@code n} grows like {@code v[n] * g^r}, where {@code g} is
+     * the growth rate per hop or unit of distance and {@code v} the Perron vector of the adjacency matrix with edges
+     * of weight {@code w} discounted by {@code g^-w}. The score of an edge to {@code t} is {@code g^-w * v[t]}. Both
+     * depend on the graph alone, so they are computed once per snapshot.
+     */
+    static final class Proposal {
+        private final double[] hopScores;
+        private final double[] distanceScores;
+
+        /**
+         * Compute the scores of graph.
+         *
+         * @param graph graph to score.
+         */
+        Proposal(LLCompactGraph<?> graph) {
+            int[] hops = new int[graph.edgeCount()];
+            Arrays.fill(hops, 1);
+            int[] weights = new int[graph.edgeCount()];
+            for (int edge = 0; edge < weights.length; edge++) {
+                weights[edge] = graph.weight(edge);
+            }
+
+            this.hopScores = scores(graph, hops);
+            this.distanceScores = scores(graph, weights);
+        }
+
+        /**
+         * Scores of the edges of graph for the given lengths of the edges.
+         */
+        private static double[] scores(LLCompactGraph<?> graph, int[] lengths) {
+            double[] potential = new double[graph.size()];
+            Arrays.fill(potential, 1.0);
+            double[] discounts = new double[lengths.length];
+
+            // The spectral radius grows with the discount x = 1/g, find the x where it is 1
+            double discount = 1.0;
+            Arrays.fill(discounts, 1.0);
+            if (spectralRadius(graph, discounts, potential) > 1.0) {
+                double low = 0.0;
+                double high = 1.0;
+                for (int step = 0; step < BISECTION_STEPS; step++) {
+                    double middle = (low + high) / 2;
+                    for (int edge = 0; edge < lengths.length; edge++) {
+                        discounts[edge] = Math.pow(middle, lengths[edge]);
+                    }
+                    if (spectralRadius(graph, discounts, potential) > 1.0) {
+                        high = middle;
+                    } else {
+                        low = middle;
+                    }
+                }
+                discount = high;
+                for (int edge = 0; edge < lengths.length; edge++) {
+                    discounts[edge] = Math.pow(discount, lengths[edge]);
+                }
+                spectralRadius(graph, discounts, potential);
+            }
+
+            double[] scores = new double[lengths.length];
+            for (int edge = 0; edge < scores.length; edge++) {
+                scores[edge] = discounts[edge] * potential[graph.target(edge)];
+            }
+            return scores;
+        }
+
+        /**
+         * Spectral radius of the adjacency matrix with edges scaled by discounts, by a damped power iteration that
+         * starts from and leaves the approximate Perron vector in potential. The damping, iterating {@code M + I}
+         * instead of {@code M}, makes the iteration converge on periodic graphs such as a single cycle.
+         */
+        private static double spectralRadius(LLCompactGraph<?> graph, double[] discounts, double[] potential) {
+            double[] next = new double[potential.length];
+            double radius = 0;
+
+            for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+                double max = 0;
+                double sum = 0;
+                double image = 0;
+                for (int node = 0; node < potential.length; node++) {
+                    double value = 0;
+                    for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                        value += discounts[edge] * potential[graph.target(edge)];
+                    }
+                    next[node] = value + potential[node];
+                    max = Math.max(max, next[node]);
+                    sum += potential[node];
+                    image += value;
+                }
+                radius = sum == 0 ? 0 : image / sum;
+                if (max == 0) {
+                    break;
+                }
+                for (int node = 0; node < potential.length; node++) {
+                    potential[node] = next[node] / max;
+                }
+            }
+            return radius;
+        }
+    }
+
+    /**
+     * Mean and sum of squared deviations of a set of samples, merged with the parallel variant of Welford's algorithm.
+     * Samples are divided by a common scale first, so that the squares of astronomically large counts do not
+     * overflow.
+     */
+    private static final class Batch {
+        private long samples;
+        private double mean;
+        private double deviations;
+        private long steps;
+
+        void add(double sample) {
+            samples++;
+            double delta = sample - mean;
+            mean += delta / samples;
+            deviations += delta * (sample - mean);
+        }
+
+        Batch merge(Batch other) {
+            if (other.samples > 0) {
+                long total = samples + other.samples;
+                double delta = other.mean - mean;
+                mean += delta * other.samples / total;
+                deviations += other.deviations + delta * delta * ((double) samples * other.samples / total);
+                samples = total;
+            }
+            steps += other.steps;
+            return this;
+        }
+
+        /**
+         * Half the width of the confidence interval of the mean.
+         */
+        double halfWidth() {
+            return samples > 1 ? Z * Math.sqrt(deviations / (samples - 1) / samples) : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Quantile of the standard normal distribution for a two-sided 95% confidence interval
+    private static final double Z = 1.959963984540054;
+
+    // Minimum number of samples, so that the variance is not judged from a handful of walks
+    private static final int MIN_SAMPLES = 1 << 10;
+
+    // Number of samples a task draws per round
+    private static final int SAMPLES_PER_TASK = 1 << 8;
+
+    // Share of the probability that is spread evenly over the children of a walk
+    private static final double UNIFORM_SHARE = 0.1;
+
+    // Power iterations per estimate of a spectral radius
+    private static final int POWER_ITERATIONS = 32;
+
+    // Bisection steps for the growth rate per unit of distance
+    private static final int BISECTION_STEPS = 24;
+
+    private final LLCompactGraph<?> graph;
+    private final int start;
+    private final int dest;
+    private final long budget;
+    private final boolean byDistance;
+    private final int[] toDest;
+    private final double[] scores;
+    private final LLCancellationToken token;
+
+    /**
+     * Create a new estimator for the routes from start to dest with at least one hop and at most budget hops, or a
+     * distance of at most budget.
+     *
+     * @param graph      graph to estimate on. Must not have edges of weight 0 when estimating by distance.
+     * @param start      id of the start node.
+     * @param dest       id of the destination node.
+     * @param budget     maximum number of hops or maximum distance, inclusive.
+     * @param byDistance {@code true} if budget is a distance, {@code false} if it is a number of hops.
+     */
+    LLRouteEstimator(LLCompactGraph<?> graph, int start, int dest, long budget, boolean byDistance) {
+        this.graph = graph;
+        this.start = start;
+        this.dest = dest;
+        this.budget = budget;
+        this.byDistance = byDistance;
+        this.toDest = byDistance ? LLShortestPaths.distancesTo(graph, dest) : LLShortestPaths.hopsTo(graph, dest);
+        this.scores = byDistance ? graph.routeProposal().distanceScores : graph.routeProposal().hopScores;
+        this.token = LLCancellationToken.current();
+    }
+
+    /**
+     * Estimate the number of routes.
+     *
+     * @param relativeError target half width of the 95% confidence interval, relative to the estimate.
+     * @param maxSteps      maximum number of edge expansions. Once they are spent, the estimate is returned with the
+     *                      error it has reached.
+     * @return the estimate.
+     */
+    LLRouteCountEstimate estimate(double relativeError, long maxSteps) {
+        if (!graph.reachability().reachable(start, dest) || toDest[start] > budget) {
+            return new LLRouteCountEstimate(0, 0, 0);
+        }
+
+        int tasks = ForkJoinPool.commonPool().getParallelism();
+        SplittableRandom random = new SplittableRandom();
+        Batch total = new Batch();
+
+        // Scale the samples by a first one, their spread is far smaller than their magnitude
+        int maxDegree = graph.statistics().maxDegree();
+        double pilot = walk(random, total, new int[maxDegree], new double[maxDegree]);
+        double scale = pilot > 0 && !Double.isInfinite(pilot) ? pilot : 1.0;
+
+        while (true) {
+            SplittableRandom[] randoms = new SplittableRandom[tasks];
+            for (int task = 0; task < tasks; task++) {
+                randoms[task] = random.split();
+            }
+            total.merge(IntStream.range(0, tasks)
+                    .parallel()
+                    .mapToObj(task -> sample(randoms[task], scale))
+                    .reduce(Batch::merge)
+                    .get());
+
+            double halfWidth = total.halfWidth();
+            if ((total.samples >= MIN_SAMPLES && halfWidth <= relativeError * total.mean) || total.steps >= maxSteps) {
+                return new LLRouteCountEstimate(total.mean * scale, halfWidth * scale, total.samples);
+            }
+        }
+    }
+
+    /**
+     * Draw {@code SAMPLES_PER_TASK} samples, divided by scale.
+     */
+    private Batch sample(SplittableRandom random, double scale) {
+        int maxDegree = graph.statistics().maxDegree();
+        int[] children = new int[maxDegree];
+        double[] cumulative = new double[maxDegree];
+        Batch batch = new Batch();
+        for (int i = 0; i < SAMPLES_PER_TASK; i++) {
+            batch.add(walk(random, batch, children, cumulative) / scale);
+        }
+        return batch;
+    }
+
+    /**
+     * Sample a walk from start to a leaf of the walk tree.
+     *
+     * @param random     source of the choices.
+     * @param batch      batch whose expansions the walk is counted in.
+     * @param children   scratch array for the edges to the children of a walk, of the maximum out-degree.
+     * @param cumulative scratch array for the cumulative scores of the children, of the maximum out-degree.
+     * @return the sum of the weights of the routes on the walk.
+     */
+    private double walk(SplittableRandom random, Batch batch, int[] children, double[] cumulative) {
+        token.check();
+        int node = start;
+        long length = 0;
+        double weight = 1;
+        double routes = 0;
+
+        while (true) {
+            // Children that can still get back to dest within the budget
+            int count = 0;
+            double sum = 0;
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int target = graph.target(edge);
+                long remaining = budget - length - (byDistance ? graph.weight(edge) : 1);
+                if (toDest[target] != LLShortestPaths.INFINITY && toDest[target] <= remaining) {
+                    children[count] = edge;
+                    sum += scores[edge];
+                    cumulative[count++] = sum;
+                }
+            }
+            batch.steps += graph.endEdge(node) - graph.firstEdge(node);
+            if (count == 0) {
+                return routes;
+            }
+
+            int choice;
+            if (sum > 0 && random.nextDouble() >= UNIFORM_SHARE) {
+                choice = choose(cumulative, count, random.nextDouble() * sum);
+            } else {
+                choice = random.nextInt(count);
+            }
+            int edge = children[choice];
+            double probability = sum > 0
+                    ? (1 - UNIFORM_SHARE) * scores[edge] / sum + UNIFORM_SHARE / count
+                    : 1.0 / count;
+
+            weight /= probability;
+            length += byDistance ? graph.weight(edge) : 1;
+            node = graph.target(edge);
+            if (node == dest) {
+                routes += weight;
+            }
+        }
+    }
+
+    /**
+     * Index of the first cumulative score above value.
+     */
+    private static int choose(double[] cumulative, int count, double value) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > value) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,286 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Iterative depth first enumeration of the routes (walks) starting at a node of an {@code LLCompactGraph}.
+ * <p>
+ * The current route is kept on an explicit {@code int[]} node stack together with the running distance of each
+ * prefix and the edge cursor of each level, so the enumeration neither recurses nor allocates per step. The stacks
+ * only grow when a route longer than any previous one is reached. Distances are summed in {@code long}s, so long
+ * routes cannot overflow.
+ * <p>
+ * A route is extended by an edge unless the {@code stop} condition holds for the extended route. Every extended route
+ * for which the {@code filter} condition holds is reported by {@link #next()}, in depth first pre-order.
+ * <p>
+ * The remaining search tree can be divided between walkers with {@link #trySplit()}, which allows the enumeration to
+ * be processed in parallel. Walkers check the {@code LLCancellationToken} of the thread that created the first of
+ * them every {@code CHECK_INTERVAL} steps.
+ */
+class LLRouteWalker {
+    /**
+     * Condition evaluated for the route that ends at {@code node}.
+     */
+    interface Condition {
+        /**
+         * Evaluate condition for a route.
+         *
+         * @param node     last node of the route.
+         * @param hops     number of hops of the route.
+         * @param distance distance of the route.
+         * @return true if condition is met. False otherwise
+         */
+        boolean evaluate(int node, int hops, long distance);
+    }
+
+    /**
+     * Upper bound on the number of further hops by which a route can still be extended.
+     */
+    interface Horizon {
+        /**
+         * Maximum number of hops that can be appended to a route.
+         *
+         * @param hops     number of hops of the route.
+         * @param distance distance of the route.
+         * @return maximum number of further hops. {@code Integer.MAX_VALUE} if unbounded.
+         */
+        int remainingHops(int hops, long distance);
+    }
+
+    private static final int INITIAL_DEPTH = 16;
+
+    // Number of edge expansions between two cancellation checks, a power of two
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private final LLCompactGraph<?> graph;
+    private final Condition stop;
+    private final Condition filter;
+    private final Horizon horizon;
+    private final LLCancellationToken token;
+
+    private int[] nodes;
+    private long[] distances;
+    private int[] cursors;
+    private int[] ends;
+    private int depth;
+    private long steps;
+
+    /**
+     * Creates a new {@code LLRouteWalker} positioned before the first route.
+     *
+     * @param graph   graph to walk.
+     * @param start   id of the start node.
+     * @param stop    {@code Condition} that evaluates to true if a route should not be extended any further.
+     * @param filter  {@code Condition} that evaluates to true if a route should be reported.
+     * @param horizon {@code Horizon} used to estimate the size of the search tree.
+     */
+    LLRouteWalker(LLCompactGraph<?> graph, int start, Condition stop, Condition filter, Horizon horizon) {
+        this(graph, stop, filter, horizon, LLCancellationToken.current(), INITIAL_DEPTH);
+
+        nodes[0] = start;
+        cursors[0] = graph.firstEdge(start);
+        ends[0] = graph.endEdge(start);
+    }
+
+    private LLRouteWalker(LLCompactGraph<?> graph, Condition stop, Condition filter, Horizon horizon,
+                          LLCancellationToken token, int capacity) {
+        this.graph = graph;
+        this.stop = stop;
+        this.filter = filter;
+        this.horizon = horizon;
+        this.token = token;
+        this.nodes = new int[capacity];
+        this.distances = new long[capacity];
+        this.cursors = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    /**
+     * Advance to the next route that meets the filter condition.
+     *
+     * @return {@code true} if such a route was found. {@code false} if the enumeration is exhausted.
+     */
+    boolean next() {
+        return advance(Long.MAX_VALUE);
+    }
+
+    /**
+     * Advance to the next route that meets the filter condition, as long as no more than {@code maxSteps} edges
+     * have been expanded since this walker was created.
+     *
+     * @param maxSteps maximum total number of edge expansions.
+     * @return {@code true} if a route was found. {@code false} if the enumeration is exhausted or the budget ran out.
+     */
+    private boolean advance(long maxSteps) {
+        while (depth >= 0) {
+            if (cursors[depth] < ends[depth]) {
+                // Only expansions count against the budget, backtracking is free
+                if (steps >= maxSteps) {
+                    return false;
+                }
+                int edge = cursors[depth]++;
+                int node = graph.target(edge);
+                long distance = distances[depth] + graph.weight(edge);
+                int hops = depth + 1;
+                if ((++steps & (CHECK_INTERVAL - 1)) == 0) {
+                    token.check();
+                }
+
+                if (!stop.evaluate(node, hops, distance)) {
+                    push(node, distance);
+                    if (filter.evaluate(node, hops, distance)) {
+                        return true;
+                    }
+                }
+            } else {
+                depth--;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of routes that meet the filter condition, starting from the current position.
+     *
+     * @return number of remaining routes.
+     */
+    int count() {
+        int total = 0;
+        while (next()) {
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Number of routes that meet the filter condition, expanding at most {@code maxSteps} edges from the current
+     * position. Use {@link #isExhausted()} to find out whether the enumeration has finished.
+     *
+     * @param maxSteps maximum number of edges to expand.
+     * @return number of routes found.
+     */
+    long count(long maxSteps) {
+        long total = 0;
+        long limit = steps + maxSteps;
+        while (advance(limit)) {
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Number of edges expanded since this walker was created.
+     *
+     * @return number of edge expansions.
+     */
+    long steps() {
+        return steps;
+    }
+
+    /**
+     * Whether all routes have been enumerated.
+     *
+     * @return {@code true} if there are no routes left.
+     */
+    boolean isExhausted() {
+        return depth < 0;
+    }
+
+    /**
+     * Estimated number of nodes left in the search tree, assuming every route branches with the
+     * {@link LLGraphStatistics#branchingFactor()} of the graph and is extended as far as the {@code Horizon} allows.
+     * On a graph without cycles, no route is longer than the number of strongly connected components.
+     *
+     * @return estimated size of the remaining search tree. {@code Long.MAX_VALUE} if too large or unknown.
+     */
+    long estimateSize() {
+        LLGraphStatistics statistics = graph.statistics();
+        double branching = Math.max(1.0, statistics.branchingFactor());
+        int maxHops = statistics.isAcyclic() ? statistics.componentCount() - 1 : Integer.MAX_VALUE;
+        double total = 0;
+
+        for (int level = 0; level <= depth; level++) {
+            int remaining = ends[level] - cursors[level];
+            if (remaining > 0) {
+                int hops = horizon == null ? Integer.MAX_VALUE : horizon.remainingHops(level, distances[level]);
+                hops = Math.min(hops, maxHops - level);
+                total += remaining * Math.pow(branching, Math.max(0, hops - 1));
+            }
+        }
+        return total >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) total;
+    }
+
+    /**
+     * Hand over part of the remaining search tree to a new walker.
+     * <p>
+     * The shallowest level of the current route that still has at least two unexplored edges is split in half. The
+     * new walker takes over the second half of those edges (including everything below them) and this walker keeps
+     * the rest. Together, both walkers report exactly the routes this walker would have reported.
+     *
+     * @return a new walker covering part of the remaining routes. {@code null} if the remaining tree cannot be split.
+     */
+    LLRouteWalker trySplit() {
+        for (int level = 0; level <= depth; level++) {
+            int remaining = ends[level] - cursors[level];
+
+            if (remaining >= 2) {
+                int middle = cursors[level] + remaining / 2;
+                LLRouteWalker other = new LLRouteWalker(graph, stop, filter, horizon, token,
+                        Math.max(INITIAL_DEPTH, level + 1));
+
+                System.arraycopy(nodes, 0, other.nodes, 0, level + 1);
+                System.arraycopy(distances, 0, other.distances, 0, level + 1);
+                System.arraycopy(ends, 0, other.cursors, 0, level);
+                System.arraycopy(ends, 0, other.ends, 0, level + 1);
+                other.cursors[level] = middle;
+                other.depth = level;
+
+                ends[level] = middle;
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of hops of the current route.
+     *
+     * @return number of hops.
+     */
+    int hops() {
+        return depth;
+    }
+
+    /**
+     * Distance of the current route.
+     *
+     * @return sum of the edge weights of the route.
+     */
+    long distance() {
+        return distances[depth];
+    }
+
+    /**
+     * Node at the given position of the current route.
+     *
+     * @param index position in {@code [0, hops()]}.
+     * @return node id.
+     */
+    int node(int index) {
+        return nodes[index];
+    }
+
+    private void push(int node, long distance) {
+        if (++depth == nodes.length) {
+            int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            cursors = Arrays.copyOf(cursors, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        nodes[depth] = node;
+        distances[depth] = distance;
+        cursors[depth] = graph.firstEdge(node);
+        ends[depth] = graph.endEdge(node);
+    }
+}
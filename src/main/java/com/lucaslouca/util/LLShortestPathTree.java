@@ -0,0 +1,295 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+
+/**
+ * Shortest path tree of a source node in an {@code LLCompactGraph}, computed incrementally with Dijkstra.
+ * <p>
+ * The tree keeps its distances, predecessors and the Dijkstra frontier between queries. A query only settles nodes
+ * until its answer is final; a later query for a node that has not been settled yet resumes the search from the saved
+ * frontier instead of starting over. Once the search is complete, the frontier is released.
+ * <p>
+ * Paths to the source itself are cycles: the tree also tracks the shortest non-empty path back to the source.
+ * <p>
+ * Distances are kept in {@code int}s if no shortest path of the graph can exceed {@code Integer.MAX_VALUE} (see
+ * {@link LLCompactGraph#wideDistances()}), and in {@code long}s otherwise. Both variants are specialised so the
+ * common 32-bit case pays nothing for the wider one. In the 32-bit case, graphs with small weights use an
+ * {@code LLDialQueue} as frontier instead of a binary heap, see {@link LLShortestPaths#bucketFrontier(LLCompactGraph)}.
+ * Instances are thread-safe. A cancelled query leaves the tree between two settled nodes, see
+ * {@code LLCancellationToken}.
+ */
+abstract class LLShortestPathTree {
+    protected final LLCompactGraph<?> graph;
+    protected final int source;
+    protected final int[] predecessors;
+    protected final boolean[] settled;
+
+    // Last node of the shortest non-empty path back to the source
+    protected int cyclePredecessor = -1;
+
+    // Read without the lock of the tree, so that the cache never waits for a search
+    private volatile long memoryBytes;
+    private volatile LLShortestPathTreeCache cache;
+
+    /**
+     * Creates a new {@code LLShortestPathTree} for source, with distances as wide as the graph requires.
+     *
+     * @param graph  graph to search.
+     * @param source id of the source node.
+     * @return a new tree where only the source is known.
+     */
+    static LLShortestPathTree create(LLCompactGraph<?> graph, int source) {
+        return create(graph, source, graph.wideDistances());
+    }
+
+    /**
+     * Creates a new {@code LLShortestPathTree} for source.
+     *
+     * @param graph  graph to search.
+     * @param source id of the source node.
+     * @param wide   {@code true} for 64-bit distances. {@code false} for 32-bit distances, which requires that
+     *               {@code graph.wideDistances()} is {@code false}.
+     * @return a new tree where only the source is known.
+     */
+    static LLShortestPathTree create(LLCompactGraph<?> graph, int source, boolean wide) {
+        return create(graph, source, wide, !wide && LLShortestPaths.bucketFrontier(graph));
+    }
+
+    /**
+     * Creates a new {@code LLShortestPathTree} for source.
+     *
+     * @param graph   graph to search.
+     * @param source  id of the source node.
+     * @param wide    {@code true} for 64-bit distances. {@code false} for 32-bit distances, which requires that
+     *                {@code graph.wideDistances()} is {@code false}.
+     * @param buckets {@code true} for a bucket queue frontier, which requires 32-bit distances. {@code false} for a
+     *                binary heap.
+     * @return a new tree where only the source is known.
+     */
+    static LLShortestPathTree create(LLCompactGraph<?> graph, int source, boolean wide, boolean buckets) {
+        return wide ? new Wide(graph, source) : new Narrow(graph, source, buckets);
+    }
+
+    private LLShortestPathTree(LLCompactGraph<?> graph, int source) {
+        this.graph = graph;
+        this.source = source;
+        this.predecessors = new int[graph.size()];
+        this.settled = new boolean[graph.size()];
+        Arrays.fill(predecessors, -1);
+    }
+
+    /**
+     * Source of this tree.
+     *
+     * @return id of the source node.
+     */
+    int source() {
+        return source;
+    }
+
+    /**
+     * Length of the shortest non-empty path from the source to target, settling as many nodes as needed.
+     *
+     * @param target id of the destination node.
+     * @return the distance to target. {@code LLShortestPaths.LONG_INFINITY} if target is unreachable.
+     */
+    abstract long distanceTo(int target);
+
+    /**
+     * Approximate number of bytes held by this tree. Does not wait for a search of the tree in progress.
+     *
+     * @return memory footprint in bytes.
+     */
+    long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Set the cache that accounts for the memory of this tree. It is told when the memory shrinks.
+     *
+     * @param cache cache holding this tree.
+     */
+    void setCache(LLShortestPathTreeCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Set the initial memory footprint, from the constructor.
+     */
+    protected void allocated(long bytes) {
+        memoryBytes = bytes;
+    }
+
+    /**
+     * Account for memory released by a search, under the lock of this tree. The lock of the cache is taken after it,
+     * the cache never takes the lock of a tree.
+     */
+    protected void released(long bytes) {
+        memoryBytes -= bytes;
+        LLShortestPathTreeCache cache = this.cache;
+        if (cache != null) {
+            cache.released(this, bytes);
+        }
+    }
+
+    /**
+     * Shortest non-empty path from the source to target.
+     *
+     * @param target id of the destination node.
+     * @return node ids of the path, starting with the source. {@code null} if target is unreachable.
+     */
+    synchronized int[] pathTo(int target) {
+        if (distanceTo(target) == LLShortestPaths.LONG_INFINITY) {
+            return null;
+        }
+
+        int last = target == source ? cyclePredecessor : target;
+        int length = target == source ? 2 : 1;
+        for (int node = last; node != source; node = predecessors[node]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        path[length - 1] = target;
+        int position = target == source ? length - 2 : length - 1;
+        for (int node = last; node != source; node = predecessors[node]) {
+            path[position--] = node;
+        }
+        path[0] = source;
+        return path;
+    }
+
+    /**
+     * Shortest path tree with {@code int} distances.
+     */
+    private static class Narrow extends LLShortestPathTree {
+        private final int[] distances;
+        private final long frontierBytes;
+        private LLIntMinQueue frontier;
+        private int cycleDistance = LLShortestPaths.INFINITY;
+
+        Narrow(LLCompactGraph<?> graph, int source, boolean buckets) {
+            super(graph, source);
+            this.distances = new int[graph.size()];
+            this.frontier = LLShortestPaths.frontier(graph, buckets);
+            this.frontierBytes = buckets ? 4L * (graph.maxWeight() + 1) + 12L * graph.size() : 12L * graph.size();
+
+            Arrays.fill(distances, LLShortestPaths.INFINITY);
+            distances[source] = 0;
+            frontier.offer(source, 0);
+            allocated(64 + graph.size() * (4 + 4 + 1L) + frontierBytes);
+        }
+
+        @Override
+        synchronized long distanceTo(int target) {
+            settle(target);
+            int distance = target == source ? cycleDistance : distances[target];
+            return distance == LLShortestPaths.INFINITY ? LLShortestPaths.LONG_INFINITY : distance;
+        }
+
+        /**
+         * Continue Dijkstra until the distance to target is final. For the source itself, that is once the next node
+         * to settle is at least as far away as the shortest cycle found so far.
+         */
+        private void settle(int target) {
+            LLCancellationToken token = LLCancellationToken.current();
+            while (frontier != null && !frontier.isEmpty()) {
+                if (target == source ? frontier.peekKey() >= cycleDistance : settled[target]) {
+                    return;
+                }
+                token.check();
+
+                int node = frontier.poll();
+                int distance = distances[node];
+                settled[node] = true;
+
+                for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                    int next = graph.target(edge);
+                    int alternate = distance + graph.weight(edge);
+
+                    if (next == source) {
+                        if (alternate < cycleDistance) {
+                            cycleDistance = alternate;
+                            cyclePredecessor = node;
+                        }
+                    } else if (alternate < distances[next]) {
+                        distances[next] = alternate;
+                        predecessors[next] = node;
+                        frontier.offer(next, alternate);
+                    }
+                }
+            }
+
+            // Search complete
+            if (frontier != null) {
+                frontier = null;
+                released(frontierBytes);
+            }
+        }
+    }
+
+    /**
+     * Shortest path tree with {@code long} distances.
+     */
+    private static class Wide extends LLShortestPathTree {
+        private final long[] distances;
+        private LLLongMinHeap frontier;
+        private long cycleDistance = LLShortestPaths.LONG_INFINITY;
+
+        Wide(LLCompactGraph<?> graph, int source) {
+            super(graph, source);
+            this.distances = new long[graph.size()];
+            this.frontier = new LLLongMinHeap(graph.size());
+
+            Arrays.fill(distances, LLShortestPaths.LONG_INFINITY);
+            distances[source] = 0;
+            frontier.offer(source, 0);
+            allocated(64 + graph.size() * (8 + 4 + 1 + 16L));
+        }
+
+        @Override
+        synchronized long distanceTo(int target) {
+            settle(target);
+            return target == source ? cycleDistance : distances[target];
+        }
+
+        /**
+         * Same as {@code Narrow.settle(int)}, on {@code long} distances.
+         */
+        private void settle(int target) {
+            LLCancellationToken token = LLCancellationToken.current();
+            while (frontier != null && !frontier.isEmpty()) {
+                if (target == source ? frontier.peekKey() >= cycleDistance : settled[target]) {
+                    return;
+                }
+                token.check();
+
+                int node = frontier.poll();
+                long distance = distances[node];
+                settled[node] = true;
+
+                for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                    int next = graph.target(edge);
+                    long alternate = distance + graph.weight(edge);
+
+                    if (next == source) {
+                        if (alternate < cycleDistance) {
+                            cycleDistance = alternate;
+                            cyclePredecessor = node;
+                        }
+                    } else if (alternate < distances[next]) {
+                        distances[next] = alternate;
+                        predecessors[next] = node;
+                        frontier.offer(next, alternate);
+                    }
+                }
+            }
+
+            // Search complete
+            if (frontier != null) {
+                frontier = null;
+                released(16L * graph.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.lucaslouca.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@code LLShortestPathTree}s, one per source node.
+ * <p>
+ * The cache accounts for the memory held by its trees and evicts the least recently used trees when the total exceeds
+ * its budget. The tree that was just used is never evicted, even if it alone exceeds the budget. Trees belong to one
+ * {@code LLCompactGraph}: the cache has to be cleared whenever the graph changes.
+ * <p>
+ * The total is kept up to date as trees are added, evicted, and release their search frontier, so a lookup neither
+ * visits the other trees nor waits for a search that holds the lock of one of them.
+ */
+class LLShortestPathTreeCache {
+    /**
+     * Default memory budget in bytes.
+     */
+    static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+    private final LinkedHashMap<Integer, LLShortestPathTree> trees;
+    private long budget;
+    private long total;
+
+    /**
+     * Creates a new empty {@code LLShortestPathTreeCache}.
+     *
+     * @param budget memory budget in bytes.
+     */
+    LLShortestPathTreeCache(long budget) {
+        this.trees = new LinkedHashMap<Integer, LLShortestPathTree>(16, 0.75f, true);
+        this.budget = budget;
+    }
+
+    /**
+     * Tree for the given source. The tree is created if it is not cached.
+     *
+     * @param graph  graph the tree belongs to.
+     * @param source id of the source node.
+     * @return the {@code LLShortestPathTree} of source.
+     */
+    synchronized LLShortestPathTree tree(LLCompactGraph<?> graph, int source) {
+        LLShortestPathTree tree = trees.get(source);
+        if (tree == null) {
+            tree = LLShortestPathTree.create(graph, source);
+            tree.setCache(this);
+            trees.put(source, tree);
+            total += tree.memoryBytes();
+        }
+        evict(tree);
+        return tree;
+    }
+
+    /**
+     * Set the memory budget, evicting trees if needed.
+     *
+     * @param budget memory budget in bytes.
+     */
+    synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evict(null);
+    }
+
+    /**
+     * Number of cached trees.
+     *
+     * @return number of cached trees.
+     */
+    synchronized int size() {
+        return trees.size();
+    }
+
+    /**
+     * Remove all trees.
+     */
+    synchronized void clear() {
+        trees.clear();
+        total = 0;
+    }
+
+    /**
+     * Account for memory released by a tree. Ignored if the tree has been evicted since.
+     *
+     * @param tree  tree that released memory.
+     * @param bytes number of bytes released.
+     */
+    synchronized void released(LLShortestPathTree tree, long bytes) {
+        if (trees.get(tree.source()) == tree) {
+            total -= bytes;
+        }
+    }
+
+    /**
+     * Evict least recently used trees, except keep, until the cache fits into its budget.
+     */
+    private void evict(LLShortestPathTree keep) {
+        Iterator<Map.Entry<Integer, LLShortestPathTree>> iterator = trees.entrySet().iterator();
+        while (total > budget && iterator.hasNext()) {
+            LLShortestPathTree tree = iterator.next().getValue();
+            if (tree != keep) {
+                total -= tree.memoryBytes();
+                iterator.remove();
+            }
+        }
+    }
+}
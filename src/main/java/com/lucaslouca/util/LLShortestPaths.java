@@ -0,0 +1,135 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shortest path computations on an {@code LLCompactGraph}.
+ */
+class LLShortestPaths {
+    /**
+     * Distance of unreachable nodes.
+     */
+    static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * Distance of unreachable nodes, for 64-bit distances.
+     */
+    static final long LONG_INFINITY = Long.MAX_VALUE;
+
+    /**
+     * Largest edge weight for which 32-bit searches use an {@code LLDialQueue} instead of a binary heap.
+     */
+    static final int DIAL_MAX_WEIGHT = 1 << 14;
+
+    /**
+     * Disable instantiation.
+     */
+    private LLShortestPaths() {
+    }
+
+    /**
+     * Whether a 32-bit Dijkstra on graph should use an {@code LLDialQueue}. With small integer weights, the O(1)
+     * operations of the bucket queue beat the O(log n) of the heap, see {@code LLDijkstraQueueBenchmark}. On graphs
+     * with fewer nodes than the largest weight, allocating and scanning the mostly empty buckets costs more than the
+     * heap saves.
+     *
+     * @param graph graph to search.
+     * @return {@code true} if the largest weight is at most {@code DIAL_MAX_WEIGHT} and the number of nodes.
+     */
+    static boolean bucketFrontier(LLCompactGraph<?> graph) {
+        return graph.maxWeight() <= Math.min(DIAL_MAX_WEIGHT, graph.size());
+    }
+
+    /**
+     * Frontier for a 32-bit Dijkstra on graph.
+     *
+     * @param graph   graph to search.
+     * @param buckets {@code true} for an {@code LLDialQueue}, which requires weights of at most
+     *                {@code DIAL_MAX_WEIGHT}. {@code false} for an {@code LLIntMinHeap}.
+     * @return a new, empty queue.
+     */
+    static LLIntMinQueue frontier(LLCompactGraph<?> graph, boolean buckets) {
+        return buckets ? new LLDialQueue(graph.size(), graph.maxWeight()) : new LLIntMinHeap(graph.size());
+    }
+
+    /**
+     * Run a Dijkstra on the reversed graph starting from target. Large graphs are searched with a parallel
+     * delta-stepping on the common {@code ForkJoinPool} instead.
+     *
+     * @param graph  graph to search.
+     * @param target id of the target node.
+     * @return array holding for each node the length of the shortest path from that node to target. {@code 0} for
+     * target itself and {@code INFINITY} for nodes that cannot reach target. Distances that do not fit into an
+     * {@code int} are capped at {@code INFINITY - 1}, so every entry is still a lower bound of the distance to target.
+     */
+    static int[] distancesTo(LLCompactGraph<?> graph, int target) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (graph.edgeCount() >= LLDeltaStepping.PARALLEL_EDGES && pool.getParallelism() > 1) {
+            long[] wide = new LLDeltaStepping(graph, LLDeltaStepping.defaultDelta(graph), true).distances(target, pool);
+            int[] distances = new int[wide.length];
+            for (int node = 0; node < wide.length; node++) {
+                distances[node] = wide[node] == LONG_INFINITY ? INFINITY : (int) Math.min(INFINITY - 1, wide[node]);
+            }
+            return distances;
+        }
+
+        int[] distances = new int[graph.size()];
+        Arrays.fill(distances, INFINITY);
+        LLIntMinQueue queue = frontier(graph, bucketFrontier(graph));
+        LLCancellationToken token = LLCancellationToken.current();
+
+        distances[target] = 0;
+        queue.offer(target, 0);
+
+        while (!queue.isEmpty()) {
+            token.check();
+            int node = queue.poll();
+            int distance = distances[node];
+
+            for (int slot = graph.firstInEdge(node); slot < graph.endInEdge(node); slot++) {
+                int source = graph.source(slot);
+                int alternate = (int) Math.min(INFINITY - 1, (long) distance + graph.weight(graph.inEdge(slot)));
+
+                if (alternate < distances[source]) {
+                    distances[source] = alternate;
+                    queue.offer(source, alternate);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Run a breadth first search on the reversed graph starting from target.
+     *
+     * @param graph  graph to search.
+     * @param target id of the target node.
+     * @return array holding for each node the smallest number of hops from that node to target. {@code 0} for target
+     * itself and {@code INFINITY} for nodes that cannot reach target.
+     */
+    static int[] hopsTo(LLCompactGraph<?> graph, int target) {
+        int[] hops = new int[graph.size()];
+        Arrays.fill(hops, INFINITY);
+        int[] queue = new int[graph.size()];
+        int head = 0;
+        int tail = 0;
+        LLCancellationToken token = LLCancellationToken.current();
+
+        hops[target] = 0;
+        queue[tail++] = target;
+
+        while (head < tail) {
+            token.check();
+            int node = queue[head++];
+            for (int slot = graph.firstInEdge(node); slot < graph.endInEdge(node); slot++) {
+                int source = graph.source(slot);
+                if (hops[source] == INFINITY) {
+                    hops[source] = hops[node] + 1;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return hops;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lucaslouca.util;
+
+import java.io.FileNotFoundException;
+
+/**
+ * The {@code LLTimetable} interface represents the train connections running between towns at given times.
+ * <p>
+ * While {@code LLTownMap} describes the rail network with a fixed distance per route, a timetable describes when trains
+ * actually run. Times are non-negative integers in a unit chosen by the timetable, for example minutes since the start
+ * of the service day.
+ */
+public interface LLTimetable {
+    /**
+     * Parse input representing a connection between two towns.
+     *
+     * @param input input to parse.
+     * @throws IllegalArgumentException if input is not in the desired format.
+     */
+    void parseInput(String input);
+
+    /**
+     * Initialise timetable from a text file at path.
+     *
+     * @param path absolute path to the input file.
+     * @throws FileNotFoundException if file not found at given path.
+     */
+    void init(String path) throws FileNotFoundException;
+
+    /**
+     * Earliest time at which dest can be reached when leaving start at or after departure.
+     *
+     * @param start     name of start town.
+     * @param dest      name of town which we want to reach.
+     * @param departure earliest departure time at start.
+     * @return the earliest arrival time at dest.
+     * @throws LLTownMapImpl.NoSuchRouteException if dest cannot be reached from start after departure.
+     */
+    int earliestArrival(String start, String dest, int departure) throws LLTownMapImpl.NoSuchRouteException;
+}
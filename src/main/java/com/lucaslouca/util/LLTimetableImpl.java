@@ -0,0 +1,180 @@
+package com.lucaslouca.util;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * The {@code LLTimetableImpl} class implements the {@code LLTimetable} interface.
+ * <p>
+ * Connections are collected in columnar arrays. Earliest arrival queries run on an {@code LLConnectionScan} snapshot
+ * of the connections sorted by departure time, which is built on the first query after the timetable changed.
+ */
+public class LLTimetableImpl implements LLTimetable {
+    private static final String SEPARATOR = ";";
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> stops;
+    private int[] departureStops;
+    private int[] arrivalStops;
+    private int[] departures;
+    private int[] arrivals;
+    private int connectionCount;
+
+    // Sorted snapshot of the connections. Reset whenever a connection is added.
+    private LLConnectionScan connectionScan;
+
+    /**
+     * Creates a new empty {@code LLTimetableImpl}.
+     */
+    public LLTimetableImpl() {
+        stops = new HashMap<String, Integer>();
+        departureStops = new int[INITIAL_CAPACITY];
+        arrivalStops = new int[INITIAL_CAPACITY];
+        departures = new int[INITIAL_CAPACITY];
+        arrivals = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Id of the given town, registering it if needed.
+     */
+    private int stop(String town) {
+        Integer id = stops.get(town);
+        if (id == null) {
+            id = stops.size();
+            stops.put(town, id);
+        }
+        return id;
+    }
+
+    /**
+     * Add a connection from start to dest.
+     */
+    private void addConnection(int start, int dest, int departure, int arrival) {
+        if (connectionCount == departures.length) {
+            int capacity = connectionCount * 2;
+            departureStops = Arrays.copyOf(departureStops, capacity);
+            arrivalStops = Arrays.copyOf(arrivalStops, capacity);
+            departures = Arrays.copyOf(departures, capacity);
+            arrivals = Arrays.copyOf(arrivals, capacity);
+        }
+        departureStops[connectionCount] = start;
+        arrivalStops[connectionCount] = dest;
+        departures[connectionCount] = departure;
+        arrivals[connectionCount] = arrival;
+        connectionCount++;
+        connectionScan = null;
+    }
+
+    /**
+     * Sorted snapshot of this timetable.
+     */
+    private synchronized LLConnectionScan scan() {
+        if (connectionScan == null) {
+            connectionScan = new LLConnectionScan(stops.size(), departureStops, arrivalStops, departures, arrivals, connectionCount);
+        }
+        return connectionScan;
+    }
+
+    /***************************************************************************************************/
+    /*                                      PUBLIC METHODS                                             *
+    /***************************************************************************************************/
+
+    /**
+     * Parse input of the format {@code  XY;D;A} representing a train from town {@code  X} to town {@code  Y}, with:
+     * <p>
+     * {@code  X} is a single character.
+     * <p>
+     * {@code  Y} is a single character.
+     * <p>
+     * {@code  D} is an integer {@code  >= 0}, representing the departure time at X.
+     * <p>
+     * {@code  A} is an integer {@code  >= D}, representing the arrival time at Y.
+     *
+     * @param input line input to parse.
+     * @throws IllegalArgumentException if input is not in the above described format.
+     */
+    @Override
+    public synchronized void parseInput(String input) {
+        String[] parts = input.split(SEPARATOR);
+
+        if (parts.length != 3 || parts[0].length() != 2) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.timetable.illegal_argument.parse_input_format", input));
+        }
+
+        int departure;
+        int arrival;
+        try {
+            departure = Integer.parseInt(parts[1]);
+            arrival = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.timetable.illegal_argument.parse_input_format", input));
+        }
+
+        if (departure < 0 || arrival < departure) {
+            throw new IllegalArgumentException(LLPropertyFactory.propertyWithArgs("exception.timetable.illegal_argument.parse_input_format", input));
+        }
+
+        int start = stop(String.valueOf(parts[0].charAt(0)));
+        int dest = stop(String.valueOf(parts[0].charAt(1)));
+        addConnection(start, dest, departure, arrival);
+    }
+
+    /**
+     * Initialise timetable from a text file at path. Each line in the file is of format {@code  XY;D;A}
+     * representing a train from town {@code  X} to town {@code  Y} that departs at {@code  D} and arrives at
+     * {@code  A}.
+     * <p>
+     * Sample File content:
+     * <p>
+     * AB;480;485<br>
+     * BC;490;494<br>
+     * AD;500;505<br>
+     *
+     * @param path absolute path to the input file.
+     * @throws FileNotFoundException if file not found at given path.
+     */
+    @Override
+    public void init(String path) throws FileNotFoundException {
+        Scanner in = new Scanner(new FileInputStream(path));
+
+        while (in.hasNext()) {
+            String input = in.next();
+            parseInput(input);
+        }
+    }
+
+    /**
+     * Earliest time at which dest can be reached when leaving start at or after departure.
+     *
+     * @param start     name of start town.
+     * @param dest      name of town which we want to reach.
+     * @param departure earliest departure time at start.
+     * @return the earliest arrival time at dest.
+     * @throws LLTownMapImpl.NoSuchRouteException if dest cannot be reached from start after departure.
+     */
+    @Override
+    public int earliestArrival(String start, String dest, int departure) throws LLTownMapImpl.NoSuchRouteException {
+        LLConnectionScan scan;
+        Integer startId;
+        Integer destId;
+        synchronized (this) {
+            scan = scan();
+            startId = stops.get(start);
+            destId = stops.get(dest);
+        }
+
+        if (startId == null || destId == null) {
+            throw new LLTownMapImpl.NoSuchRouteException(LLPropertyFactory.getProperties().get("exception.timetable.no_connection"));
+        }
+
+        int arrival = scan.earliestArrival(startId, destId, departure);
+        if (arrival == LLConnectionScan.NEVER) {
+            throw new LLTownMapImpl.NoSuchRouteException(LLPropertyFactory.getProperties().get("exception.timetable.no_connection"));
+        }
+        return arrival;
+    }
+}
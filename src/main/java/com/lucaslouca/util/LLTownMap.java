@@ -1,6 +1,7 @@
 package com.lucaslouca.util;
 
 import java.io.FileNotFoundException;
+import java.util.List;
 
 /**
  * The {@code  LLTownMap} interface represents a map that stores towns using a {@code  LLDirectedGraph} underneath.
@@ -42,7 +43,43 @@ public interface LLTownMap {
      * @return length of the shortest path between start and dest.
      * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
      */
-    int lengthOfShortestPathBetween(String start, String dest) throws LLTownMapImpl.NoSuchRouteException;
+    long lengthOfShortestPathBetween(String start, String dest) throws LLTownMapImpl.NoSuchRouteException;
+
+    /**
+     * {@code String} representing the shortest path between start and dest with at most maxHops stops.
+     *
+     * @param start   name of start town.
+     * @param dest    name of town which we want to reach.
+     * @param maxHops maximum number of stops.
+     * @return {@code String} representing the shortest path with at most maxHops stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no such route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code maxHops} is less than 1.
+     */
+    String shortestPathWithMaxHopsBetween(String start, String dest, int maxHops) throws LLTownMapImpl.NoSuchRouteException;
+
+    /**
+     * {@code String}s representing the k shortest routes between start and dest that do not visit a town twice.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @param k     maximum number of routes.
+     * @return {@code List} of up to k routes, ordered by distance.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     * @throws IllegalArgumentException           if {@code k} is less than 1.
+     */
+    List<String> kShortestPathsBetween(String start, String dest, int k) throws LLTownMapImpl.NoSuchRouteException;
+
+    /**
+     * {@code String}s representing the Pareto front of the routes between start and dest with respect to distance
+     * and number of stops. Each route is followed by its distance and number of stops, for example
+     * {@code "A->B->C (9, 2)"}.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return {@code List} of the non-dominated routes, ordered by increasing distance and decreasing number of stops.
+     * @throws LLTownMapImpl.NoSuchRouteException if no route exists between the two towns.
+     */
+    List<String> paretoRoutesBetween(String start, String dest) throws LLTownMapImpl.NoSuchRouteException;
 
     /**
      * Distance of route.
@@ -51,7 +88,51 @@ public interface LLTownMap {
      * @return length of the route.
      * @throws LLTownMapImpl.NoSuchRouteException if no such route exists.
      */
-    int distance(String... townNames) throws LLTownMapImpl.NoSuchRouteException;
+    long distance(String... townNames) throws LLTownMapImpl.NoSuchRouteException;
+
+    /**
+     * Id of a town, for use with {@link #distances(int[], int[], long[])}.
+     *
+     * @param townName name of the town.
+     * @return the id of the town. {@code -1} if there is no such town.
+     */
+    int townId(String townName);
+
+    /**
+     * Distances of a batch of routes, given in columnar form: the town ids of all routes are concatenated in towns,
+     * and route {@code r} occupies {@code towns[offsets[r]]} up to (excluding) {@code towns[offsets[r + 1]]}.
+     *
+     * @param towns     town ids of all routes, see {@link #townId(String)}.
+     * @param offsets   start of each route in towns, followed by the end of the last route.
+     * @param distances receives the length of route {@code r} at index {@code r}, or
+     *                  {@code LLDirectedGraph.NO_SUCH_ROUTE} if the route does not exist.
+     * @throws IllegalArgumentException if distances is shorter than the number of routes.
+     */
+    void distances(int[] towns, int[] offsets, long[] distances);
+
+    /**
+     * Lengths of the shortest routes from every town in starts to every town in dests.
+     *
+     * @param starts names of the start towns, one per row.
+     * @param dests  names of the destination towns, one per column.
+     * @return the table in row major order: the length from {@code starts[i]} to {@code dests[j]} is at index
+     * {@code i * dests.length + j}, or {@code LLDirectedGraph.NO_SUCH_ROUTE} if there is no such route.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    long[] distanceTable(String[] starts, String[] dests) throws LLTownMapImpl.NoSuchRouteException;
+
+    /**
+     * {@code String}s listing the towns within maxDistance of each start town, or, in reverse, the towns from which
+     * the start town can be reached within maxDistance. Each town is followed by its distance, for example
+     * {@code "B (5), D (5), C (9)"}, ordered by increasing distance.
+     *
+     * @param starts      names of the start towns.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the towns that reach each start town.
+     * @return one {@code String} per start town, in the order of starts. Empty if no town is within maxDistance.
+     * @throws LLTownMapImpl.NoSuchRouteException if a town does not exist.
+     */
+    List<String> reachableWithin(String[] starts, long maxDistance, boolean reverse) throws LLTownMapImpl.NoSuchRouteException;
 
     /**
      * Count number of possible routes starting from start and ending at dest with a maximum number of {@code maxHops} .
@@ -60,6 +141,8 @@ public interface LLTownMap {
      * @param dest    name of destination town of route.
      * @param maxHops maximum number of stops in route.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
      */
     int countRoutesWithMaxHops(String start, String dest, int maxHops);
 
@@ -70,6 +153,8 @@ public interface LLTownMap {
      * @param dest  name of destination town of route.
      * @param hops  number of stops in route.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
      */
     int countRoutesWithHops(String start, String dest, int hops);
 
@@ -80,6 +165,34 @@ public interface LLTownMap {
      * @param dest        name of destination town of route.
      * @param maxDistance maximum allowed distance.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
+     */
+    int countRoutesWithMaxDistance(String start, String dest, long maxDistance);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}, for counts too large for {@link #countRoutesWithMaxHops(String, String, int)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return the estimate with its confidence interval.
+     */
+    LLRouteCountEstimate estimateRoutesWithMaxHops(String start, String dest, int maxHops, double relativeError);
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}, for counts too large for {@link #countRoutesWithMaxDistance(String, String, long)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxDistance   maximum allowed distance.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return the estimate with its confidence interval.
+     * @throws LLDirectedGraph.QueryRejectedException if the map has routes of length 0.
      */
-    int countRoutesWithMaxDistance(String start, String dest, int maxDistance);
+    LLRouteCountEstimate estimateRoutesWithMaxDistance(String start, String dest, long maxDistance,
+                                                       double relativeError);
 }
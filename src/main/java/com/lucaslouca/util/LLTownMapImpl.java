@@ -156,7 +156,7 @@ public class LLTownMapImpl implements LLTownMap {
      * @throws NoSuchRouteException if no route exists between the two towns.
      */
     @Override
-    public int lengthOfShortestPathBetween(String start, String dest) throws NoSuchRouteException {
+    public long lengthOfShortestPathBetween(String start, String dest) throws NoSuchRouteException {
         try {
             LLDirectedGraph.GraphPath path = graph.shortestPathBetween(towns.get(start), towns.get(dest));
 
@@ -166,6 +166,78 @@ public class LLTownMapImpl implements LLTownMap {
         }
     }
 
+    /**
+     * {@code String} representing the shortest path between start and dest with at most maxHops stops.
+     *
+     * @param start   name of start town.
+     * @param dest    name of town which we want to reach.
+     * @param maxHops maximum number of stops.
+     * @return {@code String} representing the shortest path with at most maxHops stops.
+     * @throws NoSuchRouteException     if no such route exists between the two towns.
+     * @throws IllegalArgumentException if {@code maxHops} is less than 1.
+     */
+    @Override
+    public String shortestPathWithMaxHopsBetween(String start, String dest, int maxHops) throws NoSuchRouteException {
+        try {
+            LLDirectedGraph<LLTown>.GraphPath path = graph.shortestPathWithMaxHopsBetween(towns.get(start),
+                    towns.get(dest), maxHops);
+
+            return path.toString();
+        } catch (LLDirectedGraph.NodeNotReachableException | NoSuchElementException e) {
+            throw new NoSuchRouteException(e.getMessage());
+        }
+    }
+
+    /**
+     * {@code String}s representing the k shortest routes between start and dest that do not visit a town twice.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @param k     maximum number of routes.
+     * @return {@code List} of up to k routes, ordered by distance.
+     * @throws NoSuchRouteException     if no route exists between the two towns.
+     * @throws IllegalArgumentException if {@code k} is less than 1.
+     */
+    @Override
+    public List<String> kShortestPathsBetween(String start, String dest, int k) throws NoSuchRouteException {
+        try {
+            List<String> paths = new ArrayList<String>();
+            List<LLDirectedGraph<LLTown>.GraphPath> shortest = graph.kShortestPathsBetween(towns.get(start),
+                    towns.get(dest), k);
+            for (LLDirectedGraph<LLTown>.GraphPath path : shortest) {
+                paths.add(path.toString());
+            }
+            return paths;
+        } catch (LLDirectedGraph.NodeNotReachableException | NoSuchElementException e) {
+            throw new NoSuchRouteException(e.getMessage());
+        }
+    }
+
+    /**
+     * {@code String}s representing the Pareto front of the routes between start and dest with respect to distance
+     * and number of stops. Each route is followed by its distance and number of stops, for example
+     * {@code "A->B->C (9, 2)"}.
+     *
+     * @param start name of start town.
+     * @param dest  name of town which we want to reach.
+     * @return {@code List} of the non-dominated routes, ordered by increasing distance and decreasing number of stops.
+     * @throws NoSuchRouteException if no route exists between the two towns.
+     */
+    @Override
+    public List<String> paretoRoutesBetween(String start, String dest) throws NoSuchRouteException {
+        try {
+            List<String> routes = new ArrayList<String>();
+            List<LLDirectedGraph<LLTown>.GraphPath> front = graph.paretoRoutesBetween(towns.get(start),
+                    towns.get(dest));
+            for (LLDirectedGraph<LLTown>.GraphPath path : front) {
+                routes.add(path + " (" + path.distance() + ", " + path.hopCount() + ")");
+            }
+            return routes;
+        } catch (LLDirectedGraph.NodeNotReachableException | NoSuchElementException e) {
+            throw new NoSuchRouteException(e.getMessage());
+        }
+    }
+
     /**
      * Distance of route.
      *
@@ -174,7 +246,7 @@ public class LLTownMapImpl implements LLTownMap {
      * @throws NoSuchRouteException if no such route exists.
      */
     @Override
-    public int distance(String... townNames) throws NoSuchRouteException {
+    public long distance(String... townNames) throws NoSuchRouteException {
         List<LLTown> townList = new ArrayList<LLTown>();
         for (String townName : townNames) {
             townList.add(towns.get(townName));
@@ -187,6 +259,92 @@ public class LLTownMapImpl implements LLTownMap {
         }
     }
 
+    /**
+     * Id of a town, for use with {@link #distances(int[], int[], long[])}.
+     *
+     * @param townName name of the town.
+     * @return the id of the town. {@code -1} if there is no such town.
+     */
+    @Override
+    public int townId(String townName) {
+        LLTown town = towns.get(townName);
+        return town == null ? -1 : graph.nodeId(town);
+    }
+
+    /**
+     * Distances of a batch of routes, given in columnar form: the town ids of all routes are concatenated in towns,
+     * and route {@code r} occupies {@code towns[offsets[r]]} up to (excluding) {@code towns[offsets[r + 1]]}.
+     *
+     * @param towns     town ids of all routes, see {@link #townId(String)}.
+     * @param offsets   start of each route in towns, followed by the end of the last route.
+     * @param distances receives the length of route {@code r} at index {@code r}, or
+     *                  {@code LLDirectedGraph.NO_SUCH_ROUTE} if the route does not exist.
+     * @throws IllegalArgumentException if distances is shorter than the number of routes.
+     */
+    @Override
+    public void distances(int[] towns, int[] offsets, long[] distances) {
+        graph.distances(towns, offsets, distances);
+    }
+
+    /**
+     * Lengths of the shortest routes from every town in starts to every town in dests.
+     *
+     * @param starts names of the start towns, one per row.
+     * @param dests  names of the destination towns, one per column.
+     * @return the table in row major order: the length from {@code starts[i]} to {@code dests[j]} is at index
+     * {@code i * dests.length + j}, or {@code LLDirectedGraph.NO_SUCH_ROUTE} if there is no such route.
+     * @throws NoSuchRouteException if a town does not exist.
+     */
+    @Override
+    public long[] distanceTable(String[] starts, String[] dests) throws NoSuchRouteException {
+        List<LLTown> startTowns = new ArrayList<LLTown>(starts.length);
+        for (String start : starts) {
+            startTowns.add(towns.get(start));
+        }
+        List<LLTown> destTowns = new ArrayList<LLTown>(dests.length);
+        for (String dest : dests) {
+            destTowns.add(towns.get(dest));
+        }
+
+        try {
+            return graph.distanceTable(startTowns, destTowns);
+        } catch (NoSuchElementException e) {
+            throw new NoSuchRouteException(e.getMessage());
+        }
+    }
+
+    /**
+     * {@code String}s listing the towns within maxDistance of each start town, or, in reverse, the towns from which
+     * the start town can be reached within maxDistance. Each town is followed by its distance, for example
+     * {@code "B (5), D (5), C (9)"}, ordered by increasing distance.
+     *
+     * @param starts      names of the start towns.
+     * @param maxDistance maximum distance, inclusive.
+     * @param reverse     {@code true} for the towns that reach each start town.
+     * @return one {@code String} per start town, in the order of starts. Empty if no town is within maxDistance.
+     * @throws NoSuchRouteException if a town does not exist.
+     */
+    @Override
+    public List<String> reachableWithin(String[] starts, long maxDistance, boolean reverse)
+            throws NoSuchRouteException {
+        List<LLTown> startTowns = new ArrayList<LLTown>(starts.length);
+        for (String start : starts) {
+            startTowns.add(towns.get(start));
+        }
+
+        try {
+            List<String> result = new ArrayList<String>(starts.length);
+            List<LLDirectedGraph<LLTown>.ReachableNodes> ranges = graph.reachableWithin(startTowns, maxDistance,
+                    reverse);
+            for (LLDirectedGraph<LLTown>.ReachableNodes reachable : ranges) {
+                result.add(reachable.toString());
+            }
+            return result;
+        } catch (NoSuchElementException e) {
+            throw new NoSuchRouteException(e.getMessage());
+        }
+    }
+
     /**
      * Count number of possible routes starting from start and ending at dest with a maximum number of {@code maxHops} .
      *
@@ -194,6 +352,8 @@ public class LLTownMapImpl implements LLTownMap {
      * @param dest    name of destination town of route.
      * @param maxHops maximum number of stops in route.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
      */
     @Override
     public int countRoutesWithMaxHops(String start, String dest, int maxHops) {
@@ -207,6 +367,8 @@ public class LLTownMapImpl implements LLTownMap {
      * @param dest  name of destination town of route.
      * @param hops  number of stops in route.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
      */
     @Override
     public int countRoutesWithHops(String start, String dest, int hops) {
@@ -220,9 +382,44 @@ public class LLTownMapImpl implements LLTownMap {
      * @param dest        name of destination town of route.
      * @param maxDistance maximum allowed distance.
      * @return number of possible routes.
+     * @throws LLDirectedGraph.QueryRejectedException if the count costs too much or the number exceeds the
+     *                                                {@code int} range.
      */
     @Override
-    public int countRoutesWithMaxDistance(String start, String dest, int maxDistance) {
+    public int countRoutesWithMaxDistance(String start, String dest, long maxDistance) {
         return graph.countRoutesWithMaxDistance(towns.get(start), towns.get(dest), maxDistance);
     }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum number of
+     * {@code maxHops}, for counts too large for {@link #countRoutesWithMaxHops(String, String, int)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxHops       maximum number of stops in route.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return the estimate with its confidence interval.
+     */
+    @Override
+    public LLRouteCountEstimate estimateRoutesWithMaxHops(String start, String dest, int maxHops,
+                                                          double relativeError) {
+        return graph.estimateRoutesWithMaxHops(towns.get(start), towns.get(dest), maxHops, relativeError);
+    }
+
+    /**
+     * Estimated number of possible routes starting from start and ending at dest with a maximum distance of
+     * {@code maxDistance}, for counts too large for {@link #countRoutesWithMaxDistance(String, String, long)}.
+     *
+     * @param start         name of starting town of route.
+     * @param dest          name of destination town of route.
+     * @param maxDistance   maximum allowed distance.
+     * @param relativeError target half width of the 95% confidence interval relative to the estimate.
+     * @return the estimate with its confidence interval.
+     * @throws LLDirectedGraph.QueryRejectedException if the map has routes of length 0.
+     */
+    @Override
+    public LLRouteCountEstimate estimateRoutesWithMaxDistance(String start, String dest, long maxDistance,
+                                                              double relativeError) {
+        return graph.estimateRoutesWithMaxDistance(towns.get(start), towns.get(dest), maxDistance, relativeError);
+    }
 }
@@ -0,0 +1,69 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+import com.lucaslouca.service.LLRailRoadServiceImpl;
+import com.lucaslouca.util.LLTownMap;
+import com.lucaslouca.util.LLTownMapImpl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Microbenchmark comparing {@code LLRailRoadServiceCommandFactory} with {@code LLRailRoadServiceCommandParser}.
+ * Only command creation is measured, the commands are not executed.
+ * <p>
+ * Run the {@code main} method with the test classpath, the sample graph is loaded from {@code graph.txt}.
+ */
+public class LLCommandParserBenchmark {
+    private static final String[] COMMANDS = {
+            "distance;A;B;C",
+            "distance;A;E;B;C;D",
+            "count_routes_with_max_hops;C;C;3",
+            "count_routes_with_hops;A;C;4",
+            "length_of_shortest_path;A;C",
+            "shortest_path;B;B",
+            "count_routes_with_max_distance;C;C;29"
+    };
+    private static final int ITERATIONS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws FileNotFoundException {
+        LLTownMap map = new LLTownMapImpl();
+        ClassLoader classLoader = LLCommandParserBenchmark.class.getClassLoader();
+        map.init(new File(classLoader.getResource("graph.txt").getFile()).getAbsolutePath());
+        LLRailRoadService service = new LLRailRoadServiceImpl(map);
+
+        LLRailRoadServiceCommandFactory factory = new LLRailRoadServiceCommandFactory(service);
+        LLRailRoadServiceCommandParser parser = new LLRailRoadServiceCommandParser(service);
+
+        StringBuilder sb = new StringBuilder();
+        for (String command : COMMANDS) {
+            sb.append(command).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(sb.length());
+        buffer.put(sb.toString().getBytes(StandardCharsets.US_ASCII));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            int sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += factory.createCommand(COMMANDS[i % COMMANDS.length]).hashCode();
+            }
+            long factoryTime = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (i % COMMANDS.length == 0) {
+                    buffer.clear();
+                }
+                sink += parser.parse(buffer).hashCode();
+            }
+            long parserTime = System.nanoTime() - begin;
+
+            System.out.printf("round %d: factory %.1f ns/op, parser %.1f ns/op (%d)%n", round,
+                    (double) factoryTime / ITERATIONS, (double) parserTime / ITERATIONS, sink & 1);
+        }
+    }
+}
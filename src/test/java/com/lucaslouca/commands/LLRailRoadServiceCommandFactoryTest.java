@@ -74,6 +74,65 @@ public class LLRailRoadServiceCommandFactoryTest {
         assertTrue(command instanceof LLCountRoutesWithMaxDistanceCommand);
     }
 
+    @Test
+    public void testCreateKShortestPathsCommand() {
+        LLCommand command = factory.createCommand("k_shortest_paths;A;C;3");
+        assertTrue(command instanceof LLKShortestPathsCommand);
+    }
+
+    @Test
+    public void testCreateParetoRoutesCommand() {
+        LLCommand command = factory.createCommand("pareto_routes;C;C");
+        assertTrue(command instanceof LLParetoRoutesCommand);
+    }
+
+    @Test
+    public void testCreateShortestPathWithMaxHopsCommand() {
+        LLCommand command = factory.createCommand("shortest_path_with_max_hops;A;C;2");
+        assertTrue(command instanceof LLShortestPathWithMaxHopsCommand);
+    }
+
+    @Test
+    public void testCreateDistanceTableCommand() {
+        LLCommand command = factory.createCommand("distance_table;A,B;C,D,E");
+        assertTrue(command instanceof LLDistanceTableCommand);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateDistanceTableCommandException() {
+        factory.createCommand("distance_table;A,,B;C");
+    }
+
+    @Test
+    public void testCreateReachableWithinCommand() {
+        assertTrue(factory.createCommand("reachable_within;A;30") instanceof LLReachableWithinCommand);
+        assertTrue(factory.createCommand("reachable_within;A,B;30;reverse") instanceof LLReachableWithinCommand);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateReachableWithinCommandException() {
+        factory.createCommand("reachable_within;A;30;backwards");
+    }
+
+    @Test
+    public void testCreateEstimateRoutesCommands() {
+        assertTrue(factory.createCommand("estimate_routes_with_max_hops;C;C;60;0.01")
+                instanceof LLEstimateRoutesWithMaxHopsCommand);
+        assertTrue(factory.createCommand("estimate_routes_with_max_distance;C;C;5000;0.01")
+                instanceof LLEstimateRoutesWithMaxDistanceCommand);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateEstimateRoutesCommandException() {
+        factory.createCommand("estimate_routes_with_max_hops;C;C;60;-0.01");
+    }
+
+    @Test
+    public void testCreateEarliestArrivalCommand() {
+        LLCommand command = factory.createCommand("earliest_arrival;A;C;480");
+        assertTrue(command instanceof LLEarliestArrivalCommand);
+    }
+
     @Test(expected = NoSuchElementException.class)
     public void testUnknownCommand1() {
         LLCommand command = factory.createCommand("cccc;C;C;29");
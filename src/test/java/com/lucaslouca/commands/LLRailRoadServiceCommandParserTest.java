@@ -0,0 +1,220 @@
+package com.lucaslouca.commands;
+
+import com.lucaslouca.service.LLRailRoadService;
+import com.lucaslouca.service.LLRailRoadServiceImpl;
+import com.lucaslouca.util.LLTimetable;
+import com.lucaslouca.util.LLTimetableImpl;
+import com.lucaslouca.util.LLTownMap;
+import com.lucaslouca.util.LLTownMapImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@code LLRailRoadServiceCommandParser}.
+ */
+public class LLRailRoadServiceCommandParserTest {
+    private LLRailRoadServiceCommandParser parser;
+
+    @Before
+    public void initObjects() {
+        LLTownMap map = new LLTownMapImpl();
+        try {
+            ClassLoader classLoader = getClass().getClassLoader();
+
+            // Create a LLRailRoadService
+            File graphFile = new File(classLoader.getResource("graph.txt").getFile());
+            map.init(graphFile.getAbsolutePath());
+            LLTimetable timetable = new LLTimetableImpl();
+            timetable.init(new File(classLoader.getResource("timetable.txt").getFile()).getAbsolutePath());
+            LLRailRoadService service = new LLRailRoadServiceImpl(map, timetable);
+
+            parser = new LLRailRoadServiceCommandParser(service);
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ByteBuffer buffer(String input) {
+        return ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testParseShortestPathCommand() {
+        LLCommand command = parser.parse(buffer("shortest_path;B;B"));
+        assertTrue(command instanceof LLShortestPathCommand);
+        assertEquals("B->C->E->B", command.execute());
+    }
+
+    @Test
+    public void testParseShortestPathLengthCommand() {
+        LLCommand command = parser.parse(buffer("length_of_shortest_path;A;C"));
+        assertTrue(command instanceof LLShortestPathLengthCommand);
+        assertEquals(9L, command.execute());
+    }
+
+    @Test
+    public void testParseDistanceCommand() {
+        LLCommand command = parser.parse(buffer("distance;A;E;B;C;D"));
+        assertTrue(command instanceof LLDistanceCommand);
+        assertEquals(22L, command.execute());
+    }
+
+    @Test
+    public void testParseCountRoutesCommands() {
+        assertEquals(2, parser.parse(buffer("count_routes_with_max_hops;C;C;3")).execute());
+        assertEquals(3, parser.parse(buffer("count_routes_with_hops;A;C;4")).execute());
+        assertEquals(7, parser.parse(buffer("count_routes_with_max_distance;C;C;29")).execute());
+    }
+
+    @Test
+    public void testParseKShortestPathsCommand() {
+        LLCommand command = parser.parse(buffer("k_shortest_paths;B;B;2"));
+        assertTrue(command instanceof LLKShortestPathsCommand);
+        assertEquals("B->C->E->B, B->C->D->E->B", command.execute());
+    }
+
+    @Test
+    public void testParseParetoRoutesCommand() {
+        LLCommand command = parser.parse(buffer("pareto_routes;C;C"));
+        assertTrue(command instanceof LLParetoRoutesCommand);
+        assertEquals("C->E->B->C (9, 3), C->D->C (16, 2)", command.execute());
+    }
+
+    @Test
+    public void testParseShortestPathWithMaxHopsCommand() {
+        LLCommand command = parser.parse(buffer("shortest_path_with_max_hops;C;C;3"));
+        assertTrue(command instanceof LLShortestPathWithMaxHopsCommand);
+        assertEquals("C->E->B->C", command.execute());
+    }
+
+    @Test
+    public void testParseDistanceTableCommand() {
+        LLCommand command = parser.parse(buffer("distance_table;A,B,C;C,D"));
+        assertTrue(command instanceof LLDistanceTableCommand);
+        assertEquals("9,5;4,12;9,8", command.execute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseDistanceTableCommandException() {
+        parser.parse(buffer("distance_table;A,B,;C"));
+    }
+
+    @Test
+    public void testParseReachableWithinCommand() {
+        LLCommand command = parser.parse(buffer("reachable_within;C;7"));
+        assertTrue(command instanceof LLReachableWithinCommand);
+        assertEquals("E (2), B (5)", command.execute());
+
+        command = parser.parse(buffer("reachable_within;C,B;4;reverse"));
+        assertEquals("B (4); E (3)", command.execute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseReachableWithinCommandException() {
+        parser.parse(buffer("reachable_within;C;7;backwards"));
+    }
+
+    @Test
+    public void testParseEstimateRoutesCommands() {
+        LLCommand command = parser.parse(buffer("estimate_routes_with_max_distance;C;C;29;0.01"));
+        assertTrue(command instanceof LLEstimateRoutesWithMaxDistanceCommand);
+        String estimate = (String) command.execute();
+        assertEquals(7, Double.parseDouble(estimate.substring(0, estimate.indexOf(' '))), 7 * 0.05);
+
+        command = parser.parse(buffer("estimate_routes_with_max_hops;C;C;3;0.01"));
+        assertTrue(command instanceof LLEstimateRoutesWithMaxHopsCommand);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseEstimateRoutesCommandException() {
+        parser.parse(buffer("estimate_routes_with_max_hops;C;C;3;one"));
+    }
+
+    @Test
+    public void testParseEarliestArrivalCommand() {
+        LLCommand command = parser.parse(buffer("earliest_arrival;A;C;480"));
+        assertTrue(command instanceof LLEarliestArrivalCommand);
+        assertEquals(494, command.execute());
+    }
+
+    @Test
+    public void testParseMultipleLines() {
+        ByteBuffer buffer = buffer("distance;A;B;C\r\ndistance;A;D\ncount_routes_with_hops;A;C;4\n");
+
+        assertEquals(9L, parser.parse(buffer).execute());
+        assertEquals(5L, parser.parse(buffer).execute());
+        assertEquals(3, parser.parse(buffer).execute());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testCommandsArePooled() {
+        LLCommand first = parser.parse(buffer("shortest_path;A;C"));
+        LLCommand second = parser.parse(buffer("shortest_path;B;B"));
+        assertSame(first, second);
+        assertEquals("B->C->E->B", second.execute());
+    }
+
+    @Test
+    public void testSymbolTableIsBounded() {
+        for (int i = 0; i < 2 * LLRailRoadServiceCommandParser.MAX_SYMBOLS; i++) {
+            parser.parse(buffer("shortest_path;X" + i + ";Y" + i));
+        }
+        assertEquals(LLRailRoadServiceCommandParser.MAX_SYMBOLS, parser.symbolCount());
+
+        // Names that are not in the full table are still decoded
+        assertEquals("B->C->E->B", parser.parse(buffer("shortest_path;B;B")).execute());
+    }
+
+    @Test
+    public void testParseDirectBuffer() {
+        byte[] input = "length_of_shortest_path;B;B".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(input.length);
+        buffer.put(input);
+        buffer.flip();
+
+        assertEquals(9L, parser.parse(buffer).execute());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testUnknownCommand1() {
+        parser.parse(buffer("cccc;C;C;29"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat1() {
+        parser.parse(buffer("shortest_path;C;C;29"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat2() {
+        parser.parse(buffer("count_routes_with_hops;A;C;4x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat3() {
+        parser.parse(buffer("count_routes_with_hops;A;C;99999999999"));
+    }
+
+    @Test
+    public void testParseLongDistance() {
+        // Distance budgets are 64-bit
+        assertEquals(0, parser.parse(buffer("count_routes_with_max_distance;C;C;-9223372036854775808")).execute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFormat4() {
+        parser.parse(buffer("count_routes_with_max_distance;A;C;9223372036854775808"));
+    }
+}
@@ -0,0 +1,222 @@
+package com.lucaslouca.service;
+
+import com.lucaslouca.util.LLCancellationToken;
+import com.lucaslouca.util.LLPropertyFactory;
+import com.lucaslouca.util.LLTimetable;
+import com.lucaslouca.util.LLTimetableImpl;
+import com.lucaslouca.util.LLTownMap;
+import com.lucaslouca.util.LLTownMapImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.CancellationException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@code LLAsyncRailRoadService}.
+ */
+public class LLAsyncRailRoadServiceTest {
+    private LLTownMap map;
+    private LLRailRoadService service;
+    private ExecutorService executor;
+    private LLAsyncRailRoadService asyncService;
+
+    @Before
+    public void initObjects() {
+        map = new LLTownMapImpl();
+        LLTimetable timetable = new LLTimetableImpl();
+        try {
+            ClassLoader classLoader = getClass().getClassLoader();
+            File file = new File(classLoader.getResource("graph.txt").getFile());
+            map.init(file.getAbsolutePath());
+            timetable.init(new File(classLoader.getResource("timetable.txt").getFile()).getAbsolutePath());
+            service = new LLRailRoadServiceImpl(map, timetable) {
+                // Runs until it is cancelled, checking its token like the search loops do
+                @Override
+                public int countRoutesWithMaxHops(String start, String dest, int maxHops) {
+                    while (true) {
+                        LLCancellationToken.current().check();
+                        Thread.yield();
+                    }
+                }
+            };
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+
+        // A single thread, so a query that keeps running would block the queries after it
+        executor = Executors.newSingleThreadExecutor();
+        asyncService = new LLAsyncRailRoadServiceImpl(service, executor);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Map of a square grid of side x side towns, with tracks of distance 1 in both directions between neighbours.
+     * Town names are single characters, starting at U+4E00 in row-major order.
+     */
+    private static LLTownMap gridMap(int side) {
+        LLTownMap grid = new LLTownMapImpl();
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                char town = (char) ('\u4e00' + row * side + column);
+                if (column + 1 < side) {
+                    grid.parseInput("" + town + (char) (town + 1) + 1);
+                    grid.parseInput("" + (char) (town + 1) + town + 1);
+                }
+                if (row + 1 < side) {
+                    grid.parseInput("" + town + (char) (town + side) + 1);
+                    grid.parseInput("" + (char) (town + side) + town + 1);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Service that runs the real queries on map, counting down started when a count or k shortest paths query starts
+     * and completing ended with the exception it ends with, {@code null} if it returns.
+     */
+    private static LLRailRoadService recordingService(LLTownMap map, CountDownLatch started,
+                                                      CompletableFuture<Throwable> ended) {
+        return new LLRailRoadServiceImpl(map) {
+            @Override
+            public int countRoutesWithMaxHops(String start, String dest, int maxHops) {
+                started.countDown();
+                try {
+                    int count = super.countRoutesWithMaxHops(start, dest, maxHops);
+                    ended.complete(null);
+                    return count;
+                } catch (RuntimeException e) {
+                    ended.complete(e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public List<String> kShortestPathsBetween(String start, String dest, int k) {
+                started.countDown();
+                try {
+                    List<String> paths = super.kShortestPathsBetween(start, dest, k);
+                    ended.complete(null);
+                    return paths;
+                } catch (RuntimeException e) {
+                    ended.complete(e);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        assertEquals(Long.valueOf(9), asyncService.distance("A", "B", "C").get());
+        assertEquals(Long.valueOf(9), asyncService.lengthOfShortestPathBetween("A", "C").get());
+        assertEquals(service.shortestPathBetween("A", "C"), asyncService.shortestPathBetween("A", "C").get());
+        assertEquals(service.kShortestPathsBetween("A", "C", 3), asyncService.kShortestPathsBetween("A", "C", 3).get());
+        assertEquals(service.paretoRoutesBetween("A", "C"), asyncService.paretoRoutesBetween("A", "C").get());
+        assertEquals(Integer.valueOf(3), asyncService.countRoutesWithHops("A", "C", 4).get());
+        assertEquals(Integer.valueOf(7), asyncService.countRoutesWithMaxDistance("C", "C", 29).get());
+
+        String[] towns = {"A", "B", "C"};
+        assertArrayEquals(service.distanceTable(towns, towns), asyncService.distanceTable(towns, towns).get());
+        assertEquals(service.reachableWithin(towns, 10, false),
+                asyncService.reachableWithin(towns, 10, false).get());
+    }
+
+    @Test
+    public void testNoRoute() throws InterruptedException {
+        try {
+            asyncService.distance("A", "E", "D").get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof LLRailRoadServiceException);
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        CompletableFuture<Integer> endless = asyncService.countRoutesWithMaxHops("C", "C", 3);
+        assertTrue(endless.cancel(true));
+        try {
+            endless.get();
+            fail();
+        } catch (CancellationException e) {
+            // Expected
+        }
+
+        // The cancelled query gives up the only thread
+        assertEquals(Long.valueOf(9), asyncService.distance("A", "B", "C").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        LLAsyncRailRoadService limited = asyncService.withTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            limited.countRoutesWithMaxHops("C", "C", 3).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertEquals(LLPropertyFactory.getProperties().get("exception.async_rail_road_service.timeout"),
+                    e.getCause().getMessage());
+        }
+
+        // The timed out query gives up the only thread
+        assertEquals(Long.valueOf(9), asyncService.distance("A", "B", "C").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelCount() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Throwable> ended = new CompletableFuture<Throwable>();
+        LLAsyncRailRoadService async = new LLAsyncRailRoadServiceImpl(recordingService(map, started, ended), executor);
+
+        // Counted by dynamic programming, one hop after the other, for many seconds
+        CompletableFuture<Integer> count = async.countRoutesWithMaxHops("C", "C", 250000000);
+        started.await();
+        assertTrue(count.cancel(true));
+
+        // The counting loop stops at its next token check and gives up the only thread
+        assertTrue(ended.get(10, TimeUnit.SECONDS) instanceof CancellationException);
+        assertEquals(Long.valueOf(9), async.distance("A", "B", "C").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutShortestPaths() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Throwable> ended = new CompletableFuture<Throwable>();
+        LLAsyncRailRoadService async = new LLAsyncRailRoadServiceImpl(recordingService(gridMap(40), started, ended),
+                executor).withTimeout(100, TimeUnit.MILLISECONDS);
+
+        // Runs a Dijkstra search for every spur node of each of the million paths
+        String corner = String.valueOf('\u4e00');
+        try {
+            async.kShortestPathsBetween(corner, corner, 1000000).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // The searches stop at their next token check and give up the only thread
+        assertTrue(ended.get(10, TimeUnit.SECONDS) instanceof CancellationException);
+        assertEquals(Long.valueOf(2), async.distance(corner, String.valueOf('\u4e01'), corner).get(10, TimeUnit.SECONDS));
+    }
+}
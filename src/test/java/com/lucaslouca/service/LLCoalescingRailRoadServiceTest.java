@@ -0,0 +1,230 @@
+package com.lucaslouca.service;
+
+import com.lucaslouca.util.LLCancellationToken;
+import com.lucaslouca.util.LLTownMap;
+import com.lucaslouca.util.LLTownMapImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@code LLCoalescingRailRoadService}.
+ */
+public class LLCoalescingRailRoadServiceTest {
+    private static final int CALLERS = 8;
+
+    private LLTownMap map;
+    private ExecutorService executor;
+
+    // Queries of the blocking service wait for this latch
+    private CountDownLatch release;
+    private AtomicInteger queries;
+
+    // Last list of paths computed by the blocking service
+    private volatile List<String> computedPaths;
+
+    @Before
+    public void initObjects() {
+        map = new LLTownMapImpl();
+        try {
+            ClassLoader classLoader = getClass().getClassLoader();
+            File file = new File(classLoader.getResource("graph.txt").getFile());
+            map.init(file.getAbsolutePath());
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+        executor = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+        queries = new AtomicInteger();
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Service whose shortest path, k shortest paths and distance queries block until {@code release} is counted down,
+     * and are then cancellable through the token of their thread.
+     */
+    private LLRailRoadService blockingService() {
+        return new LLRailRoadServiceImpl(map) {
+            @Override
+            public String shortestPathBetween(String start, String dest) {
+                block();
+                return super.shortestPathBetween(start, dest);
+            }
+
+            @Override
+            public List<String> kShortestPathsBetween(String start, String dest, int k) {
+                block();
+                computedPaths = super.kShortestPathsBetween(start, dest, k);
+                return computedPaths;
+            }
+
+            @Override
+            public long distance(String... townNames) {
+                block();
+                return super.distance(townNames);
+            }
+
+            private void block() {
+                queries.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                LLCancellationToken.current().check();
+            }
+        };
+    }
+
+    private void awaitCoalesced(LLCoalescingRailRoadService service, long calls) throws InterruptedException {
+        while (service.coalescedCalls() < calls) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        List<Future<String>> paths = new ArrayList<Future<String>>();
+        for (int i = 0; i < CALLERS; i++) {
+            paths.add(executor.submit(() -> service.shortestPathBetween("A", "C")));
+        }
+        awaitCoalesced(service, CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> path : paths) {
+            assertEquals("A->B->C", path.get());
+        }
+        assertEquals(1, queries.get());
+        assertEquals(1, service.computedCalls());
+        assertEquals(CALLERS - 1, service.coalescedCalls());
+
+        // Completed queries are not shared
+        assertEquals("A->B->C", service.shortestPathBetween("A", "C"));
+        assertEquals(2, queries.get());
+        assertEquals(2, service.computedCalls());
+    }
+
+    @Test
+    public void testDifferentQueries() throws Exception {
+        release.countDown();
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        assertEquals(9, service.distance("A", "B", "C"));
+        assertEquals(5, service.distance("A", "D"));
+        assertEquals("A->B->C", service.shortestPathBetween("A", "C"));
+        assertEquals(3, service.computedCalls());
+        assertEquals(0, service.coalescedCalls());
+    }
+
+    @Test
+    public void testError() throws Exception {
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        List<Future<Long>> distances = new ArrayList<Future<Long>>();
+        for (int i = 0; i < CALLERS; i++) {
+            distances.add(executor.submit(() -> service.distance("A", "E", "D")));
+        }
+        awaitCoalesced(service, CALLERS - 1);
+        release.countDown();
+
+        for (Future<Long> distance : distances) {
+            try {
+                distance.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof LLRailRoadServiceException);
+            }
+        }
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testFirstCallerCancelled() throws Exception {
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        LLCancellationToken token = new LLCancellationToken();
+        Future<String> first = executor.submit(() -> token.call(() -> service.shortestPathBetween("A", "C")));
+        while (queries.get() == 0) {
+            Thread.sleep(1);
+        }
+        Future<String> second = executor.submit(() -> service.shortestPathBetween("A", "C"));
+        awaitCoalesced(service, 1);
+
+        token.cancel();
+        release.countDown();
+        try {
+            first.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+
+        // The waiting caller computes the query itself
+        assertEquals("A->B->C", second.get());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void testWaitingCallerCancelled() throws Exception {
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        Future<String> first = executor.submit(() -> service.shortestPathBetween("A", "C"));
+        while (queries.get() == 0) {
+            Thread.sleep(1);
+        }
+        LLCancellationToken token = new LLCancellationToken();
+        Future<String> second = executor.submit(() -> token.call(() -> service.shortestPathBetween("A", "C")));
+        awaitCoalesced(service, 1);
+
+        // The waiting caller gives up while the query still runs
+        token.cancel();
+        try {
+            second.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+
+        release.countDown();
+        assertEquals("A->B->C", first.get());
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testResultsCopied() throws Exception {
+        LLCoalescingRailRoadService service = new LLCoalescingRailRoadService(blockingService());
+        Future<List<String>> first = executor.submit(() -> service.kShortestPathsBetween("A", "C", 3));
+        Future<List<String>> second = executor.submit(() -> service.kShortestPathsBetween("A", "C", 3));
+        awaitCoalesced(service, 1);
+        release.countDown();
+
+        List<String> firstPaths = first.get();
+        List<String> secondPaths = second.get();
+        assertEquals(firstPaths, secondPaths);
+        assertNotSame(firstPaths, secondPaths);
+        assertEquals(1, queries.get());
+
+        // Not even the first caller gets the list the waiting callers are copied from
+        assertNotSame(computedPaths, firstPaths);
+        assertNotSame(computedPaths, secondPaths);
+    }
+}
@@ -1,5 +1,7 @@
 package com.lucaslouca.service;
 
+import com.lucaslouca.util.LLTimetable;
+import com.lucaslouca.util.LLTimetableImpl;
 import com.lucaslouca.util.LLTownMap;
 import com.lucaslouca.util.LLTownMapImpl;
 import org.junit.Before;
@@ -7,7 +9,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -19,11 +24,13 @@ public class LLRailRoadServiceTest {
     @Before
     public void initObjects() {
         LLTownMap map = new LLTownMapImpl();
+        LLTimetable timetable = new LLTimetableImpl();
         try {
             ClassLoader classLoader = getClass().getClassLoader();
             File file = new File(classLoader.getResource("graph.txt").getFile());
             map.init(file.getAbsolutePath());
-            service = new LLRailRoadServiceImpl(map);
+            timetable.init(new File(classLoader.getResource("timetable.txt").getFile()).getAbsolutePath());
+            service = new LLRailRoadServiceImpl(map, timetable);
         } catch (FileNotFoundException e) {
             e.printStackTrace();
         }
@@ -31,31 +38,56 @@ public class LLRailRoadServiceTest {
 
     @Test
     public void testDistance1() {
-        int ans = service.distance("A", "B", "C");
+        long ans = service.distance("A", "B", "C");
         assertEquals(9, ans);
     }
 
     @Test
     public void testDistance2() {
-        int ans = service.distance("A", "D");
+        long ans = service.distance("A", "D");
         assertEquals(5, ans);
     }
 
     @Test
     public void testDistance3() {
-        int ans = service.distance("A", "D", "C");
+        long ans = service.distance("A", "D", "C");
         assertEquals(13, ans);
     }
 
     @Test
     public void testDistance4() {
-        int ans = service.distance("A", "E", "B", "C", "D");
+        long ans = service.distance("A", "E", "B", "C", "D");
         assertEquals(22, ans);
     }
 
     @Test(expected = LLRailRoadServiceException.class)
     public void testDistanceException() {
-        int ans = service.distance("A", "E", "D");
+        long ans = service.distance("A", "E", "D");
+    }
+
+    @Test
+    public void testDistanceTable() {
+        long[] ans = service.distanceTable(new String[]{"A", "C"}, new String[]{"C", "E", "A"});
+        assertArrayEquals(new long[]{9, 7, -1, 9, 2, -1}, ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testDistanceTableException() {
+        service.distanceTable(new String[]{"A"}, new String[]{"X"});
+    }
+
+    @Test
+    public void testReachableWithin() {
+        List<String> ans = service.reachableWithin(new String[]{"C", "A"}, 9, false);
+        assertEquals(Arrays.asList("E (2), B (5), D (8), C (9)", "B (5), D (5), E (7), C (9)"), ans);
+
+        ans = service.reachableWithin(new String[]{"C"}, 5, true);
+        assertEquals(Arrays.asList("B (4)"), ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testReachableWithinException() {
+        service.reachableWithin(new String[]{"X"}, 10, false);
     }
 
     @Test
@@ -72,13 +104,13 @@ public class LLRailRoadServiceTest {
 
     @Test
     public void testLengthOfShortestPathBetween1() {
-        int ans = service.lengthOfShortestPathBetween("A", "C");
+        long ans = service.lengthOfShortestPathBetween("A", "C");
         assertEquals(9, ans);
     }
 
     @Test
     public void testLengthOfShortestPathBetween2() {
-        int ans = service.lengthOfShortestPathBetween("B", "B");
+        long ans = service.lengthOfShortestPathBetween("B", "B");
         assertEquals(9, ans);
     }
 
@@ -93,4 +125,62 @@ public class LLRailRoadServiceTest {
         String ans = service.shortestPathBetween("B", "B");
         assertEquals("B->C->E->B", ans);
     }
+
+    @Test
+    public void testKShortestPathsBetween1() {
+        List<String> ans = service.kShortestPathsBetween("A", "C", 3);
+        assertEquals(Arrays.asList("A->B->C", "A->D->C", "A->E->B->C"), ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testKShortestPathsBetweenException() {
+        service.kShortestPathsBetween("E", "A", 3);
+    }
+
+    @Test
+    public void testParetoRoutesBetween1() {
+        List<String> ans = service.paretoRoutesBetween("C", "C");
+        assertEquals(Arrays.asList("C->E->B->C (9, 3)", "C->D->C (16, 2)"), ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testParetoRoutesBetweenException() {
+        service.paretoRoutesBetween("E", "A");
+    }
+
+    @Test
+    public void testShortestPathWithMaxHopsBetween1() {
+        String ans = service.shortestPathWithMaxHopsBetween("C", "C", 2);
+        assertEquals("C->D->C", ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testShortestPathWithMaxHopsBetweenException() {
+        service.shortestPathWithMaxHopsBetween("A", "C", 1);
+    }
+
+    @Test
+    public void testEarliestArrival1() {
+        int ans = service.earliestArrival("A", "C", 481);
+        assertEquals(518, ans);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testEarliestArrivalException() {
+        service.earliestArrival("E", "A", 0);
+    }
+
+    @Test(expected = LLRailRoadServiceException.class)
+    public void testCountRoutesRejected() {
+        service.countRoutesWithMaxDistance("C", "C", 5000);
+    }
+
+    @Test
+    public void testEstimateRoutes() {
+        String ans = service.estimateRoutesWithMaxDistance("C", "C", 29, 0.01);
+        assertEquals(7, Double.parseDouble(ans.substring(0, ans.indexOf(' '))), 7 * 0.05);
+
+        ans = service.estimateRoutesWithMaxHops("C", "C", 3, 0.01);
+        assertEquals(2, Double.parseDouble(ans.substring(0, ans.indexOf(' '))), 2 * 0.05);
+    }
 }
@@ -0,0 +1,96 @@
+package com.lucaslouca.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@code LLDeltaStepping}.
+ */
+public class LLDeltaSteppingTest {
+
+    /**
+     * Distances from source computed with Dijkstra. The source itself is at distance 0.
+     */
+    private static long[] dijkstra(LLCompactGraph<?> graph, int source) {
+        LLShortestPathTree tree = LLShortestPathTree.create(graph, source, true);
+        long[] distances = new long[graph.size()];
+        for (int node = 0; node < distances.length; node++) {
+            distances[node] = node == source ? 0 : tree.distanceTo(node);
+        }
+        return distances;
+    }
+
+    @Test
+    public void testDistances() {
+        // Graph AB5, BC4, CD8, DC8, DE6, AD5, CE2, EB3, AE7
+        LLCompactGraph<String> graph = new LLCompactGraph<String>(new Object[]{"A", "B", "C", "D", "E"},
+                new int[]{0, 3, 4, 6, 8, 9}, new int[]{1, 3, 4, 2, 3, 4, 2, 4, 1}, new int[]{5, 5, 7, 4, 8, 2, 8, 6, 3});
+        long infinity = LLShortestPaths.LONG_INFINITY;
+
+        assertArrayEquals(new long[]{0, 5, 9, 5, 7}, new LLDeltaStepping(graph, 3, false).distances(0, null));
+        assertArrayEquals(new long[]{infinity, 0, 4, 12, 6}, new LLDeltaStepping(graph, 1, false).distances(1, null));
+        assertArrayEquals(new long[]{9, 4, 0, 8, 7}, new LLDeltaStepping(graph, 100, true).distances(2, null));
+    }
+
+    @Test
+    public void testRandomDeltas() {
+        Random random = new Random(17);
+        LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(random, 3000, 4, 0, 100);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int round = 0; round < 5; round++) {
+                int source = random.nextInt(graph.size());
+                long[] expected = dijkstra(graph, source);
+
+                for (long delta : new long[]{1, 7, LLDeltaStepping.defaultDelta(graph), 60, 1000}) {
+                    assertArrayEquals(expected, new LLDeltaStepping(graph, delta, false).distances(source, null));
+                    assertArrayEquals(expected, new LLDeltaStepping(graph, delta, false).distances(source, pool));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReverse() {
+        Random random = new Random(23);
+        LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(random, 2000, 3, 0, 50);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            int target = random.nextInt(graph.size());
+            int[] expected = LLShortestPaths.distancesTo(graph, target);
+            long[] distances = new LLDeltaStepping(graph, LLDeltaStepping.defaultDelta(graph), true).distances(target, pool);
+
+            for (int node = 0; node < graph.size(); node++) {
+                long distance = distances[node] == LLShortestPaths.LONG_INFINITY ? LLShortestPaths.INFINITY : distances[node];
+                assertEquals(expected[node], distance);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDistancesBeyondIntRange() {
+        // 0 -> 1 -> 2 -> 3, each edge close to Integer.MAX_VALUE
+        int weight = Integer.MAX_VALUE - 1;
+        LLCompactGraph<Integer> graph = new LLCompactGraph<Integer>(new Object[]{0, 1, 2, 3}, new int[]{0, 1, 2, 3, 3},
+                new int[]{1, 2, 3}, new int[]{weight, weight, weight});
+
+        assertArrayEquals(new long[]{0, weight, 2L * weight, 3L * weight},
+                new LLDeltaStepping(graph, 1, false).distances(0, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDelta() {
+        new LLDeltaStepping(LLTestGraphs.randomGraph(new Random(1), 10, 2, 0, 10), 0, false);
+    }
+}
@@ -0,0 +1,28 @@
+package com.lucaslouca.util;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark comparing the binary heap and the Dial bucket queue as frontier of {@code LLShortestPathTree}. Both
+ * run complete shortest path trees on random graphs with increasing largest edge weights; the bucket queue is chosen
+ * automatically up to {@code LLShortestPaths.DIAL_MAX_WEIGHT}. The last graph is beyond that limit.
+ * <p>
+ * Run the {@code main} method with the test classpath.
+ */
+public class LLDijkstraQueueBenchmark {
+    private static final int NODES = 200_000;
+    private static final int DEGREE = 5;
+    private static final int[] MAX_WEIGHTS = {10, 100, 1000, 16384, 100000};
+    private static final int SOURCES = 10;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        for (int maxWeight : MAX_WEIGHTS) {
+            LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(new Random(42), NODES, DEGREE, 1, maxWeight);
+
+            LLTreeBenchmarks.compare(graph, SOURCES, ROUNDS, "max weight " + maxWeight + ", ",
+                    "heap", source -> LLShortestPathTree.create(graph, source, false, false),
+                    "buckets", source -> LLShortestPathTree.create(graph, source, false, true));
+        }
+    }
+}
@@ -6,9 +6,14 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for {@code LLDirectedGraph}.
@@ -77,6 +82,40 @@ public class LLDirectedGraphTest {
         assertTrue(g.edgeExists(townA, townB));
     }
 
+    @Test
+    public void testRemoveEdge1() {
+        LLDirectedGraph<LLTown> g = new LLDirectedGraph<>();
+        LLTown townA = new LLTown("A");
+        LLTown townB = new LLTown("B");
+        g.addNode(townA);
+        g.addNode(townB);
+
+        g.addEdge(townA, townB, 5);
+        assertTrue(g.edgeExists(townA, townB));
+        assertFalse(g.edgeExists(townB, townA));
+
+        g.removeEdge(townA, townB);
+        assertFalse(g.edgeExists(townA, townB));
+    }
+
+    @Test
+    public void testEdgeExistsRandom() {
+        Random random = new Random(9);
+        int size = 50;
+        LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 700, 0, 99, true);
+
+        for (int start = 0; start < size; start++) {
+            for (int dest = 0; dest < size; dest++) {
+                assertEquals(g.getNeighbours(start).contains(dest), g.edgeExists(start, dest));
+            }
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEdgeExistsException() {
+        graph.edgeExists(towns.get("A"), new LLTown("X"));
+    }
+
     @Test
     public void testGetNeighBours1() {
         LLDirectedGraph<LLTown> g = new LLDirectedGraph<>();
@@ -182,7 +221,7 @@ public class LLDirectedGraphTest {
         route.add(towns.get("B"));
         route.add(towns.get("C"));
 
-        int ans = graph.distance(route);
+        long ans = graph.distance(route);
         assertEquals(9, ans);
     }
 
@@ -193,7 +232,7 @@ public class LLDirectedGraphTest {
         route.add(towns.get("D"));
         route.add(towns.get("E"));
 
-        int ans = graph.distance(route);
+        long ans = graph.distance(route);
         assertEquals(11, ans);
     }
 
@@ -206,7 +245,7 @@ public class LLDirectedGraphTest {
         route.add(towns.get("E"));
         route.add(towns.get("B"));
 
-        int ans = graph.distance(route);
+        long ans = graph.distance(route);
         assertEquals(21, ans);
     }
 
@@ -222,7 +261,7 @@ public class LLDirectedGraphTest {
         route.add(towns.get("E"));
         route.add(towns.get("B"));
 
-        int ans = graph.distance(route);
+        long ans = graph.distance(route);
         assertEquals(30, ans);
     }
 
@@ -232,7 +271,7 @@ public class LLDirectedGraphTest {
         route.add(towns.get("B"));
         route.add(towns.get("B"));
 
-        int ans = graph.distance(route);
+        long ans = graph.distance(route);
     }
 
 
@@ -330,8 +369,696 @@ public class LLDirectedGraphTest {
         assertEquals(5, ans);
     }
 
+    @Test
+    public void testCountRoutesWithMaxDistance6() {
+        // Cycle F<->G is reachable from A but can never get back to E
+        LLTown townF = new LLTown("F");
+        LLTown townG = new LLTown("G");
+        graph.addNode(townF);
+        graph.addNode(townG);
+        graph.addEdge(towns.get("A"), townF, 1);
+        graph.addEdge(townF, townG, 1);
+        graph.addEdge(townG, townF, 1);
+
+        int ans = graph.countRoutesWithMaxDistance(towns.get("A"), towns.get("E"), 7);
+        assertEquals(1, ans);
+
+        ans = graph.countRoutesWithMaxDistance(towns.get("A"), townG, 6);
+        assertEquals(3, ans);
+    }
+
     @Test(expected = NoSuchElementException.class)
     public void testCountRoutesWithMaxDistanceExcpetion() {
         graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("X"), 2);
     }
+
+    @Test
+    public void testRoutesWithMaxDistance1() {
+        Set<String> routes = graph.routesWithMaxDistance(towns.get("C"), towns.get("C"), 29)
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+
+        Set<String> expected = new HashSet<String>(Arrays.asList("C->D->C", "C->E->B->C", "C->E->B->C->D->C",
+                "C->D->C->E->B->C", "C->D->E->B->C", "C->E->B->C->E->B->C", "C->E->B->C->E->B->C->E->B->C"));
+        assertEquals(expected, routes);
+    }
+
+    @Test
+    public void testRoutesWithHops1() throws LLDirectedGraph.NodeNotReachableException {
+        List<LLDirectedGraph<LLTown>.GraphPath> routes = graph.routesWithHops(towns.get("A"), towns.get("C"), 4)
+                .collect(Collectors.toList());
+
+        assertEquals(3, routes.size());
+        for (LLDirectedGraph<LLTown>.GraphPath route : routes) {
+            assertEquals(4, route.hopCount());
+            assertEquals(route.distance(), graph.distance(route.getNodes()));
+        }
+    }
+
+    @Test
+    public void testRoutesWithMaxHops1() {
+        Iterator<LLDirectedGraph<LLTown>.GraphPath> routes = graph.routesWithMaxHops(towns.get("C"), towns.get("C"), 3).iterator();
+
+        Set<String> found = new HashSet<String>();
+        while (routes.hasNext()) {
+            found.add(routes.next().toString());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("C->D->C", "C->E->B->C")), found);
+    }
+
+    @Test
+    public void testRoutesLimit() {
+        // Unbounded number of routes, must be consumed lazily
+        long ans = graph.routesWithMaxDistance(towns.get("C"), towns.get("C"), Integer.MAX_VALUE / 2)
+                .limit(10)
+                .count();
+        assertEquals(10, ans);
+    }
+
+    @Test
+    public void testRoutesParallel() {
+        long ans = graph.routesWithMaxDistance(towns.get("C"), towns.get("C"), 100)
+                .parallel()
+                .count();
+        assertEquals(graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 100), ans);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRoutesException() {
+        graph.routesWithMaxHops(towns.get("C"), towns.get("X"), 2);
+    }
+
+    @Test
+    public void testKShortestPathsBetween1() throws LLDirectedGraph.NodeNotReachableException {
+        List<String> paths = graph.kShortestPathsBetween(towns.get("A"), towns.get("C"), 10).stream()
+                .map(Object::toString)
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("A->B->C", "A->D->C", "A->E->B->C", "A->D->E->B->C"), paths);
+    }
+
+    @Test
+    public void testKShortestPathsBetween2() throws LLDirectedGraph.NodeNotReachableException {
+        List<LLDirectedGraph<LLTown>.GraphPath> paths = graph.kShortestPathsBetween(towns.get("B"), towns.get("B"), 2);
+
+        assertEquals(2, paths.size());
+        assertEquals("B->C->E->B", paths.get(0).toString());
+        assertEquals(9, paths.get(0).distance());
+        assertEquals("B->C->D->E->B", paths.get(1).toString());
+        assertEquals(21, paths.get(1).distance());
+    }
+
+    @Test
+    public void testKShortestPathsBetweenRandom() throws LLDirectedGraph.NodeNotReachableException {
+        Random random = new Random(7);
+        int size = 9;
+        LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 30, 0, 9, false);
+
+        // Reference: distances of all simple paths from 0 to 1, ordered
+        List<Long> expected = new ArrayList<Long>();
+        g.routesWithMaxHops(0, 1, size).forEach(path -> {
+            if (new HashSet<Integer>(path.getNodes()).size() == path.getNodes().size()) {
+                expected.add(path.distance());
+            }
+        });
+        Collections.sort(expected);
+
+        List<Long> sequential = g.kShortestPathsBetween(0, 1, 15, false).stream()
+                .map(LLDirectedGraph.GraphPath::distance)
+                .collect(Collectors.toList());
+        List<Long> parallel = g.kShortestPathsBetween(0, 1, 15, true).stream()
+                .map(LLDirectedGraph.GraphPath::distance)
+                .collect(Collectors.toList());
+
+        assertEquals(expected.subList(0, Math.min(15, expected.size())), sequential);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test(expected = LLDirectedGraph.NodeNotReachableException.class)
+    public void testKShortestPathsBetweenException() throws LLDirectedGraph.NodeNotReachableException {
+        graph.kShortestPathsBetween(towns.get("C"), towns.get("A"), 3);
+    }
+
+    @Test
+    public void testOffHeapStorage() throws LLDirectedGraph.NodeNotReachableException {
+        graph.setOffHeapStorage(true);
+
+        assertEquals("C->E->B->C", graph.shortestPathBetween(towns.get("C"), towns.get("C")).toString());
+        assertEquals(7, graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 29));
+        assertEquals(3, graph.countRoutesWithHops(towns.get("A"), towns.get("C"), 4));
+        assertEquals(Arrays.asList("A->B->C", "A->D->C", "A->E->B->C"), graph.kShortestPathsBetween(towns.get("A"), towns.get("C"), 3)
+                .stream().map(Object::toString).collect(Collectors.toList()));
+
+        graph.setOffHeapStorage(false);
+        assertEquals(7, graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 29));
+    }
+
+    @Test
+    public void testOffHeapStorageChanges() throws LLDirectedGraph.NodeNotReachableException {
+        graph.setOffHeapStorage(true);
+        graph.setNodeReordering(true);
+        assertEquals(9, graph.shortestPathBetween(towns.get("A"), towns.get("C")).distance());
+        assertEquals(new HashSet<LLTown>(Arrays.asList(towns.get("B"), towns.get("D"), towns.get("E"))),
+                graph.getNeighbours(towns.get("A")));
+
+        // Changing the graph restores the edges dropped from the heap
+        graph.removeEdge(towns.get("A"), towns.get("B"));
+        LLTown townF = new LLTown("F");
+        graph.addNode(townF);
+        graph.addEdge(townF, towns.get("A"), 1);
+        assertEquals(new HashSet<LLTown>(Arrays.asList(towns.get("D"), towns.get("E"))),
+                graph.getNeighbours(towns.get("A")));
+        assertEquals(14, graph.shortestPathBetween(townF, towns.get("C")).distance());
+        assertTrue(graph.edgeExists(towns.get("B"), towns.get("C")));
+        assertFalse(graph.edgeExists(towns.get("A"), towns.get("B")));
+
+        graph.setOffHeapStorage(false);
+        assertEquals(new HashSet<LLTown>(Arrays.asList(towns.get("D"), towns.get("E"))),
+                graph.getNeighbours(towns.get("A")));
+        assertEquals(14, graph.shortestPathBetween(townF, towns.get("C")).distance());
+    }
+
+    @Test
+    public void testDistancesBeyondIntRange() throws LLDirectedGraph.NodeNotReachableException {
+        LLDirectedGraph<LLTown> g = new LLDirectedGraph<>();
+        LLTown townA = towns.get("A");
+        LLTown townB = towns.get("B");
+        LLTown townC = towns.get("C");
+        g.addNode(townA);
+        g.addNode(townB);
+        g.addNode(townC);
+        g.addEdge(townA, townB, 2000000000);
+        g.addEdge(townB, townC, 2000000000);
+        g.addEdge(townA, townC, Integer.MAX_VALUE);
+
+        assertEquals(4000000000L, g.distance(Arrays.asList(townA, townB, townC)));
+        assertEquals(Integer.MAX_VALUE, g.shortestPathBetween(townA, townC).distance());
+        assertEquals(1, g.countRoutesWithMaxDistance(townA, townC, 4000000000L - 1));
+        assertEquals(2, g.countRoutesWithMaxDistance(townA, townC, 4000000000L));
+        assertEquals(Arrays.asList((long) Integer.MAX_VALUE, 4000000000L), g.kShortestPathsBetween(townA, townC, 2)
+                .stream().map(LLDirectedGraph.GraphPath::distance).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testParetoRoutesBetween1() throws LLDirectedGraph.NodeNotReachableException {
+        List<LLDirectedGraph<LLTown>.GraphPath> paths = graph.paretoRoutesBetween(towns.get("C"), towns.get("C"));
+        assertEquals(2, paths.size());
+        assertEquals("C->E->B->C", paths.get(0).toString());
+        assertEquals(9, paths.get(0).distance());
+        assertEquals(3, paths.get(0).hopCount());
+        assertEquals("C->D->C", paths.get(1).toString());
+        assertEquals(16, paths.get(1).distance());
+        assertEquals(2, paths.get(1).hopCount());
+    }
+
+    @Test
+    public void testParetoRoutesBetween2() throws LLDirectedGraph.NodeNotReachableException {
+        List<LLDirectedGraph<LLTown>.GraphPath> paths = graph.paretoRoutesBetween(towns.get("A"), towns.get("C"));
+        assertEquals(1, paths.size());
+        assertEquals("A->B->C", paths.get(0).toString());
+        assertEquals(9, paths.get(0).distance());
+    }
+
+    @Test
+    public void testParetoRoutesBetweenRandom() throws LLDirectedGraph.NodeNotReachableException {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            int size = 8;
+            LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 24, 0, 9, true);
+            int start = random.nextInt(size);
+            int dest = random.nextInt(3) == 0 ? start : random.nextInt(size);
+            if (!g.routesWithMaxHops(start, dest, size).findAny().isPresent()) {
+                continue;
+            }
+
+            // Reference: (distance, hops) pairs of all routes, reduced to the non-dominated ones
+            List<long[]> routes = g.routesWithMaxHops(start, dest, size)
+                    .map(path -> new long[]{path.distance(), path.hopCount()})
+                    .collect(Collectors.toList());
+            Set<String> expected = new TreeSet<String>();
+            for (long[] route : routes) {
+                boolean dominated = false;
+                for (long[] other : routes) {
+                    dominated |= other[0] <= route[0] && other[1] <= route[1] && (other[0] < route[0] || other[1] < route[1]);
+                }
+                if (!dominated) {
+                    expected.add(route[0] + "/" + route[1]);
+                }
+            }
+
+            List<LLDirectedGraph<Integer>.GraphPath> front = g.paretoRoutesBetween(start, dest);
+            Set<String> actual = new TreeSet<String>();
+            for (LLDirectedGraph<Integer>.GraphPath path : front) {
+                actual.add(path.distance() + "/" + path.hopCount());
+                assertEquals(path.distance(), g.distance(path.getNodes()));
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), front.size());
+        }
+    }
+
+    @Test(expected = LLDirectedGraph.NodeNotReachableException.class)
+    public void testParetoRoutesBetweenException() throws LLDirectedGraph.NodeNotReachableException {
+        graph.paretoRoutesBetween(towns.get("C"), towns.get("A"));
+    }
+
+    @Test
+    public void testShortestPathWithMaxHopsBetween1() throws LLDirectedGraph.NodeNotReachableException {
+        LLDirectedGraph<LLTown>.GraphPath path = graph.shortestPathWithMaxHopsBetween(towns.get("C"), towns.get("C"), 2);
+        assertEquals("C->D->C", path.toString());
+        assertEquals(16, path.distance());
+
+        path = graph.shortestPathWithMaxHopsBetween(towns.get("C"), towns.get("C"), 3);
+        assertEquals("C->E->B->C", path.toString());
+        assertEquals(9, path.distance());
+    }
+
+    @Test
+    public void testShortestPathWithMaxHopsBetween2() throws LLDirectedGraph.NodeNotReachableException {
+        LLDirectedGraph<LLTown>.GraphPath path = graph.shortestPathWithMaxHopsBetween(towns.get("A"), towns.get("C"), 30);
+        assertEquals("A->B->C", path.toString());
+        assertEquals(9, path.distance());
+
+        path = graph.shortestPathWithMaxHopsBetween(towns.get("D"), towns.get("B"), 2, true);
+        assertEquals("D->E->B", path.toString());
+        assertEquals(9, path.distance());
+    }
+
+    @Test
+    public void testShortestPathWithMaxHopsBetweenRandom() throws LLDirectedGraph.NodeNotReachableException {
+        Random random = new Random(5);
+        for (int round = 0; round < 30; round++) {
+            int size = 8;
+            LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 24, 0, 9, true);
+            int start = random.nextInt(size);
+            int dest = random.nextInt(3) == 0 ? start : random.nextInt(size);
+            int maxHops = 1 + random.nextInt(5);
+
+            // Reference: shortest of all routes with at most maxHops edges
+            long expected = g.routesWithMaxHops(start, dest, maxHops).mapToLong(LLDirectedGraph.GraphPath::distance)
+                    .min().orElse(-1);
+
+            for (boolean parallel : new boolean[]{false, true}) {
+                try {
+                    LLDirectedGraph<Integer>.GraphPath path = g.shortestPathWithMaxHopsBetween(start, dest, maxHops, parallel);
+                    assertEquals(expected, path.distance());
+                    assertEquals(path.distance(), g.distance(path.getNodes()));
+                    assertTrue(path.hopCount() <= maxHops);
+                    assertEquals(start, (int) path.getNodes().get(0));
+                    assertEquals(dest, (int) path.last());
+                } catch (LLDirectedGraph.NodeNotReachableException e) {
+                    assertEquals(-1, expected);
+                }
+            }
+        }
+    }
+
+    @Test(expected = LLDirectedGraph.NodeNotReachableException.class)
+    public void testShortestPathWithMaxHopsBetweenException() throws LLDirectedGraph.NodeNotReachableException {
+        graph.shortestPathWithMaxHopsBetween(towns.get("A"), towns.get("C"), 1);
+    }
+
+    @Test
+    public void testDistancesRandom() throws LLDirectedGraph.NodeNotReachableException {
+        Random random = new Random(3);
+        int size = 20;
+        LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 150, 0, 99, true);
+
+        // Random walks, some of them through missing edges
+        int routes = 500;
+        int[] offsets = new int[routes + 1];
+        int[] nodes = new int[routes * 6];
+        for (int route = 0; route < routes; route++) {
+            int length = random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                nodes[offsets[route] + i] = g.nodeId(random.nextInt(size));
+            }
+            offsets[route + 1] = offsets[route] + length;
+        }
+
+        long[] distances = new long[routes];
+        g.distances(nodes, offsets, distances);
+
+        for (int route = 0; route < routes; route++) {
+            // Nodes were added in order, so each node equals its id
+            List<Integer> path = new ArrayList<Integer>();
+            for (int i = offsets[route]; i < offsets[route + 1]; i++) {
+                path.add(nodes[i]);
+            }
+            try {
+                assertEquals(g.distance(path), distances[route]);
+            } catch (LLDirectedGraph.NodeNotReachableException e) {
+                assertEquals(LLDirectedGraph.NO_SUCH_ROUTE, distances[route]);
+            }
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testDistanceUnknownNode() throws LLDirectedGraph.NodeNotReachableException {
+        graph.distance(Arrays.asList(towns.get("A"), new LLTown("X")));
+    }
+
+    @Test
+    public void testNodeReordering() throws LLDirectedGraph.NodeNotReachableException {
+        Random random = new Random(13);
+        for (int round = 0; round < 10; round++) {
+            LLDirectedGraph<Integer> plain = new LLDirectedGraph<>();
+            LLDirectedGraph<Integer> reordered = new LLDirectedGraph<>();
+            reordered.setNodeReordering(true);
+
+            int size = 12;
+            for (int i = 0; i < size; i++) {
+                plain.addNode(i);
+                reordered.addNode(i);
+            }
+            for (int i = 0; i < 30; i++) {
+                int start = random.nextInt(size);
+                int dest = random.nextInt(size);
+                int weight = 1 + random.nextInt(10);
+                plain.addEdge(start, dest, weight);
+                reordered.addEdge(start, dest, weight);
+            }
+
+            for (int start = 0; start < size; start++) {
+                for (int dest = 0; dest < size; dest++) {
+                    assertEquals(plain.edgeExists(start, dest), reordered.edgeExists(start, dest));
+                    assertEquals(plain.countRoutesWithMaxHops(start, dest, 4), reordered.countRoutesWithMaxHops(start, dest, 4));
+                    assertEquals(plain.countRoutesWithMaxDistance(start, dest, 20), reordered.countRoutesWithMaxDistance(start, dest, 20));
+                    try {
+                        long distance = plain.shortestPathBetween(start, dest).distance();
+                        LLDirectedGraph<Integer>.GraphPath path = reordered.shortestPathBetween(start, dest);
+                        assertEquals(distance, path.distance());
+                        assertEquals(distance, reordered.distance(path.getNodes()));
+                        assertEquals(distance, reordered.shortestPathWithMaxHopsBetween(start, dest, size).distance());
+                    } catch (LLDirectedGraph.NodeNotReachableException e) {
+                        assertFalse(reordered.routesWithMaxHops(start, dest, size).findAny().isPresent());
+                    }
+                }
+            }
+
+            int[] nodes = {reordered.nodeId(0), reordered.nodeId(1), reordered.nodeId(2), reordered.nodeId(3)};
+            long[] expected = new long[2];
+            long[] actual = new long[2];
+            plain.distances(nodes, new int[]{0, 2, 4}, expected);
+            reordered.distances(nodes, new int[]{0, 2, 4}, actual);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testDistancesFrom() {
+        Map<LLTown, Long> distances = graph.distancesFrom(towns.get("B"));
+        assertEquals(4, distances.size());
+        assertEquals(0L, (long) distances.get(towns.get("B")));
+        assertEquals(4L, (long) distances.get(towns.get("C")));
+        assertEquals(12L, (long) distances.get(towns.get("D")));
+        assertEquals(6L, (long) distances.get(towns.get("E")));
+        assertEquals(distances, graph.distancesFrom(towns.get("B"), 1, true));
+    }
+
+    @Test
+    public void testDistanceTable() {
+        List<LLTown> starts = Arrays.asList(towns.get("A"), towns.get("B"), towns.get("C"));
+        List<LLTown> dests = Arrays.asList(towns.get("C"), towns.get("D"), towns.get("A"));
+        long none = LLDirectedGraph.NO_SUCH_ROUTE;
+        long[] expected = {9, 5, none, 4, 12, none, 9, 8, none};
+
+        assertArrayEquals(expected, graph.distanceTable(starts, dests));
+        assertArrayEquals(expected, graph.distanceTable(starts, dests, true));
+    }
+
+    @Test
+    public void testDistanceTableRandom() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            // Larger graphs with many destinations cut the backward searches off
+            int size = round % 2 == 0 ? 10 : 300;
+            LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 3 * size, 0, 9, true);
+
+            List<Integer> starts = new ArrayList<>();
+            for (int i = 1 + random.nextInt(10); i > 0; i--) {
+                starts.add(random.nextInt(size));
+            }
+            List<Integer> dests = new ArrayList<>();
+            for (int i = 1 + random.nextInt(50); i > 0; i--) {
+                dests.add(random.nextInt(size));
+            }
+
+            long[] expected = new long[starts.size() * dests.size()];
+            for (int i = 0; i < starts.size(); i++) {
+                for (int j = 0; j < dests.size(); j++) {
+                    try {
+                        expected[i * dests.size() + j] = g.shortestPathBetween(starts.get(i), dests.get(j)).distance();
+                    } catch (LLDirectedGraph.NodeNotReachableException e) {
+                        expected[i * dests.size() + j] = LLDirectedGraph.NO_SUCH_ROUTE;
+                    }
+                }
+            }
+
+            assertArrayEquals(expected, g.distanceTable(starts, dests, false));
+            assertArrayEquals(expected, g.distanceTable(starts, dests, true));
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testDistanceTableException() {
+        graph.distanceTable(Arrays.asList(towns.get("A")), Arrays.asList(towns.get("B"), new LLTown("X")));
+    }
+
+    @Test
+    public void testReachableWithin() {
+        assertEquals("E (2), B (5), D (8), C (9)", graph.reachableWithin(towns.get("C"), 9).toString());
+        assertEquals("E (2), B (5)", graph.reachableWithin(towns.get("C"), 7).toString());
+        assertEquals("B (4), E (7), D (8), A (9), C (9)", graph.reachableWithin(towns.get("C"), 9, true).toString());
+        assertEquals(0, graph.reachableWithin(towns.get("A"), 4).size());
+
+        LLDirectedGraph<LLTown>.ReachableNodes reachable = graph.reachableWithin(towns.get("A"), 5);
+        assertEquals(2, reachable.size());
+        assertEquals(towns.get("B"), reachable.node(0));
+        assertEquals(graph.nodeId(towns.get("D")), reachable.nodeId(1));
+        assertEquals(5, reachable.distance(1));
+    }
+
+    @Test
+    public void testReachableWithinRandom() {
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            int size = 30;
+            LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 3 * size, 0, 9, true);
+            g.setNodeReordering(round % 2 == 1);
+
+            List<Integer> starts = Arrays.asList(random.nextInt(size), random.nextInt(size), random.nextInt(size));
+            long maxDistance = random.nextInt(30);
+            for (boolean reverse : new boolean[]{false, true}) {
+                List<LLDirectedGraph<Integer>.ReachableNodes> batch = g.reachableWithin(starts, maxDistance, reverse, true);
+                for (int i = 0; i < starts.size(); i++) {
+                    // Reference: every node whose shortest path is within maxDistance, ordered by distance and id
+                    List<long[]> expected = new ArrayList<>();
+                    for (int node = 0; node < size; node++) {
+                        try {
+                            long distance = reverse ? g.shortestPathBetween(node, starts.get(i)).distance()
+                                    : g.shortestPathBetween(starts.get(i), node).distance();
+                            if (distance <= maxDistance) {
+                                expected.add(new long[]{distance, node});
+                            }
+                        } catch (LLDirectedGraph.NodeNotReachableException e) {
+                            // Not reachable at all
+                        }
+                    }
+                    expected.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+                    LLDirectedGraph<Integer>.ReachableNodes reachable = g.reachableWithin(starts.get(i), maxDistance, reverse);
+                    assertEquals(reachable.toString(), batch.get(i).toString());
+                    assertEquals(expected.size(), reachable.size());
+                    for (int j = 0; j < expected.size(); j++) {
+                        assertEquals(expected.get(j)[0], reachable.distance(j));
+                        assertEquals(expected.get(j)[1], (long) reachable.node(j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testReachableWithinException() {
+        graph.reachableWithin(new LLTown("X"), 10);
+    }
+
+    @Test
+    public void testCancellation() throws LLDirectedGraph.NodeNotReachableException {
+        LLCancellationToken cancelled = new LLCancellationToken();
+        cancelled.cancel();
+        try {
+            cancelled.call(() -> graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 3));
+            fail();
+        } catch (CancellationException e) {
+            // The query never started
+        }
+
+        // Cancelled while the routes are counted
+        LLCancellationToken token = new LLCancellationToken();
+        try {
+            token.call(() -> {
+                token.cancel();
+                return graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 40);
+            });
+            fail();
+        } catch (CancellationException e) {
+            assertTrue(token.isCancelled());
+        }
+
+        // Cancelled while the shortest path tree is settled. The tree is resumed by the next query.
+        LLCancellationToken treeToken = new LLCancellationToken();
+        try {
+            treeToken.call(() -> {
+                treeToken.cancel();
+                try {
+                    return graph.shortestPathBetween(towns.get("A"), towns.get("C"));
+                } catch (LLDirectedGraph.NodeNotReachableException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            fail();
+        } catch (CancellationException e) {
+            assertTrue(treeToken.isCancelled());
+        }
+        assertEquals("A->B->C", graph.shortestPathBetween(towns.get("A"), towns.get("C")).toString());
+        assertEquals(2, graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 3));
+    }
+
+    @Test
+    public void testCountRoutesRandom() {
+        Random random = new Random(48);
+        for (int round = 0; round < 20; round++) {
+            int size = 12;
+            LLDirectedGraph<Integer> g = LLTestGraphs.randomDirectedGraph(random, size, 3 * size, 1, 9, true);
+
+            // Budgets large enough for dynamic programming to be cheaper than enumerating the routes
+            int start = random.nextInt(size);
+            int dest = random.nextInt(size);
+            int hops = 6 + random.nextInt(4);
+            long distance = 20 + random.nextInt(20);
+            assertEquals(g.routesWithMaxHops(start, dest, hops).count(), g.countRoutesWithMaxHops(start, dest, hops));
+            assertEquals(g.routesWithHops(start, dest, hops).count(), g.countRoutesWithHops(start, dest, hops));
+            assertEquals(g.routesWithMaxDistance(start, dest, distance).count(),
+                    g.countRoutesWithMaxDistance(start, dest, distance));
+        }
+    }
+
+    @Test
+    public void testCountRoutesLargeBudget() {
+        // Far too many routes to enumerate, but dynamic programming finds that they do not fit into an int at once
+        try {
+            graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 5000);
+            fail();
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+        assertEquals(1_544_835_279, graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 55));
+    }
+
+    @Test
+    public void testExpansionBudgetExactFit() {
+        // A->B takes a single expansion, backtracking to A afterwards must not need another one
+        LLDirectedGraph<String> g = new LLDirectedGraph<>();
+        g.addNode("A");
+        g.addNode("B");
+        g.addEdge("A", "B", 1);
+        g.setExpansionBudget(1);
+        assertEquals(1, g.countRoutesWithMaxHops("A", "B", 1));
+    }
+
+    @Test
+    public void testExpansionBudget() {
+        graph.setExpansionBudget(100);
+        assertEquals(2, graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 3));
+        try {
+            graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 30);
+            fail();
+        } catch (LLDirectedGraph.QueryRejectedException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+
+        graph.setExpansionBudget(LLDirectedGraph.DEFAULT_EXPANSION_BUDGET);
+        assertEquals(graph.routesWithMaxHops(towns.get("C"), towns.get("C"), 30).count(),
+                graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 30));
+    }
+
+    @Test
+    public void testStatistics() {
+        LLGraphStatistics statistics = graph.statistics();
+        assertEquals(5, statistics.nodeCount());
+        assertEquals(9, statistics.edgeCount());
+        assertEquals(3, statistics.maxDegree());
+        assertArrayEquals(new int[]{0, 2, 3}, statistics.degreeHistogram());
+        assertEquals(2, statistics.minWeight());
+        assertEquals(8, statistics.maxWeight());
+        assertEquals(13.0 / 9, statistics.branchingFactor(), 1e-9);
+        assertEquals(2, statistics.componentCount());
+        assertEquals(4, statistics.largestComponentSize());
+        assertEquals(1, statistics.cyclicComponentCount());
+        assertEquals(4, statistics.cyclicNodeCount());
+        assertFalse(statistics.isAcyclic());
+
+        // Collected again after a change
+        graph.removeEdge(towns.get("E"), towns.get("B"));
+        statistics = graph.statistics();
+        assertEquals(8, statistics.edgeCount());
+        assertEquals(4, statistics.componentCount());
+        assertEquals(2, statistics.cyclicNodeCount());
+    }
+
+    @Test
+    public void testCountEngineHint() {
+        for (LLDirectedGraph.CountEngine engine : LLDirectedGraph.CountEngine.values()) {
+            graph.setCountEngineHint(engine);
+            assertEquals(2, graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 3));
+            assertEquals(3, graph.countRoutesWithHops(towns.get("A"), towns.get("C"), 4));
+            assertEquals(7, graph.countRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 29));
+            assertEquals(graph.routesWithMaxHops(towns.get("C"), towns.get("C"), 20).count(),
+                    graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 20));
+        }
+
+        // A forced engine is bypassed when it would run over the budget
+        graph.setExpansionBudget(1000);
+        graph.setCountEngineHint(LLDirectedGraph.CountEngine.ENUMERATION);
+        assertEquals(1_544_835_279, graph.countRoutesWithMaxHops(towns.get("C"), towns.get("C"), 55));
+    }
+
+    @Test
+    public void testEstimateRoutes() {
+        LLRouteCountEstimate estimate = graph.estimateRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 29, 0.01);
+        assertEquals(7, estimate.count(), 7 * 0.05);
+        assertTrue(estimate.relativeError() <= 0.01);
+        assertTrue(estimate.lowerBound() <= estimate.count() && estimate.count() <= estimate.upperBound());
+        assertTrue(estimate.samples() > 0);
+
+        estimate = graph.estimateRoutesWithMaxHops(towns.get("C"), towns.get("C"), 55, 0.01);
+        assertEquals(1_544_835_279, estimate.count(), 1_544_835_279 * 0.05);
+
+        // No route at all
+        estimate = graph.estimateRoutesWithMaxHops(towns.get("A"), towns.get("A"), 10, 0.01);
+        assertEquals(0, estimate.count(), 0);
+        assertEquals(0, estimate.samples());
+    }
+
+    @Test
+    public void testEstimateRoutesLargeBudget() {
+        // About 4.2949e165 routes, far beyond the long range
+        LLRouteCountEstimate estimate = graph.estimateRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 5000,
+                0.01);
+        assertEquals(4.2949e165, estimate.count(), 4.2949e165 * 0.05);
+        assertTrue(estimate.relativeError() <= 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEstimateRoutesException() {
+        graph.estimateRoutesWithMaxHops(towns.get("C"), towns.get("C"), 10, 0);
+    }
+
+    @Test(expected = LLDirectedGraph.QueryRejectedException.class)
+    public void testEstimateRoutesZeroWeight() {
+        graph.addEdge(towns.get("B"), towns.get("E"), 0);
+        graph.estimateRoutesWithMaxDistance(towns.get("C"), towns.get("C"), 30, 0.01);
+    }
 }
@@ -0,0 +1,27 @@
+package com.lucaslouca.util;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark comparing the 32-bit and 64-bit distance modes of {@code LLShortestPathTree}. Both modes run complete
+ * shortest path trees with a binary heap frontier on the same random graph, whose weights are small enough for the
+ * 32-bit mode.
+ * <p>
+ * Run the {@code main} method with the test classpath.
+ */
+public class LLDistanceModeBenchmark {
+    private static final int NODES = 200_000;
+    private static final int DEGREE = 5;
+    private static final int MAX_WEIGHT = 1000;
+    private static final int SOURCES = 20;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(new Random(42), NODES, DEGREE, 1, MAX_WEIGHT);
+
+        // Both modes use the binary heap, so that only the width of the distances differs
+        LLTreeBenchmarks.compare(graph, SOURCES, ROUNDS, "",
+                "int", source -> LLShortestPathTree.create(graph, source, false, false),
+                "long", source -> LLShortestPathTree.create(graph, source, true, false));
+    }
+}
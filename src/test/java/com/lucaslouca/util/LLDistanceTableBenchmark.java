@@ -0,0 +1,69 @@
+package com.lucaslouca.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Microbenchmark comparing {@code LLDistanceTable} with one complete shortest path tree per source, the way separate
+ * {@code length_of_shortest_path} commands compute a distance table. Both run on the same random graph and random
+ * lists of sources and targets.
+ * <p>
+ * Run the {@code main} method with the test classpath.
+ */
+public class LLDistanceTableBenchmark {
+    private static final int NODES = 200_000;
+    private static final int DEGREE = 5;
+    private static final int MAX_WEIGHT = 1000;
+    private static final int SOURCES = 100;
+    private static final int TARGETS = 100;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(random, NODES, DEGREE, 1, MAX_WEIGHT);
+        graph.reachability();
+
+        int[] sources = new int[SOURCES];
+        for (int i = 0; i < SOURCES; i++) {
+            sources[i] = random.nextInt(NODES);
+        }
+        int[] targets = new int[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            targets[i] = random.nextInt(NODES);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            long[] trees = trees(graph, sources, targets);
+            long treesTime = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            long[] table = new LLDistanceTable(graph, sources, targets).distances(false);
+            long tableTime = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            long[] parallelTable = new LLDistanceTable(graph, sources, targets).distances(true);
+            long parallelTime = System.nanoTime() - begin;
+
+            if (!Arrays.equals(trees, table) || !Arrays.equals(trees, parallelTable)) {
+                throw new IllegalStateException("Distance tables disagree");
+            }
+            System.out.printf("round %d: trees %.1f ms, buckets %.1f ms, parallel buckets %.1f ms%n", round,
+                    treesTime / 1e6, tableTime / 1e6, parallelTime / 1e6);
+        }
+    }
+
+    /**
+     * Distance table from one complete shortest path tree per source.
+     */
+    private static long[] trees(LLCompactGraph<Integer> graph, int[] sources, int[] targets) {
+        long[] table = new long[sources.length * targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            LLShortestPathTree tree = LLShortestPathTree.create(graph, sources[i]);
+            for (int j = 0; j < targets.length; j++) {
+                table[i * targets.length + j] = tree.distanceTo(targets[j]);
+            }
+        }
+        return table;
+    }
+}
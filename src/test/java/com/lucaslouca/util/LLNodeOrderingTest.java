@@ -0,0 +1,108 @@
+package com.lucaslouca.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@code LLNodeOrdering}.
+ */
+public class LLNodeOrderingTest {
+
+    /**
+     * Grid of width x height nodes with edges to the right and down, numbered in random order.
+     */
+    private static LLCompactGraph<Integer> shuffledGrid(int width, int height, Random random) {
+        int size = width * height;
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            ids.add(i);
+        }
+        Collections.shuffle(ids, random);
+
+        List<List<Integer>> neighbours = new ArrayList<List<Integer>>();
+        for (int i = 0; i < size; i++) {
+            neighbours.add(new ArrayList<Integer>());
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int node = ids.get(y * width + x);
+                if (x + 1 < width) {
+                    neighbours.get(node).add(ids.get(y * width + x + 1));
+                }
+                if (y + 1 < height) {
+                    neighbours.get(node).add(ids.get((y + 1) * width + x));
+                }
+            }
+        }
+
+        Object[] nodes = new Object[size];
+        int[] offsets = new int[size + 1];
+        int[] targets = new int[2 * size];
+        for (int node = 0; node < size; node++) {
+            nodes[node] = node;
+            offsets[node + 1] = offsets[node];
+            for (int target : neighbours.get(node)) {
+                targets[offsets[node + 1]++] = target;
+            }
+        }
+        int[] weights = new int[offsets[size]];
+        return new LLCompactGraph<Integer>(nodes, offsets, Arrays.copyOf(targets, offsets[size]), weights);
+    }
+
+    /**
+     * Largest difference between the ids of the two nodes of an edge.
+     */
+    private static int bandwidth(LLCompactGraph<?> graph, int[] ids) {
+        int bandwidth = 0;
+        for (int node = 0; node < graph.size(); node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                bandwidth = Math.max(bandwidth, Math.abs(ids[node] - ids[graph.target(edge)]));
+            }
+        }
+        return bandwidth;
+    }
+
+    @Test
+    public void testPermutation() {
+        LLCompactGraph<Integer> graph = shuffledGrid(7, 5, new Random(1));
+        int[] ids = LLNodeOrdering.reverseCuthillMcKee(graph);
+
+        boolean[] used = new boolean[graph.size()];
+        for (int id : ids) {
+            assertTrue(id >= 0 && id < graph.size() && !used[id]);
+            used[id] = true;
+        }
+    }
+
+    @Test
+    public void testDisconnected() {
+        // 0 -> 1, 2 isolated, 3 -> 4
+        LLCompactGraph<Integer> graph = new LLCompactGraph<Integer>(new Object[]{0, 1, 2, 3, 4},
+                new int[]{0, 1, 1, 1, 2, 2}, new int[]{1, 4}, new int[]{1, 1});
+        int[] ids = LLNodeOrdering.reverseCuthillMcKee(graph);
+
+        assertEquals(1, Math.abs(ids[0] - ids[1]));
+        assertEquals(1, Math.abs(ids[3] - ids[4]));
+    }
+
+    @Test
+    public void testReducesBandwidth() {
+        LLCompactGraph<Integer> graph = shuffledGrid(40, 40, new Random(2));
+        int[] identity = new int[graph.size()];
+        for (int node = 0; node < identity.length; node++) {
+            identity[node] = node;
+        }
+
+        // A grid of width w has bandwidth w in row order, which Cuthill-McKee roughly matches
+        assertTrue(bandwidth(graph, identity) > 1000);
+        assertTrue(bandwidth(graph, LLNodeOrdering.reverseCuthillMcKee(graph)) <= 80);
+    }
+}
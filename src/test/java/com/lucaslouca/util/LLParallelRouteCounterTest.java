@@ -0,0 +1,117 @@
+package com.lucaslouca.util;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@code LLParallelRouteCounter}.
+ */
+public class LLParallelRouteCounterTest {
+    private static ForkJoinPool pool;
+    private LLCompactGraph<String> graph;
+
+    @BeforeClass
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Before
+    public void initObjects() {
+        // A=0, B=1, C=2, D=3, E=4 with the edges AB5, AD5, AE7, BC4, CD8, CE2, DC8, DE6, EB3
+        Object[] nodes = {"A", "B", "C", "D", "E"};
+        int[] offsets = {0, 3, 4, 6, 8, 9};
+        int[] targets = {1, 3, 4, 2, 3, 4, 2, 4, 1};
+        int[] weights = {5, 5, 7, 4, 8, 2, 8, 6, 3};
+        graph = new LLCompactGraph<String>(nodes, offsets, targets, weights);
+    }
+
+    private LLRouteWalker maxDistanceWalker(int start, int dest, int maxDistance) {
+        return new LLRouteWalker(graph, start, (node, hops, distance) -> {
+            return distance > maxDistance;
+        }, (node, hops, distance) -> {
+            return node == dest && distance <= maxDistance;
+        }, (hops, distance) -> {
+            return (int) ((maxDistance - distance) / graph.minWeight());
+        });
+    }
+
+    @Test
+    public void testCountSmall() {
+        assertEquals(7, LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 29), pool));
+    }
+
+    @Test
+    public void testCountLarge() {
+        long expected = maxDistanceWalker(2, 2, 120).count();
+        assertEquals(expected, LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), pool));
+    }
+
+    @Test
+    public void testBudget() {
+        long expected = maxDistanceWalker(2, 2, 120).count();
+        assertEquals(LLParallelRouteCounter.BUDGET_EXCEEDED,
+                LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), pool, 10000));
+        assertEquals(expected, LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), pool, 1L << 40));
+    }
+
+    @Test
+    public void testBudgetExactFit() {
+        LLRouteWalker sequential = maxDistanceWalker(2, 2, 120);
+        long expected = sequential.count();
+        long steps = sequential.steps();
+
+        LLRouteWalker walker = maxDistanceWalker(2, 2, 120);
+        assertEquals(expected, walker.count(steps));
+        assertTrue(walker.isExhausted());
+
+        // With a single worker no batch holds steps back from another one
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertEquals(expected, LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), single, steps));
+            assertEquals(LLParallelRouteCounter.BUDGET_EXCEEDED,
+                    LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), single, steps - 1));
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void testBudgetNearLimit() {
+        LLRouteWalker sequential = maxDistanceWalker(2, 2, 120);
+        long expected = sequential.count();
+
+        // Each of the 4 workers may hold at most one batch it has not used yet when another one runs out
+        long budget = sequential.steps() + 4 * 1024;
+        for (int run = 0; run < 20; run++) {
+            assertEquals(expected, LLParallelRouteCounter.count(maxDistanceWalker(2, 2, 120), pool, budget));
+        }
+    }
+
+    @Test
+    public void testTrySplit() {
+        LLRouteWalker walker = maxDistanceWalker(2, 2, 120);
+        long total = 0;
+
+        // Split off a part of the tree after every batch and count it separately
+        while (!walker.isExhausted()) {
+            total += walker.count(100);
+            LLRouteWalker other = walker.trySplit();
+            if (other != null) {
+                total += other.count();
+            }
+        }
+        assertEquals(maxDistanceWalker(2, 2, 120).count(), total);
+    }
+}
@@ -0,0 +1,66 @@
+package com.lucaslouca.util;
+
+import com.lucaslouca.util.LLDirectedGraph.CountEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@code LLQueryPlanner}.
+ */
+public class LLQueryPlannerTest {
+    private static final LLQueryPlanner.Query QUERY = LLQueryPlanner.Query.COUNT_MAX_HOPS;
+
+    private LLQueryPlanner planner;
+
+    @Before
+    public void initObjects() {
+        planner = new LLQueryPlanner();
+    }
+
+    @Test
+    public void testChooseByCost() {
+        assertEquals(CountEngine.DYNAMIC_PROGRAMMING, planner.choose(QUERY, 2000, 1000));
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 1000, 2000));
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 1000, LLRouteCounts.UNSUPPORTED));
+        assertNull(planner.choose(QUERY, LLRouteCounts.UNSUPPORTED, LLRouteCounts.UNSUPPORTED));
+    }
+
+    @Test
+    public void testChooseByLatency() {
+        // Dynamic programming turns out to be ten times slower per unit of cost
+        for (int i = 0; i < 50; i++) {
+            planner.record(QUERY, CountEngine.ENUMERATION, 1 << 20, 1 << 20);
+            planner.record(QUERY, CountEngine.DYNAMIC_PROGRAMMING, 1 << 20, 10 << 20);
+        }
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 5000, 1000));
+        assertEquals(CountEngine.DYNAMIC_PROGRAMMING, planner.choose(QUERY, 20000, 1000));
+        assertEquals(10000, planner.enumerationCostOf(QUERY, 1000), 100);
+
+        // Other kinds of queries are measured on their own
+        assertEquals(CountEngine.DYNAMIC_PROGRAMMING,
+                planner.choose(LLQueryPlanner.Query.COUNT_MAX_DISTANCE, 5000, 1000));
+    }
+
+    @Test
+    public void testSmallQueriesIgnored() {
+        planner.record(QUERY, CountEngine.DYNAMIC_PROGRAMMING, 100, 1_000_000_000);
+        assertEquals(1000, planner.predictedNanos(QUERY, CountEngine.DYNAMIC_PROGRAMMING, 1000), 0);
+    }
+
+    @Test
+    public void testHint() {
+        planner.setHint(CountEngine.ENUMERATION);
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 2000, 1000));
+        assertEquals(CountEngine.DYNAMIC_PROGRAMMING, planner.choose(QUERY, LLRouteCounts.UNSUPPORTED, 1000));
+
+        planner.setHint(CountEngine.DYNAMIC_PROGRAMMING);
+        assertEquals(CountEngine.DYNAMIC_PROGRAMMING, planner.choose(QUERY, 1000, 2000));
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 1000, LLRouteCounts.UNSUPPORTED));
+
+        planner.setHint(null);
+        assertEquals(CountEngine.ENUMERATION, planner.choose(QUERY, 1000, 2000));
+    }
+}
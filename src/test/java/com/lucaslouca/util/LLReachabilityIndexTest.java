@@ -0,0 +1,111 @@
+package com.lucaslouca.util;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for {@code LLReachabilityIndex}.
+ */
+public class LLReachabilityIndexTest {
+
+    /**
+     * Graph with the given adjacency lists and weight 1 on every edge.
+     */
+    private static LLCompactGraph<Integer> graph(int[][] adjacency) {
+        Object[] nodes = new Object[adjacency.length];
+        int[] offsets = new int[adjacency.length + 1];
+        for (int node = 0; node < adjacency.length; node++) {
+            nodes[node] = node;
+            offsets[node + 1] = offsets[node] + adjacency[node].length;
+        }
+
+        int[] targets = new int[offsets[adjacency.length]];
+        int[] weights = new int[targets.length];
+        for (int node = 0; node < adjacency.length; node++) {
+            System.arraycopy(adjacency[node], 0, targets, offsets[node], adjacency[node].length);
+        }
+        Arrays.fill(weights, 1);
+        return new LLCompactGraph<Integer>(nodes, offsets, targets, weights);
+    }
+
+    /**
+     * Reference implementation: breadth first search for a non-empty path.
+     */
+    private static boolean bfs(LLCompactGraph<Integer> graph, int from, int to) {
+        boolean[] visited = new boolean[graph.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(from);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int target = graph.target(edge);
+                if (target == to) {
+                    return true;
+                } else if (!visited[target]) {
+                    visited[target] = true;
+                    queue.add(target);
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testSampleGraph() {
+        // A=0, B=1, C=2, D=3, E=4 with the edges AB, AD, AE, BC, CD, CE, DC, DE, EB
+        LLReachabilityIndex index = new LLReachabilityIndex(graph(new int[][]{{1, 3, 4}, {2}, {3, 4}, {2, 4}, {1}}));
+
+        assertEquals(2, index.componentCount());
+        assertEquals(index.component(1), index.component(4));
+        assertTrue(index.reachable(0, 2));
+        assertTrue(index.reachable(1, 1));
+        assertFalse(index.reachable(0, 0));
+        assertFalse(index.reachable(2, 0));
+        assertTrue(index.reachableOrSame(0, 0));
+    }
+
+    @Test
+    public void testDeepChain() {
+        // Recursive Tarjan would overflow the stack on this graph
+        int size = 200000;
+        int[][] adjacency = new int[size][];
+        for (int node = 0; node < size; node++) {
+            adjacency[node] = node + 1 < size ? new int[]{node + 1} : new int[0];
+        }
+        LLReachabilityIndex index = new LLReachabilityIndex(graph(adjacency));
+
+        assertEquals(size, index.componentCount());
+        assertTrue(index.reachable(0, size - 1));
+        assertFalse(index.reachable(size - 1, 0));
+        assertFalse(index.reachable(42, 42));
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 20; round++) {
+            int size = 1 + random.nextInt(40);
+            int[][] adjacency = new int[size][];
+            for (int node = 0; node < size; node++) {
+                adjacency[node] = random.ints(random.nextInt(3), 0, size).distinct().toArray();
+            }
+            LLCompactGraph<Integer> graph = graph(adjacency);
+            LLReachabilityIndex index = new LLReachabilityIndex(graph);
+
+            for (int from = 0; from < size; from++) {
+                for (int to = 0; to < size; to++) {
+                    assertEquals(bfs(graph, from, to), index.reachable(from, to));
+                }
+            }
+        }
+    }
+}
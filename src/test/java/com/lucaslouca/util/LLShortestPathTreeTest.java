@@ -0,0 +1,210 @@
+package com.lucaslouca.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@code LLShortestPathTree} and {@code LLShortestPathTreeCache}.
+ */
+public class LLShortestPathTreeTest {
+    private static final int A = 0, B = 1, C = 2, D = 3, E = 4;
+
+    /**
+     * Graph AB5, BC4, CD8, DC8, DE6, AD5, CE2, EB3, AE7.
+     */
+    private static LLCompactGraph<String> graph() {
+        Object[] nodes = {"A", "B", "C", "D", "E"};
+        int[] offsets = {0, 3, 4, 6, 8, 9};
+        int[] targets = {B, D, E, C, D, E, C, E, B};
+        int[] weights = {5, 5, 7, 4, 8, 2, 8, 6, 3};
+        return new LLCompactGraph<String>(nodes, offsets, targets, weights);
+    }
+
+    @Test
+    public void testDistances() {
+        LLShortestPathTree tree = LLShortestPathTree.create(graph(), A);
+        assertEquals(5, tree.distanceTo(B));
+        assertEquals(9, tree.distanceTo(C));
+        assertEquals(5, tree.distanceTo(D));
+        assertEquals(7, tree.distanceTo(E));
+        assertEquals(LLShortestPaths.LONG_INFINITY, tree.distanceTo(A));
+    }
+
+    @Test
+    public void testPaths() {
+        LLShortestPathTree tree = LLShortestPathTree.create(graph(), A);
+        assertArrayEquals(new int[]{A, B, C}, tree.pathTo(C));
+        assertArrayEquals(new int[]{A, E}, tree.pathTo(E));
+        assertNull(tree.pathTo(A));
+    }
+
+    @Test
+    public void testCycleToSource() {
+        LLShortestPathTree tree = LLShortestPathTree.create(graph(), B);
+        assertEquals(9, tree.distanceTo(B));
+        assertArrayEquals(new int[]{B, C, E, B}, tree.pathTo(B));
+    }
+
+    @Test
+    public void testResumeFromFrontier() {
+        LLShortestPathTree tree = LLShortestPathTree.create(graph(), A);
+
+        // Only part of the tree is settled, so the frontier is kept
+        assertEquals(5, tree.distanceTo(B));
+        long partial = tree.memoryBytes();
+
+        // Resuming in any order gives the same answers as a fresh search
+        assertEquals(7, tree.distanceTo(E));
+        assertEquals(5, tree.distanceTo(B));
+        assertEquals(LLShortestPaths.LONG_INFINITY, tree.distanceTo(A));
+        assertEquals(9, tree.distanceTo(C));
+
+        // Complete search releases the frontier
+        assertTrue(tree.memoryBytes() < partial);
+    }
+
+    @Test
+    public void testWideDistances() {
+        LLShortestPathTree narrow = LLShortestPathTree.create(graph(), A, false);
+        LLShortestPathTree wide = LLShortestPathTree.create(graph(), A, true);
+        for (int node = 0; node < 5; node++) {
+            assertEquals(narrow.distanceTo(node), wide.distanceTo(node));
+            assertArrayEquals(narrow.pathTo(node), wide.pathTo(node));
+        }
+    }
+
+    @Test
+    public void testDistancesBeyondIntRange() {
+        // 0 -> 1 -> 2 -> 0, each edge close to Integer.MAX_VALUE
+        int weight = Integer.MAX_VALUE - 1;
+        LLCompactGraph<Integer> graph = new LLCompactGraph<Integer>(new Object[]{0, 1, 2}, new int[]{0, 1, 2, 3},
+                new int[]{1, 2, 0}, new int[]{weight, weight, weight});
+        assertTrue(graph.wideDistances());
+
+        LLShortestPathTree tree = LLShortestPathTree.create(graph, 0);
+        assertEquals(2L * weight, tree.distanceTo(2));
+        assertEquals(3L * weight, tree.distanceTo(0));
+        assertArrayEquals(new int[]{0, 1, 2, 0}, tree.pathTo(0));
+    }
+
+    @Test
+    public void testBucketQueue() {
+        Random random = new Random(31);
+        for (int maxWeight : new int[]{0, 1, 5, 100}) {
+            LLCompactGraph<Integer> graph = LLTestGraphs.randomGraph(random, 500, 3, 0, maxWeight);
+            for (int source = 0; source < 5; source++) {
+                LLShortestPathTree heap = LLShortestPathTree.create(graph, source, false, false);
+                LLShortestPathTree buckets = LLShortestPathTree.create(graph, source, false, true);
+                for (int node = 0; node < graph.size(); node++) {
+                    assertEquals(heap.distanceTo(node), buckets.distanceTo(node));
+                    int[] path = buckets.pathTo(node);
+                    if (path != null) {
+                        long distance = 0;
+                        for (int i = 1; i < path.length; i++) {
+                            distance += weight(graph, path[i - 1], path[i]);
+                        }
+                        assertEquals(buckets.distanceTo(node), distance);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCacheReusesTrees() {
+        LLCompactGraph<String> graph = graph();
+        LLShortestPathTreeCache cache = new LLShortestPathTreeCache(LLShortestPathTreeCache.DEFAULT_BUDGET);
+
+        LLShortestPathTree tree = cache.tree(graph, A);
+        assertSame(tree, cache.tree(graph, A));
+        assertNotSame(tree, cache.tree(graph, B));
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNotSame(tree, cache.tree(graph, A));
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        LLCompactGraph<String> graph = graph();
+        long treeBytes = LLShortestPathTree.create(graph, A).memoryBytes();
+        LLShortestPathTreeCache cache = new LLShortestPathTreeCache(2 * treeBytes);
+
+        LLShortestPathTree a = cache.tree(graph, A);
+        LLShortestPathTree b = cache.tree(graph, B);
+        assertSame(a, cache.tree(graph, A));
+
+        // B is the least recently used tree
+        cache.tree(graph, C);
+        assertEquals(2, cache.size());
+        assertSame(a, cache.tree(graph, A));
+        assertNotSame(b, cache.tree(graph, B));
+    }
+
+    @Test
+    public void testCacheKeepsTreeInUse() {
+        LLCompactGraph<String> graph = graph();
+        LLShortestPathTreeCache cache = new LLShortestPathTreeCache(0);
+
+        LLShortestPathTree tree = cache.tree(graph, A);
+        assertEquals(1, cache.size());
+        assertEquals(9, tree.distanceTo(C));
+
+        cache.tree(graph, B);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCacheAccountsForReleasedFrontier() {
+        LLCompactGraph<String> graph = graph();
+        long treeBytes = LLShortestPathTree.create(graph, A).memoryBytes();
+        LLShortestPathTree complete = LLShortestPathTree.create(graph, A);
+        complete.distanceTo(A);
+        LLShortestPathTreeCache cache = new LLShortestPathTreeCache(treeBytes + complete.memoryBytes());
+
+        // Completing the search of A makes room for B
+        LLShortestPathTree a = cache.tree(graph, A);
+        assertEquals(LLShortestPaths.LONG_INFINITY, a.distanceTo(A));
+        cache.tree(graph, B);
+        assertEquals(2, cache.size());
+        assertSame(a, cache.tree(graph, A));
+    }
+
+    @Test(timeout = 10000)
+    public void testCacheDoesNotWaitForSearch() throws InterruptedException {
+        LLCompactGraph<String> graph = graph();
+        LLShortestPathTreeCache cache = new LLShortestPathTreeCache(0);
+        LLShortestPathTree a = cache.tree(graph, A);
+
+        // Holding the lock of A, as a search in progress does, neither blocks lookups nor the eviction of A
+        synchronized (a) {
+            Thread lookup = new Thread(() -> cache.tree(graph, B));
+            lookup.start();
+            lookup.join();
+        }
+        assertEquals(1, cache.size());
+        assertNotSame(a, cache.tree(graph, A));
+    }
+
+    /**
+     * Weight of the lightest edge from start to dest.
+     */
+    private static int weight(LLCompactGraph<?> graph, int start, int dest) {
+        int weight = Integer.MAX_VALUE;
+        for (int edge = graph.firstEdge(start); edge < graph.endEdge(start); edge++) {
+            if (graph.target(edge) == dest) {
+                weight = Math.min(weight, graph.weight(edge));
+            }
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,67 @@
+package com.lucaslouca.util;
+
+import java.util.Random;
+
+/**
+ * Factory of random {@code LLCompactGraph}s and {@code LLDirectedGraph}s for tests and benchmarks.
+ */
+class LLTestGraphs {
+    private LLTestGraphs() {
+    }
+
+    /**
+     * Random graph where every node has degree edges to uniformly chosen targets, self loops and parallel edges
+     * included. Node {@code n} holds the data {@code n}.
+     *
+     * @param random    source of the targets and weights.
+     * @param size      number of nodes.
+     * @param degree    number of outgoing edges of each node.
+     * @param minWeight smallest edge weight, inclusive.
+     * @param maxWeight largest edge weight, inclusive.
+     * @return the graph.
+     */
+    static LLCompactGraph<Integer> randomGraph(Random random, int size, int degree, int minWeight, int maxWeight) {
+        Object[] nodes = new Object[size];
+        int[] offsets = new int[size + 1];
+        int[] targets = new int[size * degree];
+        int[] weights = new int[size * degree];
+
+        for (int node = 0; node < size; node++) {
+            nodes[node] = node;
+            offsets[node + 1] = offsets[node] + degree;
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                targets[edge] = random.nextInt(size);
+                weights[edge] = minWeight + random.nextInt(maxWeight - minWeight + 1);
+            }
+        }
+        return new LLCompactGraph<Integer>(nodes, offsets, targets, weights);
+    }
+
+    /**
+     * Random graph with the nodes {@code 0} to {@code size - 1} and edges between uniformly chosen nodes. An edge
+     * drawn again replaces the earlier one, so the graph may have fewer edges than drawn.
+     *
+     * @param random    source of the edges and weights.
+     * @param size      number of nodes.
+     * @param edges     number of edges to draw.
+     * @param minWeight smallest edge weight, inclusive.
+     * @param maxWeight largest edge weight, inclusive.
+     * @param selfLoops {@code false} to drop the edges drawn from a node to itself.
+     * @return the graph.
+     */
+    static LLDirectedGraph<Integer> randomDirectedGraph(Random random, int size, int edges, int minWeight,
+                                                        int maxWeight, boolean selfLoops) {
+        LLDirectedGraph<Integer> graph = new LLDirectedGraph<Integer>();
+        for (int node = 0; node < size; node++) {
+            graph.addNode(node);
+        }
+        for (int edge = 0; edge < edges; edge++) {
+            int start = random.nextInt(size);
+            int dest = random.nextInt(size);
+            if (selfLoops || start != dest) {
+                graph.addEdge(start, dest, minWeight + random.nextInt(maxWeight - minWeight + 1));
+            }
+        }
+        return graph;
+    }
+}
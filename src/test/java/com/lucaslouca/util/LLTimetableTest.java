@@ -0,0 +1,155 @@
+package com.lucaslouca.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@code LLTimetable}.
+ */
+public class LLTimetableTest {
+    private LLTimetable timetable;
+
+    @Before
+    public void initObjects() {
+        timetable = new LLTimetableImpl();
+        try {
+            ClassLoader classLoader = getClass().getClassLoader();
+            File file = new File(classLoader.getResource("timetable.txt").getFile());
+            timetable.init(file.getAbsolutePath());
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    public void testEarliestArrival1() {
+        assertEquals(494, timetable.earliestArrival("A", "C", 480));
+    }
+
+    @Test
+    public void testEarliestArrival2() {
+        // Just missed the train to B, continue via D
+        assertEquals(518, timetable.earliestArrival("A", "C", 481));
+    }
+
+    @Test
+    public void testEarliestArrival3() {
+        assertEquals(497, timetable.earliestArrival("A", "E", 480));
+        assertEquals(485, timetable.earliestArrival("A", "B", 470));
+    }
+
+    @Test
+    public void testEarliestArrivalSameTown() {
+        assertEquals(480, timetable.earliestArrival("A", "A", 480));
+    }
+
+    @Test
+    public void testParseInput1() {
+        assertEquals(554, timetable.earliestArrival("A", "C", 520));
+
+        timetable.parseInput("AC;530;531");
+        assertEquals(531, timetable.earliestArrival("A", "C", 520));
+    }
+
+    @Test(expected = LLTownMapImpl.NoSuchRouteException.class)
+    public void testNoConnection1() {
+        timetable.earliestArrival("E", "A", 0);
+    }
+
+    @Test(expected = LLTownMapImpl.NoSuchRouteException.class)
+    public void testNoConnection2() {
+        // Last train has left
+        timetable.earliestArrival("A", "B", 541);
+    }
+
+    @Test(expected = LLTownMapImpl.NoSuchRouteException.class)
+    public void testNoConnection3() {
+        timetable.earliestArrival("A", "X", 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInputException1() {
+        timetable.parseInput("AB;480");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInputException2() {
+        timetable.parseInput("AB;480;x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInputException3() {
+        // Arrives before it departs
+        timetable.parseInput("AB;480;470");
+    }
+
+    @Test
+    public void testEarliestArrivalZeroDurationChain() {
+        // Stops 0 to 4. Every connection leaves at minute 5, listed so that each one comes before the one feeding it
+        int[] from = {3, 2, 1, 0};
+        int[] to = {4, 3, 2, 1};
+        int[] departures = {5, 5, 5, 5};
+        int[] arrivals = {9, 5, 5, 5};
+        LLConnectionScan scan = new LLConnectionScan(5, from, to, departures, arrivals, 4);
+
+        assertEquals(5, scan.earliestArrival(0, 3, 5));
+        assertEquals(9, scan.earliestArrival(0, 4, 5));
+        assertEquals(LLConnectionScan.NEVER, scan.earliestArrival(0, 4, 6));
+    }
+
+    @Test
+    public void testParseInputZeroDuration() {
+        // Reaches C at minute 600 and catches the train leaving C at the same minute
+        timetable.parseInput("CX;600;610");
+        timetable.parseInput("AC;600;600");
+        assertEquals(610, timetable.earliestArrival("A", "X", 600));
+    }
+
+    @Test
+    public void testEarliestArrivalRandom() {
+        Random random = new Random(7);
+        int stops = 12;
+        int count = 400;
+        int[] from = new int[count];
+        int[] to = new int[count];
+        int[] departures = new int[count];
+        int[] arrivals = new int[count];
+        for (int i = 0; i < count; i++) {
+            from[i] = random.nextInt(stops);
+            to[i] = random.nextInt(stops);
+            departures[i] = random.nextInt(1000);
+            arrivals[i] = departures[i] + random.nextInt(50);
+        }
+        LLConnectionScan scan = new LLConnectionScan(stops, from, to, departures, arrivals, count);
+
+        for (int query = 0; query < 200; query++) {
+            int source = random.nextInt(stops);
+            int target = random.nextInt(stops);
+            int departure = random.nextInt(1000);
+
+            // Reference: relax all connections until nothing changes
+            int[] expected = new int[stops];
+            Arrays.fill(expected, LLConnectionScan.NEVER);
+            expected[source] = departure;
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < count; i++) {
+                    if (expected[from[i]] <= departures[i] && arrivals[i] < expected[to[i]]) {
+                        expected[to[i]] = arrivals[i];
+                        changed = true;
+                    }
+                }
+            }
+
+            assertEquals(expected[target], scan.earliestArrival(source, target, departure));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FileNotFoundException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -28,7 +29,7 @@ public class LLTownMapTest {
 
     @Test
     public void testParseInput1() {
-        int ans = map.lengthOfShortestPathBetween("A", "C");
+        long ans = map.lengthOfShortestPathBetween("A", "C");
         assertEquals(9, ans);
 
         map.parseInput("AC1");
@@ -48,7 +49,7 @@ public class LLTownMapTest {
 
     @Test
     public void testParseInput3() {
-        int ans = map.lengthOfShortestPathBetween("A", "C");
+        long ans = map.lengthOfShortestPathBetween("A", "C");
         assertEquals(9, ans);
 
         map.parseInput("AC");
@@ -70,4 +71,19 @@ public class LLTownMapTest {
     public void testParseInputException3() {
         map.parseInput("ACX");
     }
+
+    @Test
+    public void testDistances() {
+        int a = map.townId("A"), b = map.townId("B"), c = map.townId("C"), d = map.townId("D"), e = map.townId("E");
+        assertEquals(-1, map.townId("X"));
+
+        // A-B-C, A-D, A-E-D, A-E-B-C-D, C and an unknown town
+        int[] towns = {a, b, c, a, d, a, e, d, a, e, b, c, d, c, -1, c};
+        int[] offsets = {0, 3, 5, 8, 13, 14, 16};
+        long[] distances = new long[6];
+        map.distances(towns, offsets, distances);
+
+        long none = LLDirectedGraph.NO_SUCH_ROUTE;
+        assertArrayEquals(new long[]{9, 5, none, 22, 0, none}, distances);
+    }
 }
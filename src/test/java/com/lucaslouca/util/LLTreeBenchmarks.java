@@ -0,0 +1,62 @@
+package com.lucaslouca.util;
+
+import java.util.function.IntFunction;
+
+/**
+ * Timing loop shared by the microbenchmarks that compare two variants of {@code LLShortestPathTree}.
+ */
+class LLTreeBenchmarks {
+    private LLTreeBenchmarks() {
+    }
+
+    /**
+     * Time two variants on complete shortest path trees from the first sources of graph, and print the milliseconds
+     * per tree of each round.
+     *
+     * @param graph        graph to search.
+     * @param sources      number of sources, the ids {@code 0} to {@code sources - 1}.
+     * @param rounds       number of rounds.
+     * @param prefix       text printed before the round number.
+     * @param firstName    name of the first variant.
+     * @param first        creates a tree of the first variant for a source id.
+     * @param secondName   name of the second variant.
+     * @param second       creates a tree of the second variant for a source id.
+     * @throws IllegalStateException if the variants compute different distances.
+     */
+    static void compare(LLCompactGraph<?> graph, int sources, int rounds, String prefix,
+                        String firstName, IntFunction<LLShortestPathTree> first,
+                        String secondName, IntFunction<LLShortestPathTree> second) {
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            long firstSum = run(graph, sources, first);
+            long firstTime = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            long secondSum = run(graph, sources, second);
+            long secondTime = System.nanoTime() - begin;
+
+            if (firstSum != secondSum) {
+                throw new IllegalStateException("Variants disagree: " + firstSum + " != " + secondSum);
+            }
+            System.out.printf("%sround %d: %s %.1f ms/tree, %s %.1f ms/tree%n", prefix, round,
+                    firstName, firstTime / 1e6 / sources, secondName, secondTime / 1e6 / sources);
+        }
+    }
+
+    /**
+     * Complete shortest path trees from the first sources, returns the sum of all distances.
+     */
+    private static long run(LLCompactGraph<?> graph, int sources, IntFunction<LLShortestPathTree> trees) {
+        long sum = 0;
+        for (int source = 0; source < sources; source++) {
+            LLShortestPathTree tree = trees.apply(source);
+            for (int node = 0; node < graph.size(); node++) {
+                long distance = tree.distanceTo(node);
+                if (distance != LLShortestPaths.LONG_INFINITY) {
+                    sum += distance;
+                }
+            }
+        }
+        return sum;
+    }
+}